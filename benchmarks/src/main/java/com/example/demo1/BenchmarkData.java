@@ -0,0 +1,51 @@
+package com.example.demo1;
+
+import java.util.SplittableRandom;
+
+// Общие входные данные бенчмарков
+final class BenchmarkData {
+    static final double SUN_GRAVITATIONAL_PARAMETER = NBodySystem.GRAVITATIONAL_CONSTANT * 1.989e30;
+
+    private BenchmarkData() {
+    }
+
+    // Планеты со случайными эллиптическими орбитами от 0.3 до 40 а.е.
+    static Planet[] planets(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Planet[] planets = new Planet[count];
+        for (int i = 0; i < count; i++) {
+            double a = (0.3 + random.nextDouble() * 39.7) * Units.ASTRONOMICAL_UNIT;
+            double period = 2 * Math.PI / AsteroidState.meanMotion(SUN_GRAVITATIONAL_PARAMETER, a);
+            Orbit orbit = new Orbit(a, random.nextDouble() * 0.25, period,
+                    random.nextDouble() * 2 * Math.PI, random.nextDouble() * 2 * Math.PI);
+            planets[i] = new Planet("P" + i, 1e24, 6000, orbit);
+        }
+        return planets;
+    }
+
+    // Дерево из count тел: восьмая часть - планеты, остальные - спутники случайных более ранних тел,
+    // так что встречаются и спутники спутников
+    static SolarSystem system(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SolarSystem system = new SolarSystem();
+        Sun sun = new Sun("Sun", 1.989e30, 696000);
+        system.setSun(sun);
+        Planet[] planets = planets(Math.max(1, count / 8), seed);
+        CelestialBody[] bodies = new CelestialBody[count];
+        for (int i = 0; i < planets.length; i++) {
+            planets[i].setParent(sun);
+            system.addPlanet(planets[i]);
+            bodies[i] = planets[i];
+        }
+        for (int i = planets.length; i < count; i++) {
+            CelestialBody parent = bodies[random.nextInt(i)];
+            double a = parent.getOrbit().getSemiMajorAxis() * (0.001 + random.nextDouble() * 0.01);
+            Moon moon = new Moon("M" + i, 1e20, new Orbit(a, random.nextDouble() * 0.05,
+                    Units.DAY * (1 + random.nextDouble() * 30), random.nextDouble() * 2 * Math.PI, 0), 1000);
+            moon.setParent(parent);
+            system.addMoon(moon);
+            bodies[i] = moon;
+        }
+        return system;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Работа кадра в потоке JavaFX без самого JavaFX: интерполяция среза, схематичная проекция
+// и обновление сетки наведения. Запись в узлы и пиксельный буфер требует запущенного
+// тулкита и измеряется в приложении через --frame-stats.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+    private static final double WIDTH = 960;
+    private static final double HEIGHT = 1080;
+    // Кадров в кольце для сетки: соседние отличаются на шаг физики
+    private static final int FRAMES = 8;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int bodies;
+
+    private PhysicsEngine engine;
+    private StateSnapshot snapshot;
+    private SchematicProjection projection;
+    private ScreenGrid grid;
+    private float[] screenX;
+    private float[] screenY;
+    private float[][] frameX;
+    private float[][] frameY;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        AsteroidBelt belt = new AsteroidBelt();
+        belt.createAsteroids(bodies, BenchmarkData.SUN_GRAVITATIONAL_PARAMETER, 42, ForkJoinPool.commonPool());
+        engine = new PhysicsEngine(List.of(belt), 1, new SimulationClock(21600, 1));
+        engine.runSteps(1);
+        snapshot = engine.latest();
+        double baseRadius = WIDTH * 0.085;
+        projection = new SchematicProjection(WIDTH / 2, HEIGHT / 2, 0.387 * Units.ASTRONOMICAL_UNIT, baseRadius * 1.3,
+                39.5 * Units.ASTRONOMICAL_UNIT, baseRadius * 5.5, 20 / 3.844e8);
+        grid = new ScreenGrid(WIDTH, HEIGHT, 16, bodies);
+        screenX = new float[bodies];
+        screenY = new float[bodies];
+        // Кольцо спроецированных кадров строится заранее: шаг физики внутри замера исказил бы время
+        // микросекундных вызовов, а от кадра к кадру часть тел переходит между ячейками сетки
+        frameX = new float[FRAMES][];
+        frameY = new float[FRAMES][];
+        for (int k = 0; k < FRAMES; k++) {
+            engine.runSteps(1);
+            snapshot = engine.latest();
+            frameX[k] = interpolateAndProject().clone();
+            frameY[k] = screenY.clone();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.stop();
+    }
+
+    @Benchmark
+    public float[] interpolateAndProject() {
+        double alpha = 0.5;
+        for (int i = 0; i < bodies; i++) {
+            screenX[i] = (float) snapshot.interpolateX(i, alpha);
+            screenY[i] = (float) snapshot.interpolateY(i, alpha);
+        }
+        projection.project(screenX, screenY, 0, bodies, snapshot.originXAt(alpha), snapshot.originYAt(alpha));
+        return screenX;
+    }
+
+    @Benchmark
+    public int gridUpdateAndQuery() {
+        frame = (frame + 1) % FRAMES;
+        grid.update(frameX[frame], frameY[frame], bodies, 0);
+        return grid.nearest(WIDTH / 2 + 250, HEIGHT / 2, 4);
+    }
+}
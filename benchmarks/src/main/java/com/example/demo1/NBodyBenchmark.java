@@ -0,0 +1,102 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Шаг N тел перебором всех пар и деревом Барнса-Хата на диске вокруг центральной массы.
+// Для дерева при подготовке печатается среднеквадратичная ошибка ускорений относительно перебора.
+// Точный перебор на 100 000 тел идёт десятки секунд на шаг, поэтому по умолчанию размеры меньше
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NBodyBenchmark {
+    private static final double SOFTENING = 0.01;
+
+    @Param({"1000", "10000"})
+    private int bodies;
+
+    @Param({"BRUTE_FORCE", "BARNES_HUT"})
+    private GravityMode mode;
+
+    @Param({"0.5"})
+    private double theta;
+
+    private ForkJoinPool pool;
+    private NBodySystem system;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        system = createDisk(mode);
+        if (mode == GravityMode.BARNES_HUT) {
+            // Ошибка считается на одинаковом начальном состоянии, до шагов
+            NBodySystem reference = createDisk(GravityMode.BRUTE_FORCE);
+            reference.computeAccelerations();
+            system.computeAccelerations();
+            System.out.printf(Locale.ROOT, "%nrms force error %.2e%n", relativeError(reference, system));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void step() {
+        system.step(1e-3);
+    }
+
+    private NBodySystem createDisk(GravityMode diskMode) {
+        // Одинаковое зерно, чтобы оба режима считали одну и ту же систему
+        SplittableRandom random = new SplittableRandom(42);
+        NBodySystem disk = new NBodySystem(bodies, 1, SOFTENING, pool);
+        disk.setMode(diskMode);
+        disk.setOpeningAngle(theta);
+        double centralMass = 1;
+        disk.add(centralMass, 0, 0, 0, 0, 0, 0);
+        double bodyMass = 1e-3 / bodies;
+        for (int i = 1; i < bodies; i++) {
+            double r = 1 + random.nextDouble() * 9;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double height = (random.nextDouble() - 0.5) * 0.1;
+            double speed = Math.sqrt(centralMass / r);
+            disk.add(bodyMass, r * Math.cos(angle), r * Math.sin(angle), height,
+                    -speed * Math.sin(angle), speed * Math.cos(angle), 0);
+        }
+        return disk;
+    }
+
+    private static double relativeError(NBodySystem reference, NBodySystem approximate) {
+        double sum = 0;
+        int n = reference.size();
+        for (int i = 0; i < n; i++) {
+            double dx = approximate.ax[i] - reference.ax[i];
+            double dy = approximate.ay[i] - reference.ay[i];
+            double dz = approximate.az[i] - reference.az[i];
+            double norm2 = reference.ax[i] * reference.ax[i] + reference.ay[i] * reference.ay[i] + reference.az[i] * reference.az[i];
+            if (norm2 > 0) {
+                sum += (dx * dx + dy * dy + dz * dz) / norm2;
+            }
+        }
+        return Math.sqrt(sum / n);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Положения тел, которые хранятся объектами: Orbit.positionAt, проход по развёрнутому дереву тел
+// и шаг SolarSystem с планетами и спутниками из каталога
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrbitBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int bodies;
+
+    private Orbit[] orbits;
+    private SolarSystem hierarchy;
+    private SolarSystem solarSystem;
+    private final double[] position = new double[2];
+    private double time;
+
+    @Setup
+    public void setUp() {
+        Planet[] planets = BenchmarkData.planets(bodies, 42);
+        orbits = new Orbit[bodies];
+        for (int i = 0; i < bodies; i++) {
+            orbits[i] = planets[i].getOrbit();
+        }
+        hierarchy = BenchmarkData.system(bodies, 42);
+        hierarchy.step(0, bodies, 0);
+        solarSystem = SystemCatalog.loadDefault();
+    }
+
+    @Benchmark
+    public void orbitPositionAt(Blackhole blackhole) {
+        time += 21600;
+        for (Orbit orbit : orbits) {
+            orbit.positionAt(time, position);
+            blackhole.consume(position[0]);
+        }
+    }
+
+    @Benchmark
+    public double hierarchyStep() {
+        hierarchy.step(0, bodies, 21600);
+        return hierarchy.getBody(bodies - 1).getX();
+    }
+
+    // Не зависит от bodies: в каталоге Солнечной системы фиксированное число тел
+    @Benchmark
+    public double solarSystemStep() {
+        solarSystem.step(0, solarSystem.size(), 21600);
+        return solarSystem.getBody(0).getX();
+    }
+}
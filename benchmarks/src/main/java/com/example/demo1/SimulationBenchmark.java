@@ -0,0 +1,96 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Шаг и вычисление положений малых тел на круговых и эллиптических орбитах
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    private static final double STEP = 21600;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int bodies;
+
+    private AsteroidState circular;
+    private AsteroidState elliptic;
+    private float[] x;
+    private float[] y;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        double gm = BenchmarkData.SUN_GRAVITATIONAL_PARAMETER;
+        circular = new AsteroidState(bodies);
+        elliptic = new AsteroidState(bodies);
+        for (int i = 0; i < bodies; i++) {
+            double a = (2.1 + random.nextDouble() * 1.2) * Units.ASTRONOMICAL_UNIT;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            circular.add(a, angle, AsteroidState.meanMotion(gm, a));
+            elliptic.set(i, a, random.nextDouble() * 0.3, angle, AsteroidState.meanMotion(gm, a),
+                    random.nextDouble() * 2 * Math.PI);
+        }
+        elliptic.setSize(bodies);
+        x = new float[bodies];
+        y = new float[bodies];
+    }
+
+    @Benchmark
+    public void step() {
+        circular.step(STEP);
+    }
+
+    @Benchmark
+    public void positionsCircular(Blackhole blackhole) {
+        circular.positions(0, 0, x, y);
+        blackhole.consume(x);
+    }
+
+    @Benchmark
+    public void positionsElliptic(Blackhole blackhole) {
+        elliptic.positions(0, 0, x, y);
+        blackhole.consume(x);
+    }
+
+    // Шаг пояса через движок: раскладка по кускам, запись обоих срезов и публикация
+    @State(Scope.Benchmark)
+    public static class EngineState {
+        PhysicsEngine engine;
+
+        @Setup
+        public void setUp(SimulationBenchmark benchmark) {
+            AsteroidBelt belt = new AsteroidBelt(benchmark.circular);
+            engine = new PhysicsEngine(List.of(belt), 1, new SimulationClock(STEP, 1));
+        }
+
+        @TearDown
+        public void tearDown() {
+            engine.stop();
+        }
+    }
+
+    @Benchmark
+    public StateSnapshot engineStep(EngineState state) {
+        state.engine.runSteps(1);
+        return state.engine.latest();
+    }
+}
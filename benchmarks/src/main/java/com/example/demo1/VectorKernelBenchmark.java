@@ -0,0 +1,85 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Скалярные циклы AsteroidState против векторного ядра на разных наборах инструкций.
+// Уровень задаётся -XX:UseAVX в отдельном форке: 0 - только SSE, 2 - AVX2, 3 - AVX-512.
+// Если процессор уровня не поддерживает, JVM понижает его до доступного и пишет предупреждение.
+// На SSE векторное ядро не включается (OrbitKernel.load), и оба варианта идут скалярным путём.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorKernelBenchmark {
+    private static final double STEP = 21600;
+
+    @Param({"1000", "100000", "1000000"})
+    private int bodies;
+
+    @Param({"scalar", "vector"})
+    private String kernel;
+
+    private AsteroidState elliptic;
+    private float[] x;
+    private float[] y;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        double gm = BenchmarkData.SUN_GRAVITATIONAL_PARAMETER;
+        elliptic = new AsteroidState(bodies);
+        for (int i = 0; i < bodies; i++) {
+            double a = (2.1 + random.nextDouble() * 1.2) * Units.ASTRONOMICAL_UNIT;
+            elliptic.set(i, a, random.nextDouble() * 0.3, random.nextDouble() * 2 * Math.PI,
+                    AsteroidState.meanMotion(gm, a), random.nextDouble() * 2 * Math.PI);
+        }
+        elliptic.setSize(bodies);
+        elliptic.setVectorized(kernel.equals("vector"));
+        x = new float[bodies];
+        y = new float[bodies];
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-XX:UseAVX=0"})
+    public void positionsSse(Blackhole blackhole) {
+        positions(blackhole);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-XX:UseAVX=2"})
+    public void positionsAvx2(Blackhole blackhole) {
+        positions(blackhole);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-XX:UseAVX=3"})
+    public void positionsAvx512(Blackhole blackhole) {
+        positions(blackhole);
+    }
+
+    @Benchmark
+    public void step() {
+        elliptic.step(STEP);
+    }
+
+    private void positions(Blackhole blackhole) {
+        elliptic.positions(0, 0, x, y);
+        blackhole.consume(x);
+    }
+}
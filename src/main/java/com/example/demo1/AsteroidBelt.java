@@ -0,0 +1,52 @@
+package com.example.demo1;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Пояс астероидов вокруг Солнца в метрах. Орбиты либо генерируются, либо загружаются из каталога
+class AsteroidBelt implements BodyStore {
+    private static final double INNER_EDGE = 2.1 * Units.ASTRONOMICAL_UNIT;
+    private static final double OUTER_EDGE = 3.3 * Units.ASTRONOMICAL_UNIT;
+
+    private AsteroidState state;
+
+    public AsteroidBelt() {
+    }
+
+    public AsteroidBelt(AsteroidState state) {
+        this.state = state;
+    }
+
+    // Круговые орбиты в главном поясе, скорость по третьему закону Кеплера от массы Солнца.
+    // Одно и то же зерно даёт тот же пояс при любом числе потоков
+    public void createAsteroids(int numAsteroids, double gravitationalParameter, long seed, ForkJoinPool pool) {
+        AsteroidState asteroids = new AsteroidState(numAsteroids);
+        SeededRandom.generate(pool, seed, numAsteroids, (random, from, to) -> {
+            for (int i = from; i < to; i++) {
+                double randomRadius = INNER_EDGE + random.nextDouble() * (OUTER_EDGE - INNER_EDGE);
+                double angle = random.nextDouble() * 2 * Math.PI;
+                asteroids.set(i, randomRadius, 0, angle, AsteroidState.meanMotion(gravitationalParameter, randomRadius), 0);
+            }
+        });
+        asteroids.setSize(numAsteroids);
+        state = asteroids;
+    }
+
+    @Override
+    public int size() {
+        return state.size();
+    }
+
+    @Override
+    public void step(int from, int to, double dt) {
+        state.step(from, to, dt);
+    }
+
+    @Override
+    public void writePositions(int from, int to, double originX, double originY, float[] x, float[] y, int offset) {
+        state.positions(from, to, -originX, -originY, x, y, offset);
+    }
+
+    public AsteroidState getState() {
+        return state;
+    }
+}
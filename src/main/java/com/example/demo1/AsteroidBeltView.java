@@ -0,0 +1,160 @@
+package com.example.demo1;
+
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Отрисовка пояса астероидов из срезов физики: узлы Circle или общий пиксельный буфер.
+// Каждый кадр берутся только тела из ячеек SnapshotGrid, задевающих окно: интерполяция, проекция,
+// отрисовка и сетка наведения работают со сжатым списком, а не со всем поясом
+class AsteroidBeltView {
+    private static final int ASTEROID_COLOR = 0xFFFAF0E6; // Color.LINEN
+    private static final double ASTEROID_RADIUS = 2;
+
+    private final AsteroidBelt belt;
+    private final AsteroidRenderMode renderMode;
+    private ArrayList<Circle> asteroids;
+    private AsteroidCanvasLayer canvasLayer;
+    private final float[] screenX;
+    private final float[] screenY;
+    // Номера тел пояса, чьи положения лежат в первых visibleCount ячейках screenX и screenY
+    private final int[] visibleIds;
+    private int visibleCount;
+    private int[] allIds;
+    private boolean[] visible;
+    // Узлы, показанные в прошлом кадре, остальные уже скрыты; shownAt - номер кадра, где узел показан
+    private int[] shown;
+    private int[] nextShown;
+    private int shownCount;
+    private int[] shownAt;
+    private int drawnFrame;
+
+    public AsteroidBeltView(AsteroidBelt belt, AsteroidRenderMode renderMode, double screenWidth, double screenHeight) {
+        this.belt = belt;
+        this.renderMode = renderMode;
+        this.screenX = new float[belt.size()];
+        this.screenY = new float[belt.size()];
+        this.visibleIds = new int[belt.size()];
+        if (renderMode == AsteroidRenderMode.CANVAS) {
+            canvasLayer = new AsteroidCanvasLayer((int) Math.ceil(screenWidth), (int) Math.ceil(screenHeight), ASTEROID_COLOR);
+            return;
+        }
+        asteroids = new ArrayList<>(belt.size());
+        visible = new boolean[belt.size()];
+        shown = new int[belt.size()];
+        nextShown = new int[belt.size()];
+        shownAt = new int[belt.size()];
+        for (int i = 0; i < belt.size(); i++) {
+            Circle asteroid = new Circle(screenWidth / 2, screenHeight / 2, ASTEROID_RADIUS);
+            asteroid.setFill(Color.LINEN);
+            asteroid.setVisible(false);
+            asteroids.add(asteroid);
+        }
+    }
+
+    // Рабочие массивы на getVisibleCount() тел: после interpolate - метры от начала среза,
+    // после проекции - экранные координаты
+    public float[] getScreenX() {
+        return screenX;
+    }
+
+    public float[] getScreenY() {
+        return screenY;
+    }
+
+    public int[] getVisibleIds() {
+        return visibleIds;
+    }
+
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    public List<? extends Node> getNodes() {
+        return renderMode == AsteroidRenderMode.CANVAS ? List.of(canvasLayer.getView()) : asteroids;
+    }
+
+    // Вызывается только из потока JavaFX: положения среза относительно его плавающего начала
+    // для тел из ячеек, прошедших test; без сетки у среза берётся весь пояс
+    public void interpolate(StateSnapshot snapshot, int offset, double alpha, SnapshotGrid.CellTest test) {
+        int[] ids;
+        int count;
+        if (snapshot.grid != null) {
+            ids = visibleIds;
+            count = snapshot.grid.collect(test, ids);
+        } else {
+            if (allIds == null) {
+                allIds = new int[screenX.length];
+                for (int i = 0; i < allIds.length; i++) {
+                    allIds[i] = i;
+                }
+                System.arraycopy(allIds, 0, visibleIds, 0, allIds.length);
+            }
+            ids = allIds;
+            count = allIds.length;
+        }
+        float[] sx = screenX;
+        float[] sy = screenY;
+        for (int k = 0; k < count; k++) {
+            int j = offset + ids[k];
+            sx[k] = snapshot.interpolateX(j, alpha);
+            sy[k] = snapshot.interpolateY(j, alpha);
+        }
+        visibleCount = count;
+    }
+
+    // Вызывается только из потока JavaFX после перевода массивов в экранные координаты.
+    // Узлы за пределами окна скрываются и не трогаются, пока не вернутся в окно;
+    // points - спрайты слились бы, поэтому пояс рисуется плотностью по пикселям
+    public void draw(Viewport viewport, boolean points) {
+        float[] sx = screenX;
+        float[] sy = screenY;
+        int count = visibleCount;
+        if (renderMode == AsteroidRenderMode.CANVAS) {
+            canvasLayer.clear();
+            if (points) {
+                for (int k = 0; k < count; k++) {
+                    canvasLayer.plotPoint(sx[k], sy[k]);
+                }
+            } else {
+                for (int k = 0; k < count; k++) {
+                    canvasLayer.plot(sx[k], sy[k]);
+                }
+            }
+            canvasLayer.flush();
+            return;
+        }
+        // Сначала узлы этого кадра, затем скрываются показанные в прошлом и не попавшие в окно сейчас
+        int frame = ++drawnFrame;
+        int[] ids = visibleIds;
+        int[] next = nextShown;
+        int nextCount = 0;
+        for (int k = 0; k < count; k++) {
+            if (viewport.contains(sx[k], sy[k], ASTEROID_RADIUS)) {
+                int i = ids[k];
+                Circle asteroid = asteroids.get(i);
+                if (!visible[i]) {
+                    visible[i] = true;
+                    asteroid.setVisible(true);
+                }
+                asteroid.setCenterX(sx[k]);
+                asteroid.setCenterY(sy[k]);
+                shownAt[i] = frame;
+                next[nextCount++] = i;
+            }
+        }
+        for (int k = 0; k < shownCount; k++) {
+            int i = shown[k];
+            if (shownAt[i] != frame) {
+                visible[i] = false;
+                asteroids.get(i).setVisible(false);
+            }
+        }
+        nextShown = shown;
+        shown = next;
+        shownCount = nextCount;
+    }
+}
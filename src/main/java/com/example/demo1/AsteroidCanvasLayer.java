@@ -0,0 +1,77 @@
+package com.example.demo1;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+
+class AsteroidCanvasLayer {
+    private static final int SPRITE_SIZE = 3;
+    // На сколько растёт непрозрачность пикселя с каждой точкой: плотные места пояса светлее
+    private static final int DENSITY_STEP = 48;
+
+    private final int width;
+    private final int height;
+    private final int color;
+    private final int[] pixels;
+    // Следующий цвет пикселя по его текущей альфе, в premultiplied ARGB
+    private final int[] brighter = new int[256];
+    private final WritableImage image;
+    private final ImageView view;
+
+    public AsteroidCanvasLayer(int width, int height, int color) {
+        this.width = width;
+        this.height = height;
+        this.color = color;
+        this.pixels = new int[width * height];
+        for (int alpha = 0; alpha < 256; alpha++) {
+            int next = Math.min(255, alpha + DENSITY_STEP);
+            brighter[alpha] = next << 24
+                    | ((color >>> 16 & 0xFF) * next / 255) << 16
+                    | ((color >>> 8 & 0xFF) * next / 255) << 8
+                    | (color & 0xFF) * next / 255;
+        }
+        this.image = new WritableImage(width, height);
+        this.view = new ImageView(image);
+        // Слой не должен перехватывать наведение мыши на планеты
+        this.view.setMouseTransparent(true);
+    }
+
+    public void clear() {
+        Arrays.fill(pixels, 0);
+    }
+
+    public void plot(double x, double y) {
+        int left = (int) x - SPRITE_SIZE / 2;
+        int top = (int) y - SPRITE_SIZE / 2;
+        if (left < 0 || top < 0 || left + SPRITE_SIZE > width || top + SPRITE_SIZE > height) {
+            return;
+        }
+        int row = top * width + left;
+        for (int dy = 0; dy < SPRITE_SIZE; dy++, row += width) {
+            for (int dx = 0; dx < SPRITE_SIZE; dx++) {
+                pixels[row + dx] = color;
+            }
+        }
+    }
+
+    // Точка в один пиксель для мелкого масштаба: вместо перезаписи пиксель становится ярче
+    public void plotPoint(double x, double y) {
+        if (!(x >= 0 && y >= 0 && x < width && y < height)) {
+            return;
+        }
+        int i = (int) y * width + (int) x;
+        pixels[i] = brighter[pixels[i] >>> 24];
+    }
+
+    public void flush() {
+        // Одна передача всего буфера в текстуру за кадр
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+    }
+
+    public Node getView() {
+        return view;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo1;
+
+// Способ отрисовки пояса астероидов
+enum AsteroidRenderMode {
+    // Отдельный узел Circle на каждый астероид
+    NODES,
+    // Все астероиды рисуются за один проход в общий пиксельный буфер
+    CANVAS;
+
+    static AsteroidRenderMode parse(String value) {
+        if (value == null) {
+            return NODES;
+        }
+        return AsteroidRenderMode.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+}
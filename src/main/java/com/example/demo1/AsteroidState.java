@@ -0,0 +1,215 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Состояние малых тел в виде структуры массивов: большая полуось, средняя аномалия
+// и среднее движение, плюс эксцентриситет и направление перицентра для эллиптических орбит.
+// Средняя аномалия хранится и шагается напрямую, обратного пересчёта из экранных координат нет.
+class AsteroidState {
+    private static final double TWO_PI = 2 * Math.PI;
+    // Векторное ядро, если модуль jdk.incubator.vector подключён, иначе null
+    private static final OrbitKernel VECTOR_KERNEL = OrbitKernel.load();
+
+    private final double[] radius;
+    private final double[] angle;
+    private final float[] angularVelocity;
+    private final float[] eccentricity;
+    private final float[] minorAxisFactor;
+    private final float[] periapsisCos;
+    private final float[] periapsisSin;
+    private int count;
+    private OrbitKernel kernel = VECTOR_KERNEL;
+
+    public AsteroidState(int capacity) {
+        this.radius = new double[capacity];
+        this.angle = new double[capacity];
+        this.angularVelocity = new float[capacity];
+        this.eccentricity = new float[capacity];
+        this.minorAxisFactor = new float[capacity];
+        this.periapsisCos = new float[capacity];
+        this.periapsisSin = new float[capacity];
+    }
+
+    // Круговая орбита
+    public int add(double orbitRadius, double startAngle, double velocity) {
+        int i = count++;
+        set(i, orbitRadius, 0, startAngle, velocity, 0);
+        return i;
+    }
+
+    // Запись по индексу - для параллельной загрузки каталога, каждый поток пишет свой диапазон
+    void set(int i, double semiMajorAxis, double e, double meanAnomaly, double meanMotion, double periapsis) {
+        radius[i] = semiMajorAxis;
+        angle[i] = meanAnomaly - TWO_PI * Math.floor(meanAnomaly / TWO_PI);
+        angularVelocity[i] = (float) meanMotion;
+        eccentricity[i] = (float) e;
+        minorAxisFactor[i] = (float) Math.sqrt(1 - e * e);
+        periapsisCos[i] = (float) Math.cos(periapsis);
+        periapsisSin[i] = (float) Math.sin(periapsis);
+    }
+
+    void setSize(int count) {
+        this.count = count;
+    }
+
+    // Среднее движение по третьему закону Кеплера: n = sqrt(GM / a³)
+    public static double meanMotion(double gravitationalParameter, double semiMajorAxis) {
+        return Math.sqrt(gravitationalParameter / (semiMajorAxis * semiMajorAxis * semiMajorAxis));
+    }
+
+    public void step(double dt) {
+        step(0, count, dt);
+    }
+
+    public void step(int from, int to, double dt) {
+        if (kernel != null) {
+            kernel.step(angle, angularVelocity, from, to, dt);
+            return;
+        }
+        double[] angle = this.angle;
+        float[] angularVelocity = this.angularVelocity;
+        for (int i = from; i < to; i++) {
+            double a = angle[i] + angularVelocity[i] * dt;
+            if (a >= TWO_PI) {
+                a -= TWO_PI;
+            } else if (a < 0) {
+                a += TWO_PI;
+            }
+            angle[i] = a;
+        }
+    }
+
+    public void positions(double centerX, double centerY, float[] x, float[] y) {
+        positions(0, count, centerX, centerY, x, y, 0);
+    }
+
+    // Для круговых орбит углы уже приведены к [0, 2π), поэтому индекс таблицы берётся без floor,
+    // а sin и cos читаются из одной ячейки со сдвигом на четверть периода.
+    // Эллиптические орбиты решают уравнение Кеплера табличным методом Ньютона.
+    // С векторным ядром оба метода считает оно.
+    public void positions(int from, int to, double centerX, double centerY, float[] x, float[] y, int offset) {
+        if (kernel != null) {
+            kernel.positions(radius, angle, eccentricity, minorAxisFactor, periapsisCos, periapsisSin, from, to,
+                    centerX, centerY, x, y, offset);
+            return;
+        }
+        double[] angle = this.angle;
+        double[] radius = this.radius;
+        float[] eccentricity = this.eccentricity;
+        float[] table = FastTrig.SIN;
+        for (int i = from, j = offset; i < to; i++, j++) {
+            double r = radius[i];
+            double e = eccentricity[i];
+            if (e == 0) {
+                double index = angle[i] * FastTrig.INDEX_SCALE;
+                int k = (int) index;
+                double fraction = index - k;
+                k &= FastTrig.MASK;
+                int c = k + FastTrig.QUARTER;
+                double sin = table[k] + (table[k + 1] - table[k]) * fraction;
+                double cos = table[c] + (table[c + 1] - table[c]) * fraction;
+                x[j] = (float) (centerX + r * cos);
+                y[j] = (float) (centerY + r * sin);
+            } else {
+                double eccentricAnomaly = KeplerSolver.eccentricAnomalyFast(angle[i], e);
+                double px = r * (FastTrig.cos(eccentricAnomaly) - e);
+                double py = r * minorAxisFactor[i] * FastTrig.sin(eccentricAnomaly);
+                x[j] = (float) (centerX + px * periapsisCos[i] - py * periapsisSin[i]);
+                y[j] = (float) (centerY + px * periapsisSin[i] + py * periapsisCos[i]);
+            }
+        }
+    }
+
+    // Положения через dt секунд от текущего состояния (dt может быть отрицательным) в double относительно Солнца.
+    // Для поиска сближений: табличные sin/cos, погрешность порядка 1e-6 от радиуса орбиты
+    public void positionsAt(int from, int to, double dt, double[] x, double[] y) {
+        for (int i = from; i < to; i++) {
+            double meanAnomaly = angle[i] + angularVelocity[i] * dt;
+            meanAnomaly -= TWO_PI * Math.floor(meanAnomaly / TWO_PI);
+            double r = radius[i];
+            double e = eccentricity[i];
+            if (e == 0) {
+                x[i] = r * FastTrig.cos(meanAnomaly);
+                y[i] = r * FastTrig.sin(meanAnomaly);
+            } else {
+                double eccentricAnomaly = KeplerSolver.eccentricAnomalyFast(meanAnomaly, e);
+                double px = r * (FastTrig.cos(eccentricAnomaly) - e);
+                double py = r * minorAxisFactor[i] * FastTrig.sin(eccentricAnomaly);
+                x[i] = px * periapsisCos[i] - py * periapsisSin[i];
+                y[i] = px * periapsisSin[i] + py * periapsisCos[i];
+            }
+        }
+    }
+
+    // Точное положение тела i через dt секунд; out[0] = x, out[1] = y
+    public void positionAt(int i, double dt, double[] out) {
+        double meanAnomaly = angle[i] + angularVelocity[i] * dt;
+        double e = eccentricity[i];
+        double eccentricAnomaly = KeplerSolver.eccentricAnomaly(meanAnomaly, e);
+        double px = radius[i] * (Math.cos(eccentricAnomaly) - e);
+        double py = radius[i] * minorAxisFactor[i] * Math.sin(eccentricAnomaly);
+        out[0] = px * periapsisCos[i] - py * periapsisSin[i];
+        out[1] = px * periapsisSin[i] + py * periapsisCos[i];
+    }
+
+    // Для снимка: массивы целиком подряд, сначала double, затем float
+    void save(CheckpointWriter out) throws IOException {
+        out.putInt(count);
+        out.putDoubles(radius, count);
+        out.putDoubles(angle, count);
+        out.putFloats(angularVelocity, count);
+        out.putFloats(eccentricity, count);
+        out.putFloats(minorAxisFactor, count);
+        out.putFloats(periapsisCos, count);
+        out.putFloats(periapsisSin, count);
+    }
+
+    static AsteroidState load(ByteBuffer in) throws IOException {
+        int count = Checkpoint.getCount(in, 2 * Double.BYTES + 5 * Float.BYTES);
+        AsteroidState state = new AsteroidState(count);
+        Checkpoint.getDoubles(in, state.radius, count);
+        Checkpoint.getDoubles(in, state.angle, count);
+        Checkpoint.getFloats(in, state.angularVelocity, count);
+        Checkpoint.getFloats(in, state.eccentricity, count);
+        Checkpoint.getFloats(in, state.minorAxisFactor, count);
+        Checkpoint.getFloats(in, state.periapsisCos, count);
+        Checkpoint.getFloats(in, state.periapsisSin, count);
+        state.count = count;
+        return state;
+    }
+
+    // false - скалярные циклы даже при доступном векторном ядре, для сравнения
+    void setVectorized(boolean vectorized) {
+        kernel = vectorized ? VECTOR_KERNEL : null;
+    }
+
+    // Каким путём шагаются и считаются положения, для вывода при запуске
+    static String describeKernel() {
+        return VECTOR_KERNEL != null ? VECTOR_KERNEL.describe() : "scalar";
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return radius.length;
+    }
+
+    public double getRadius(int i) {
+        return radius[i];
+    }
+
+    public double getAngle(int i) {
+        return angle[i];
+    }
+
+    public double getAngularVelocity(int i) {
+        return angularVelocity[i];
+    }
+
+    public double getEccentricity(int i) {
+        return eccentricity[i];
+    }
+}
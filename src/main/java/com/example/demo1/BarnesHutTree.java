@@ -0,0 +1,232 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+
+// Октодерево Барнса-Хата в плоских массивах. Восемь потомков узла лежат подряд,
+// поэтому дерево перестраивается каждый шаг без создания объектов.
+// Совпадающие тела на предельной глубине лежат в одном листе списком через next.
+class BarnesHutTree {
+    private static final int EMPTY = -1;
+    private static final int INTERNAL = -2;
+    private static final int MAX_DEPTH = 48;
+    private static final int STACK_SIZE = MAX_DEPTH * 7 + 8;
+
+    private double[] centerX;
+    private double[] centerY;
+    private double[] centerZ;
+    private double[] halfSize;
+    private double[] mass;
+    private double[] massX;
+    private double[] massY;
+    private double[] massZ;
+    private int[] firstChild;
+    private int[] body;
+    // Следующее тело того же листа, EMPTY - последнее
+    private int[] next;
+    private double[] bodyX;
+    private double[] bodyY;
+    private double[] bodyZ;
+    private double[] bodyMass;
+    private int nodeCount;
+
+    public BarnesHutTree(int bodyCapacity) {
+        allocate(Math.max(16, bodyCapacity * 2));
+        next = new int[bodyCapacity];
+    }
+
+    public void build(double[] x, double[] y, double[] z, double[] m, int count) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            minZ = Math.min(minZ, z[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+            maxZ = Math.max(maxZ, z[i]);
+        }
+        double half = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ)) / 2;
+        // Небольшой запас, чтобы тела на границе попадали внутрь корня
+        half = half * 1.0001 + Double.MIN_NORMAL;
+
+        if (next.length < count) {
+            next = new int[count];
+        }
+        bodyX = x;
+        bodyY = y;
+        bodyZ = z;
+        bodyMass = m;
+        nodeCount = 0;
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2, half);
+        for (int i = 0; i < count; i++) {
+            if (m[i] != 0) {
+                insert(i, x[i], y[i], z[i], m[i], x, y, z, m);
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            double nodeMass = mass[node];
+            if (nodeMass != 0) {
+                massX[node] /= nodeMass;
+                massY[node] /= nodeMass;
+                massZ[node] /= nodeMass;
+            }
+        }
+    }
+
+    private void insert(int b, double bx, double by, double bz, double bm,
+                        double[] x, double[] y, double[] z, double[] m) {
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            if (body[node] == INTERNAL) {
+                accumulate(node, bx, by, bz, bm);
+                node = firstChild[node] + octant(node, bx, by, bz);
+                depth++;
+                continue;
+            }
+            if (body[node] == EMPTY) {
+                body[node] = b;
+                next[b] = EMPTY;
+                accumulate(node, bx, by, bz, bm);
+                return;
+            }
+            if (depth >= MAX_DEPTH) {
+                // Совпадающие тела: лист больше не делится, тело добавляется в его список
+                next[b] = body[node];
+                body[node] = b;
+                accumulate(node, bx, by, bz, bm);
+                return;
+            }
+            split(node);
+            int existing = body[node];
+            body[node] = INTERNAL;
+            int child = firstChild[node] + octant(node, x[existing], y[existing], z[existing]);
+            body[child] = existing;
+            next[existing] = EMPTY;
+            accumulate(child, x[existing], y[existing], z[existing], m[existing]);
+        }
+    }
+
+    private void split(int node) {
+        if (nodeCount + 8 > body.length) {
+            allocate(body.length * 2);
+        }
+        double quarter = halfSize[node] / 2;
+        int first = nodeCount;
+        for (int octant = 0; octant < 8; octant++) {
+            newNode(centerX[node] + ((octant & 1) != 0 ? quarter : -quarter),
+                    centerY[node] + ((octant & 2) != 0 ? quarter : -quarter),
+                    centerZ[node] + ((octant & 4) != 0 ? quarter : -quarter),
+                    quarter);
+        }
+        firstChild[node] = first;
+    }
+
+    private int octant(int node, double px, double py, double pz) {
+        return (px >= centerX[node] ? 1 : 0) | (py >= centerY[node] ? 2 : 0) | (pz >= centerZ[node] ? 4 : 0);
+    }
+
+    private void newNode(double cx, double cy, double cz, double half) {
+        if (nodeCount == body.length) {
+            allocate(body.length * 2);
+        }
+        int node = nodeCount++;
+        centerX[node] = cx;
+        centerY[node] = cy;
+        centerZ[node] = cz;
+        halfSize[node] = half;
+        mass[node] = 0;
+        massX[node] = 0;
+        massY[node] = 0;
+        massZ[node] = 0;
+        firstChild[node] = EMPTY;
+        body[node] = EMPTY;
+    }
+
+    private void accumulate(int node, double px, double py, double pz, double m) {
+        mass[node] += m;
+        massX[node] += px * m;
+        massY[node] += py * m;
+        massZ[node] += pz * m;
+    }
+
+    // Ускорение тела i; openingAngle - критерий раскрытия узла (размер / расстояние < θ)
+    public void accelerate(int i, double px, double py, double pz, double openingAngle, double softening2,
+                           double gravitationalConstant, double[] ax, double[] ay, double[] az, int[] stack) {
+        double theta2 = openingAngle * openingAngle;
+        double sumX = 0, sumY = 0, sumZ = 0;
+        int sp = 0;
+        stack[sp++] = 0;
+        while (sp > 0) {
+            int node = stack[--sp];
+            double nodeMass = mass[node];
+            if (nodeMass == 0) {
+                continue;
+            }
+            int nodeBody = body[node];
+            if (nodeBody != INTERNAL) {
+                // Лист считается по своим телам, чтобы тело не притягивало само себя
+                for (int b = nodeBody; b != EMPTY; b = next[b]) {
+                    if (b == i) {
+                        continue;
+                    }
+                    double dx = bodyX[b] - px;
+                    double dy = bodyY[b] - py;
+                    double dz = bodyZ[b] - pz;
+                    double inverse = 1 / Math.sqrt(dx * dx + dy * dy + dz * dz + softening2);
+                    double factor = bodyMass[b] * inverse * inverse * inverse;
+                    sumX += dx * factor;
+                    sumY += dy * factor;
+                    sumZ += dz * factor;
+                }
+                continue;
+            }
+            double dx = massX[node] - px;
+            double dy = massY[node] - py;
+            double dz = massZ[node] - pz;
+            double distance2 = dx * dx + dy * dy + dz * dz;
+            double size = 2 * halfSize[node];
+            if (size * size < theta2 * distance2) {
+                double r2 = distance2 + softening2;
+                double inverse = 1 / Math.sqrt(r2);
+                double factor = nodeMass * inverse * inverse * inverse;
+                sumX += dx * factor;
+                sumY += dy * factor;
+                sumZ += dz * factor;
+            } else {
+                int first = firstChild[node];
+                for (int c = 0; c < 8; c++) {
+                    stack[sp++] = first + c;
+                }
+            }
+        }
+        ax[i] = sumX * gravitationalConstant;
+        ay[i] = sumY * gravitationalConstant;
+        az[i] = sumZ * gravitationalConstant;
+    }
+
+    static int[] newStack() {
+        return new int[STACK_SIZE];
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void allocate(int capacity) {
+        centerX = grow(centerX, capacity);
+        centerY = grow(centerY, capacity);
+        centerZ = grow(centerZ, capacity);
+        halfSize = grow(halfSize, capacity);
+        mass = grow(mass, capacity);
+        massX = grow(massX, capacity);
+        massY = grow(massY, capacity);
+        massZ = grow(massZ, capacity);
+        firstChild = firstChild == null ? new int[capacity] : Arrays.copyOf(firstChild, capacity);
+        body = body == null ? new int[capacity] : Arrays.copyOf(body, capacity);
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
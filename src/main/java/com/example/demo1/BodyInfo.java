@@ -0,0 +1,38 @@
+package com.example.demo1;
+
+import java.util.Locale;
+
+// Текст подсказки о теле, собранный из данных модели
+final class BodyInfo {
+    private BodyInfo() {
+    }
+
+    static String describe(CelestialBody body) {
+        StringBuilder text = new StringBuilder()
+                .append("Name: ").append(body.getName()).append('\n')
+                .append("Mass: ").append(body.getMass()).append(" kg\n");
+        Orbit orbit = body.getOrbit();
+        if (orbit != null) {
+            double a = orbit.getSemiMajorAxis();
+            // Средняя орбитальная скорость
+            double speed = 2 * Math.PI * a / orbit.getPeriod();
+            text.append("Orbit Radius: ").append(distance(a)).append('\n')
+                    .append(String.format(Locale.ROOT, "Speed: %.2f km/s%n", speed / 1000));
+        }
+        text.append(String.format(Locale.ROOT, "Radius: %.1f km", body.getRadius()));
+        return text.toString();
+    }
+
+    static String describeAsteroid(AsteroidState state, int i) {
+        double a = state.getRadius(i);
+        double period = 2 * Math.PI / state.getAngularVelocity(i);
+        return String.format(Locale.ROOT, "Asteroid #%d%nOrbit Radius: %s%nEccentricity: %.3f%nPeriod: %.2f years",
+                i, distance(a), state.getEccentricity(i), period / Units.JULIAN_YEAR);
+    }
+
+    private static String distance(double metres) {
+        return metres >= 1e9
+                ? String.format(Locale.ROOT, "%.1fE9 m", metres / 1e9)
+                : String.format(Locale.ROOT, "%,.0f km", metres / 1000);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo1;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+
+import java.util.List;
+
+// Заливки тел для оконного режима; модель о цветах не знает
+final class BodyPaints {
+    private BodyPaints() {
+    }
+
+    // Однотонная заливка для мелких тел: цвет середины градиента
+    static Color flatColor(Paint paint) {
+        if (paint instanceof Color color) {
+            return color;
+        }
+        List<Stop> stops = paint instanceof RadialGradient radial ? radial.getStops()
+                : paint instanceof LinearGradient linear ? linear.getStops()
+                : List.of();
+        return stops.isEmpty() ? Color.LIGHTGRAY : stops.get(stops.size() / 2).getColor();
+    }
+
+    // Непрозрачный цвет как int ARGB для пиксельных буферов
+    static int argb(Color color) {
+        return 0xFF000000
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    static Paint forBody(String name) {
+        switch (name) {
+            case "Sun":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE,
+                        new Stop(0, Color.YELLOW),
+                        new Stop(0.6, Color.ORANGE),
+                        new Stop(1, Color.RED)
+                );
+            case "Mercury":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#7f7f7f")), new Stop(0.6, Color.web("#4c4c4c")), new Stop(1, Color.web("#2a2a2a")));
+            case "Venus":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#E5B97E")), new Stop(0.6, Color.web("#D77F3C")), new Stop(1, Color.web("#9F4F20")));
+            case "Earth":
+                return Color.STEELBLUE;
+            case "Mars":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#D16C4B")), new Stop(0.6, Color.web("#A13A2E")), new Stop(1, Color.web("#7F2A1C")));
+            case "Jupiter":
+                return new LinearGradient(
+                        0, 0, 1, 1, true, CycleMethod.REFLECT, new Stop(0.0, Color.BURLYWOOD), new Stop(0.1, Color.TAN), new Stop(0.2, Color.SADDLEBROWN), new Stop(0.3, Color.DARKORANGE),
+                        new Stop(0.4, Color.BROWN), new Stop(0.5, Color.BURLYWOOD), new Stop(0.6, Color.TAN), new Stop(0.7, Color.SADDLEBROWN), new Stop(0.8, Color.DARKORANGE), new Stop(0.9, Color.BROWN));
+            case "Saturn":
+                return new RadialGradient(0, 0, 0.5, 0.5, 1, true,
+                        CycleMethod.NO_CYCLE, new Stop(0, Color.PERU), new Stop(0.4, Color.GOLDENROD), new Stop(1, Color.LIGHTGOLDENRODYELLOW));
+            case "Uranus":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#A0D8D3")), new Stop(0.6, Color.web("#66B1B1")), new Stop(1, Color.web("#4F7D7D")));
+            case "Neptune":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#4A90E2")), new Stop(0.6, Color.web("#306C9B")), new Stop(1, Color.web("#1A3A5A")));
+            case "Pluto":
+                return new RadialGradient(
+                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#A89785")), new Stop(0.6, Color.web("#7A5D45")), new Stop(1, Color.web("#5A3A2C")));
+            case "Moon":
+                return Color.LIGHTSTEELBLUE;
+            default:
+                return Color.LIGHTGRAY;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo1;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Хранилище тел, которое движок физики может шагать и читать по диапазонам индексов
+interface BodyStore {
+    int size();
+
+    void step(int from, int to, double dt);
+
+    // Положения относительно точки (originX, originY): рядом с ней float не теряет точность
+    void writePositions(int from, int to, double originX, double originY, float[] x, float[] y, int offset);
+
+    // false - тела зависят друг от друга (спутник от планеты), диапазон шагается целиком
+    default boolean isSplittable() {
+        return true;
+    }
+
+    // Пул движка, для хранилищ, которые сами делят свой шаг между потоками
+    default void setPool(ForkJoinPool pool) {
+    }
+}
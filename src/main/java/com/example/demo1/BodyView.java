@@ -0,0 +1,93 @@
+package com.example.demo1;
+
+import javafx.scene.CacheHint;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Circle;
+
+// Представление тела на сцене.
+// Подробность выбирается каждый кадр по радиусу на экране; свойства узлов меняются только при смене уровня
+class BodyView {
+    // Кэшированный узел растягивается из своей текстуры в этих пределах, дальше перерисовывается в новом размере
+    private static final double MIN_CACHE_SCALE = 0.5;
+    private static final double MAX_CACHE_SCALE = 2;
+    // Крупнее текстура не кэшируется: она заняла бы слишком много видеопамяти
+    private static final double MAX_CACHED_RADIUS = 1024;
+    private final CelestialBody body;
+    private final Circle circle;
+    private final Paint paint;
+    private final Color flatColor;
+    private final double displayRadius;
+    private LevelOfDetail detail = LevelOfDetail.FULL;
+    private boolean cached;
+
+    public BodyView(CelestialBody body, Paint paint, double displayRadius) {
+        this.body = body;
+        this.paint = paint;
+        this.flatColor = BodyPaints.flatColor(paint);
+        this.displayRadius = displayRadius;
+        this.circle = new Circle(body.getX(), body.getY(), displayRadius);
+        this.circle.setFill(paint);
+    }
+
+    // Вызывается только из потока JavaFX; radius - радиус на экране в пикселях
+    public void render(Viewport viewport, double x, double y, double radius) {
+        LevelOfDetail next = LevelOfDetail.of(viewport, x, y, radius);
+        if (next != detail) {
+            circle.setVisible(next != LevelOfDetail.HIDDEN);
+            circle.setFill(next == LevelOfDetail.FULL ? paint : flatColor);
+            detail = next;
+        }
+        if (next == LevelOfDetail.HIDDEN) {
+            return;
+        }
+        double shown = next == LevelOfDetail.POINT ? LevelOfDetail.POINT_RADIUS : radius;
+        if (cached) {
+            renderCached(x, y, shown);
+            return;
+        }
+        circle.setRadius(shown);
+        circle.setCenterX(x);
+        circle.setCenterY(y);
+    }
+
+    // Узел с дорогим эффектом, как свечение Солнца, рисуется в текстуру один раз.
+    // Круг стоит в начале координат, а положение и размер задаются сдвигом и масштабом узла,
+    // которые JavaFX применяет к готовой текстуре без перерисовки эффекта
+    public void cacheRendering() {
+        cached = true;
+        circle.setCenterX(0);
+        circle.setCenterY(0);
+        circle.setCache(true);
+        circle.setCacheHint(CacheHint.SCALE);
+    }
+
+    private void renderCached(double x, double y, double shown) {
+        boolean fits = shown <= MAX_CACHED_RADIUS;
+        if (fits != circle.isCache()) {
+            circle.setCache(fits);
+        }
+        double scale = shown / circle.getRadius();
+        if (!fits || scale < MIN_CACHE_SCALE || scale > MAX_CACHE_SCALE) {
+            // Смена радиуса сбрасывает кэш, поэтому случается только при заметном изменении масштаба
+            circle.setRadius(shown);
+            scale = 1;
+        }
+        circle.setScaleX(scale);
+        circle.setScaleY(scale);
+        circle.setTranslateX(x);
+        circle.setTranslateY(y);
+    }
+
+    public double getDisplayRadius() {
+        return displayRadius;
+    }
+
+    public CelestialBody getBody() {
+        return body;
+    }
+
+    public Circle getCircle() {
+        return circle;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo1;
+
+// Камера в настоящем масштабе: точка мира (eye, метры) в центре экрана и число метров на пиксель.
+// Масштаб меняется плавно и покрывает 12 порядков, от метров до сотен а.е. на пиксель.
+// Физика публикует float-координаты относительно плавающего начала; когда eye уходит от него
+// так далеко, что float перестаёт различать доли пикселя, начало переносится в eye.
+// При слежении началом становится само тело: физика считает его положение на момент каждого среза,
+// и тело с соседями не дрожат даже тогда, когда за один шаг оно уходит на миллионы километров.
+// Разность начала среза и eye считается в double один раз на кадр, а не для каждого тела.
+class Camera {
+    private static final double MIN_METRES_PER_PIXEL = 1;
+    private static final double MAX_METRES_PER_PIXEL = 1e12;
+    // Начало переносится, когда до eye больше стольких пикселей: ошибка float там ~0.01 пикселя
+    private static final double REBASE_PIXELS = 1e5;
+    // Скорость, с которой масштаб догоняет цель, 1/с
+    private static final double ZOOM_RATE = 12;
+
+    private final double centerX;
+    private final double centerY;
+    private final double homeMetresPerPixel;
+    private final SnapshotSource source;
+    private double eyeX;
+    private double eyeY;
+    private double metresPerPixel;
+    private double targetMetresPerPixel;
+    private double originX;
+    private double originY;
+    private boolean following;
+    // Точка мира под курсором при масштабировании, остаётся на месте, пока масштаб догоняет цель
+    private boolean anchored;
+    private double anchorWorldX;
+    private double anchorWorldY;
+    private double anchorScreenX;
+    private double anchorScreenY;
+
+    // homeMetresPerPixel - масштаб исходного вида; source получает новое начало при переносе
+    public Camera(double width, double height, double homeMetresPerPixel, SnapshotSource source) {
+        this.centerX = width / 2;
+        this.centerY = height / 2;
+        this.homeMetresPerPixel = homeMetresPerPixel;
+        this.source = source;
+        reset();
+    }
+
+    public void reset() {
+        follow(null);
+        eyeX = 0;
+        eyeY = 0;
+        metresPerPixel = homeMetresPerPixel;
+        targetMetresPerPixel = homeMetresPerPixel;
+        anchored = false;
+    }
+
+    // Раз в кадр до проекции: сглаживание масштаба и перенос начала
+    public void update(double dtSeconds) {
+        if (metresPerPixel != targetMetresPerPixel) {
+            double blend = 1 - Math.exp(-ZOOM_RATE * dtSeconds);
+            metresPerPixel *= Math.pow(targetMetresPerPixel / metresPerPixel, blend);
+            if (Math.abs(Math.log(metresPerPixel / targetMetresPerPixel)) < 1e-3) {
+                metresPerPixel = targetMetresPerPixel;
+            }
+            if (anchored) {
+                eyeX = anchorWorldX - (anchorScreenX - centerX) * metresPerPixel;
+                eyeY = anchorWorldY - (anchorScreenY - centerY) * metresPerPixel;
+            }
+        } else {
+            anchored = false;
+        }
+        double limit = REBASE_PIXELS * metresPerPixel;
+        if (!following && (Math.abs(eyeX - originX) > limit || Math.abs(eyeY - originY) > limit)) {
+            rebase();
+        }
+    }
+
+    // null - перестать следить, начало остаётся неподвижным в текущем eye
+    public void follow(CelestialBody body) {
+        following = body != null;
+        if (following) {
+            source.setOrigin(body);
+        } else {
+            rebase();
+        }
+    }
+
+    public void zoomAt(double factor, double screenX, double screenY) {
+        anchorWorldX = toWorldX(screenX);
+        anchorWorldY = toWorldY(screenY);
+        anchorScreenX = screenX;
+        anchorScreenY = screenY;
+        anchored = true;
+        targetMetresPerPixel = Math.max(MIN_METRES_PER_PIXEL, Math.min(MAX_METRES_PER_PIXEL, targetMetresPerPixel / factor));
+    }
+
+    public void pan(double dxPixels, double dyPixels) {
+        if (following) {
+            follow(null);
+        }
+        anchored = false;
+        eyeX -= dxPixels * metresPerPixel;
+        eyeY -= dyPixels * metresPerPixel;
+    }
+
+    // Слежение за телом: eye ставится в его интерполированное положение каждый кадр
+    public void lookAt(double worldX, double worldY) {
+        anchored = false;
+        eyeX = worldX;
+        eyeY = worldY;
+    }
+
+    public double toScreenX(double worldX) {
+        return centerX + (worldX - eyeX) / metresPerPixel;
+    }
+
+    public double toScreenY(double worldY) {
+        return centerY + (worldY - eyeY) / metresPerPixel;
+    }
+
+    public double toWorldX(double screenX) {
+        return eyeX + (screenX - centerX) * metresPerPixel;
+    }
+
+    public double toWorldY(double screenY) {
+        return eyeY + (screenY - centerY) * metresPerPixel;
+    }
+
+    // Перевод на месте массивов, записанных относительно начала (originX, originY) среза
+    public void project(float[] x, float[] y, int count, double sliceOriginX, double sliceOriginY) {
+        double scale = 1 / metresPerPixel;
+        double shiftX = centerX + (sliceOriginX - eyeX) * scale;
+        double shiftY = centerY + (sliceOriginY - eyeY) * scale;
+        for (int i = 0; i < count; i++) {
+            x[i] = (float) (x[i] * scale + shiftX);
+            y[i] = (float) (y[i] * scale + shiftY);
+        }
+    }
+
+    private void rebase() {
+        originX = eyeX;
+        originY = eyeY;
+        source.setOrigin(FloatingOrigin.fixed(originX, originY));
+    }
+
+    public double getMetresPerPixel() {
+        return metresPerPixel;
+    }
+}
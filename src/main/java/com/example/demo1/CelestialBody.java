@@ -0,0 +1,79 @@
+package com.example.demo1;
+
+abstract class CelestialBody implements FloatingOrigin {
+    protected String name;
+    protected double radius;
+    protected double mass;
+    protected Orbit orbit;
+    // Тело, вокруг которого идёт орбита; null - Солнце
+    protected CelestialBody parent;
+    protected double displayScale = 1;
+    protected double x;
+    protected double y;
+
+    public CelestialBody(String name, double mass, double radius, Orbit orbit) {
+        this.name = name;
+        this.mass = mass;
+        this.radius = radius;
+        this.orbit = orbit;
+    }
+
+    // Положение в момент time, сложенное по цепочке родителей в out от Солнца вниз, в том же порядке,
+    // что и у SolarSystem. Пошаговое состояние не трогает, поэтому годится как плавающее начало
+    // параллельно с шагом физики
+    @Override
+    public void positionAt(double time, double[] out) {
+        if (parent != null) {
+            parent.positionAt(time, out);
+        } else {
+            out[0] = 0;
+            out[1] = 0;
+        }
+        if (orbit != null) {
+            orbit.addPositionAt(time, out);
+        }
+    }
+
+    public CelestialBody getParent() {
+        return parent;
+    }
+
+    public void setParent(CelestialBody parent) {
+        this.parent = parent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Радиус в километрах
+    public double getRadius() {
+        return radius;
+    }
+
+    public double getMass() {
+        return mass;
+    }
+
+    public Orbit getOrbit() {
+        return orbit;
+    }
+
+    // Во сколько раз радиус тела увеличивается при отрисовке, чтобы оно было различимо
+    public double getDisplayScale() {
+        return displayScale;
+    }
+
+    public void setDisplayScale(double displayScale) {
+        this.displayScale = displayScale;
+    }
+
+    // Положение в метрах относительно Солнца
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Снимок всей симуляции: часы, дерево тел с элементами орбит, состояние N тел, пояс астероидов и кольца.
+// Формат двоичный, little-endian, с номером версии в заголовке. Массивы лежат подряд и при загрузке
+// копируются из отображённого в память файла прямо в массивы симуляции, без разбора по элементам.
+// Заголовок: magic, version, seed, шаг физики, число шагов, аккумулятор, масштаб времени.
+// После дерева тел - режим гравитации и, если он не Кеплер, положения и скорости GravitySystem
+final class Checkpoint {
+    static final int MAGIC = 0x534F4C53;
+    static final int VERSION = 2;
+
+    private final long seed;
+    private final double fixedStep;
+    private final long stepCount;
+    private final double accumulator;
+    private final double timeScale;
+    private final SolarSystem solarSystem;
+    private final GravitySystem gravity;
+    private final AsteroidBelt asteroidBelt;
+    private final List<RingSystem> rings;
+
+    private Checkpoint(long seed, double fixedStep, long stepCount, double accumulator, double timeScale,
+                       SolarSystem solarSystem, GravitySystem gravity, AsteroidBelt asteroidBelt, List<RingSystem> rings) {
+        this.seed = seed;
+        this.fixedStep = fixedStep;
+        this.stepCount = stepCount;
+        this.accumulator = accumulator;
+        this.timeScale = timeScale;
+        this.solarSystem = solarSystem;
+        this.gravity = gravity;
+        this.asteroidBelt = asteroidBelt;
+        this.rings = rings;
+    }
+
+    // Вызывать, когда хранилища не шагаются: между шагами физики или после пакетного прогона.
+    // seed - зерно, из которого построено начальное состояние, 0 - неизвестно;
+    // gravity - тела системы под взаимным притяжением, null - по орбитам Кеплера
+    static void write(CheckpointWriter out, Path path, SimulationClock clock, long seed, SolarSystem solarSystem,
+                      GravitySystem gravity, AsteroidBelt asteroidBelt, List<RingSystem> rings) throws IOException {
+        out.open(path);
+        write(out, clock, seed, solarSystem, gravity, asteroidBelt, rings);
+    }
+
+    // Тот же снимок в готовый канал, например в память для передачи зрителям SimulationServer
+    static void write(CheckpointWriter out, WritableByteChannel channel, SimulationClock clock, long seed, SolarSystem solarSystem,
+                      GravitySystem gravity, AsteroidBelt asteroidBelt, List<RingSystem> rings) throws IOException {
+        out.open(channel);
+        write(out, clock, seed, solarSystem, gravity, asteroidBelt, rings);
+    }
+
+    private static void write(CheckpointWriter out, SimulationClock clock, long seed, SolarSystem solarSystem,
+                              GravitySystem gravity, AsteroidBelt asteroidBelt, List<RingSystem> rings) throws IOException {
+        try {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(seed);
+            out.putDouble(clock.getFixedStep());
+            out.putLong(clock.getStepCount());
+            out.putDouble(clock.getAccumulator());
+            out.putDouble(clock.getTimeScale());
+            solarSystem.save(out);
+            out.putInt(gravity != null ? gravity.getMode().ordinal() : GravityMode.KEPLER.ordinal());
+            if (gravity != null) {
+                gravity.save(out);
+            }
+            asteroidBelt.getState().save(out);
+            out.putInt(rings.size());
+            for (RingSystem ring : rings) {
+                out.putInt(indexOf(solarSystem, ring.getPlanet()));
+                ring.save(out);
+            }
+            out.commit();
+        } catch (IOException | RuntimeException e) {
+            out.abort();
+            throw e;
+        }
+    }
+
+    static Checkpoint read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + ": checkpoints over 2 GiB are not supported");
+            }
+            // Отображение остаётся доступным и после закрытия канала
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path.toString());
+        }
+    }
+
+    // source - откуда взят снимок, для сообщений об ошибках
+    static Checkpoint read(ByteBuffer in, String source) throws IOException {
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (in.remaining() < 2 * Integer.BYTES || in.getInt() != MAGIC) {
+                throw new IOException(source + " is not a checkpoint");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException(source + ": unsupported checkpoint version " + version);
+            }
+            long seed = in.getLong();
+            double fixedStep = in.getDouble();
+            long stepCount = in.getLong();
+            double accumulator = in.getDouble();
+            double timeScale = in.getDouble();
+            SolarSystem solarSystem = SolarSystem.load(in);
+            int mode = in.getInt();
+            if (mode < 0 || mode >= GravityMode.values().length) {
+                throw new IOException(source + ": unknown gravity mode " + mode);
+            }
+            GravityMode gravityMode = GravityMode.values()[mode];
+            GravitySystem gravity = gravityMode == GravityMode.KEPLER ? null : GravitySystem.load(in, solarSystem, gravityMode);
+            AsteroidBelt asteroidBelt = new AsteroidBelt(AsteroidState.load(in));
+            int ringCount = getCount(in, Integer.BYTES);
+            List<RingSystem> rings = new ArrayList<>(ringCount);
+            for (int k = 0; k < ringCount; k++) {
+                int planet = in.getInt();
+                if (planet < 0 || planet >= solarSystem.size()) {
+                    throw new IOException("Ring system refers to missing body " + planet);
+                }
+                rings.add(RingSystem.load(in, solarSystem.getBody(planet)));
+            }
+            return new Checkpoint(seed, fixedStep, stepCount, accumulator, timeScale, solarSystem, gravity, asteroidBelt, rings);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(source + " is truncated", e);
+        }
+    }
+
+    // Часы, продолжающие с того же шага и того же остатка времени
+    public SimulationClock createClock(int maxStepsPerAdvance) {
+        SimulationClock clock = new SimulationClock(fixedStep, maxStepsPerAdvance);
+        clock.restore(stepCount, accumulator);
+        clock.setTimeScale(timeScale);
+        return clock;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SolarSystem getSolarSystem() {
+        return solarSystem;
+    }
+
+    // null, если тела системы шли по орбитам Кеплера
+    public GravitySystem getGravity() {
+        return gravity;
+    }
+
+    public AsteroidBelt getAsteroidBelt() {
+        return asteroidBelt;
+    }
+
+    public List<RingSystem> getRings() {
+        return rings;
+    }
+
+    // Длина следующего массива; не больше, чем реально осталось в файле, иначе файл повреждён
+    static int getCount(ByteBuffer in, int bytesPerElement) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || (long) count * bytesPerElement > in.remaining()) {
+            throw new IOException("Corrupt checkpoint: array of " + count + " elements at byte " + in.position());
+        }
+        return count;
+    }
+
+    static void getDoubles(ByteBuffer in, double[] target, int count) {
+        in.asDoubleBuffer().get(target, 0, count);
+        in.position(in.position() + count * Double.BYTES);
+    }
+
+    static void getFloats(ByteBuffer in, float[] target, int count) {
+        in.asFloatBuffer().get(target, 0, count);
+        in.position(in.position() + count * Float.BYTES);
+    }
+
+    static String getString(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[getCount(in, 1)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(SolarSystem solarSystem, CelestialBody body) {
+        for (int i = 0; i < solarSystem.size(); i++) {
+            if (solarSystem.getBody(i) == body) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(body.getName() + " is not part of the system");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Запись снимка через файловый канал. Прямой буфер один на всё время жизни писателя и переиспользуется
+// между снимками: массивы на миллионы тел уходят на диск кусками по мегабайту без копий в куче.
+// Снимок пишется во временный файл рядом и заменяет старый только целиком
+class CheckpointWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private WritableByteChannel channel;
+    private Path target;
+    private Path temporary;
+
+    public void open(Path path) throws IOException {
+        target = path;
+        temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.clear();
+    }
+
+    // Запись в чужой канал без временного файла; закрывает канал вызывающий
+    public void open(WritableByteChannel channel) {
+        target = null;
+        this.channel = channel;
+        buffer.clear();
+    }
+
+    public void commit() throws IOException {
+        if (target == null) {
+            flush();
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // После ошибки: недописанный файл удаляется, прежний снимок остаётся
+    public void abort() {
+        if (target == null) {
+            return;
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            System.err.println("Cannot remove " + temporary + ": " + e.getMessage());
+        }
+    }
+
+    public void putInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void putLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void putDouble(double value) throws IOException {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    // Длина в байтах, затем UTF-8
+    public void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        for (int i = 0; i < bytes.length; ) {
+            int n = Math.min(bytes.length - i, buffer.remaining());
+            if (n == 0) {
+                flush();
+                continue;
+            }
+            buffer.put(bytes, i, n);
+            i += n;
+        }
+    }
+
+    // Первые count элементов массива, без длины - её пишет вызывающий
+    public void putDoubles(double[] values, int count) throws IOException {
+        for (int i = 0; i < count; ) {
+            int n = Math.min(count - i, buffer.remaining() / Double.BYTES);
+            if (n == 0) {
+                flush();
+                continue;
+            }
+            buffer.asDoubleBuffer().put(values, i, n);
+            buffer.position(buffer.position() + n * Double.BYTES);
+            i += n;
+        }
+    }
+
+    public void putFloats(float[] values, int count) throws IOException {
+        for (int i = 0; i < count; ) {
+            int n = Math.min(count - i, buffer.remaining() / Float.BYTES);
+            if (n == 0) {
+                flush();
+                continue;
+            }
+            buffer.asFloatBuffer().put(values, i, n);
+            buffer.position(buffer.position() + n * Float.BYTES);
+            i += n;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,480 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Поиск столкновений и тесных сближений на каждом шаге физики, без перебора всех пар.
+// Номера тел как в сетке наведения: 0 - Солнце, 1..n - тела системы, дальше астероиды.
+// Широкая фаза: движение за шаг заменяется отрезком, середины отрезков астероидов сортируются подсчётом
+// по плотной сетке с ячейкой не меньше самого длинного раздутого отрезка, поэтому сблизиться могут
+// только тела из соседних ячеек. Положения переписываются в порядке ячеек, и проход по половине соседей
+// (своя ячейка, правая и три в следующей строке) читает память подряд, без промахов кэша на каждую пару.
+// Тел системы единицы: их отрезки проверяются по прямоугольнику ячеек и друг с другом.
+// Отбор консервативный - к порогу добавлен запас на кривизну орбиты за шаг и погрешность таблиц.
+// Узкая фаза: точные положения по элементам орбит, минимум расстояния золотым сечением, момент касания делением пополам.
+// Орбиты не меняются, события только сообщаются слушателю
+class CollisionDetector {
+    private static final int BLOCK_SIZE = 16384;
+    private static final int SEARCH_ITERATIONS = 60;
+    private static final double GOLDEN = (Math.sqrt(5) - 1) / 2;
+    // Погрешность табличных положений астероидов относительно радиуса орбиты, с запасом
+    private static final double POSITION_TOLERANCE = 4e-6;
+    private static final double ASTEROID_DENSITY = 2000;
+    // Ограничение размера плотной сетки: если область велика, ячейка увеличивается
+    private static final int MAX_CELLS_PER_ASTEROID = 4;
+    private static final int ROWS_PER_BLOCK = 8;
+
+    private final SolarSystem solarSystem;
+    private final AsteroidState asteroids;
+    private final double asteroidRadius;
+    private final double asteroidMass;
+    private final double nearMissDistance;
+    private final EncounterListener listener;
+    private final int bodyCount;
+    private final int asteroidCount;
+    private final CelestialBody[] bodies;
+    private final double[] bodyRadius;
+    private final double[] bodyMass;
+    private final int[] bodyParent;
+    // Верхняя оценка ускорения тела: на dt²/8 оно отходит от хорды своего пути за шаг
+    private final double[] bodyAcceleration;
+    private final double asteroidAcceleration;
+    private final double asteroidSpeed;
+    private final double positionError;
+
+    private double[] x0;
+    private double[] y0;
+    private double[] x1;
+    private double[] y1;
+    private double[] bodyX0;
+    private double[] bodyY0;
+    private double[] bodyX1;
+    private double[] bodyY1;
+    // Сетка: ячейка каждого астероида, начало каждой ячейки в отсортированном порядке и сам порядок
+    private final int[] cellOf;
+    private final int[] order;
+    private final int[] cellStart;
+    private final int[] cellFill;
+    // Отрезки в порядке ячеек, по четыре числа подряд (x0, y0, x1, y1): один отрезок - одна строка кэша
+    private final double[] sorted;
+    private final int maxColumns;
+    private int columns;
+    private double gridOrigin;
+    private final double gridExtent;
+    private final long[][] blockPairs;
+    private final int[] blockPairCount;
+    private double cellSize;
+    private double stateTime;
+    private final double[] first = new double[2];
+    private final double[] second = new double[2];
+
+    // asteroidRadius и nearMissDistance - в метрах; расстояние сближения меряется между поверхностями
+    public CollisionDetector(SolarSystem solarSystem, AsteroidState asteroids, double asteroidRadius,
+                             double nearMissDistance, EncounterListener listener) {
+        this.solarSystem = solarSystem;
+        this.asteroids = asteroids;
+        this.asteroidRadius = asteroidRadius;
+        this.asteroidMass = ASTEROID_DENSITY * 4.0 / 3 * Math.PI * asteroidRadius * asteroidRadius * asteroidRadius;
+        this.nearMissDistance = nearMissDistance;
+        this.listener = listener;
+        this.bodyCount = solarSystem.size() + 1;
+        this.asteroidCount = asteroids.size();
+
+        bodies = new CelestialBody[bodyCount];
+        bodyRadius = new double[bodyCount];
+        bodyMass = new double[bodyCount];
+        bodyParent = new int[bodyCount];
+        bodyAcceleration = new double[bodyCount];
+        bodyParent[0] = -1;
+        for (int id = 0; id < bodyCount; id++) {
+            CelestialBody body = id == 0 ? solarSystem.getSun() : solarSystem.getBody(id - 1);
+            bodies[id] = body;
+            bodyRadius[id] = body.getRadius() * 1000;
+            bodyMass[id] = body.getMass();
+            if (id > 0) {
+                // Родитель всегда раньше потомка, его оценка уже посчитана
+                int parent = solarSystem.getParentIndex(id - 1) + 1;
+                Orbit orbit = body.getOrbit();
+                double meanMotion = 2 * Math.PI / orbit.getPeriod();
+                bodyParent[id] = parent;
+                bodyAcceleration[id] = bodyAcceleration[parent]
+                        + perihelionAcceleration(meanMotion, orbit.getSemiMajorAxis(), orbit.getEccentricity());
+            }
+        }
+
+        double acceleration = 0;
+        double speed = 0;
+        double apocentre = 0;
+        for (int i = 0; i < asteroidCount; i++) {
+            double a = asteroids.getRadius(i);
+            double e = asteroids.getEccentricity(i);
+            double n = asteroids.getAngularVelocity(i);
+            acceleration = Math.max(acceleration, perihelionAcceleration(n, a, e));
+            speed = Math.max(speed, n * a * Math.sqrt((1 + e) / (1 - e)));
+            apocentre = Math.max(apocentre, a * (1 + e));
+        }
+        asteroidAcceleration = acceleration;
+        asteroidSpeed = speed;
+        positionError = POSITION_TOLERANCE * apocentre;
+        // Все середины отрезков лежат в квадрате со стороной в два апоцентра вокруг Солнца
+        gridExtent = 2 * apocentre * (1 + POSITION_TOLERANCE);
+
+        x0 = new double[asteroidCount];
+        y0 = new double[asteroidCount];
+        x1 = new double[asteroidCount];
+        y1 = new double[asteroidCount];
+        bodyX0 = new double[bodyCount];
+        bodyY0 = new double[bodyCount];
+        bodyX1 = new double[bodyCount];
+        bodyY1 = new double[bodyCount];
+        cellOf = new int[asteroidCount];
+        order = new int[asteroidCount];
+        maxColumns = (int) Math.sqrt(MAX_CELLS_PER_ASTEROID * (double) asteroidCount) + 2;
+        cellStart = new int[maxColumns * maxColumns + 1];
+        cellFill = new int[cellStart.length];
+        sorted = new double[4 * asteroidCount];
+        int blocks = (maxColumns + ROWS_PER_BLOCK - 1) / ROWS_PER_BLOCK;
+        blockPairs = new long[blocks][16];
+        blockPairCount = new int[blocks];
+    }
+
+    // Проверяет steps последних шагов длины dt, закончившихся в endTime; вызывается из потока физики после шага
+    public void detect(ForkJoinPool pool, double endTime, double dt, int steps) {
+        stateTime = endTime;
+        double t0 = endTime - steps * dt;
+        boundary(pool, t0, x0, y0, bodyX0, bodyY0);
+        for (int k = 0; k < steps; k++) {
+            double t1 = t0 + dt;
+            boundary(pool, t1, x1, y1, bodyX1, bodyY1);
+            detectStep(pool, t0, t1);
+            double[] swap = x0;
+            x0 = x1;
+            x1 = swap;
+            swap = y0;
+            y0 = y1;
+            y1 = swap;
+            swap = bodyX0;
+            bodyX0 = bodyX1;
+            bodyX1 = swap;
+            swap = bodyY0;
+            bodyY0 = bodyY1;
+            bodyY1 = swap;
+            t0 = t1;
+        }
+    }
+
+    public String describe(int id) {
+        return id < bodyCount ? bodies[id].getName() : "asteroid " + (id - bodyCount);
+    }
+
+    private void boundary(ForkJoinPool pool, double time, double[] x, double[] y, double[] bodyX, double[] bodyY) {
+        double dt = time - stateTime;
+        ParallelRange.run(pool, asteroidCount, BLOCK_SIZE, (from, to) -> asteroids.positionsAt(from, to, dt, x, y));
+        solarSystem.positionsAt(time, bodyX, bodyY);
+    }
+
+    private void detectStep(ForkJoinPool pool, double t0, double t1) {
+        double dt = t1 - t0;
+        double asteroidDeviation = asteroidAcceleration * dt * dt / 8 + positionError;
+        double asteroidReach = 2 * asteroidRadius + nearMissDistance + 2 * asteroidDeviation;
+        buildGrid(asteroidSpeed * dt + asteroidReach);
+
+        // Пары астероидов ищутся параллельно блоками, а разбираются по порядку блоков - события детерминированы
+        double limit = asteroidReach * asteroidReach;
+        int blocks = asteroidCount == 0 ? 0 : (columns + ROWS_PER_BLOCK - 1) / ROWS_PER_BLOCK;
+        ParallelRange.run(pool, blocks, 1, (from, to) -> {
+            for (int block = from; block < to; block++) {
+                collectPairs(block, limit);
+            }
+        });
+        for (int block = 0; block < blocks; block++) {
+            long[] pairs = blockPairs[block];
+            for (int p = 0; p < blockPairCount[block]; p++) {
+                narrow(bodyCount + (int) (pairs[p] >>> 32), bodyCount + (int) pairs[p], t0, t1);
+            }
+        }
+
+        for (int a = 0; a < bodyCount; a++) {
+            double bodyDeviation = bodyAcceleration[a] * dt * dt / 8;
+            findAsteroidsNear(a, bodyRadius[a] + asteroidRadius + nearMissDistance + bodyDeviation + asteroidDeviation,
+                    t0, t1);
+            for (int b = a + 1; b < bodyCount; b++) {
+                // Спутник и его планета связаны орбитой, их расстояние - не сближение
+                if (bodyParent[b] == a || bodyParent[a] == b) {
+                    continue;
+                }
+                double reach = bodyRadius[a] + bodyRadius[b] + nearMissDistance
+                        + (bodyAcceleration[a] + bodyAcceleration[b]) * dt * dt / 8;
+                if (sweptWithin(bodyX0[a], bodyY0[a], bodyX1[a], bodyY1[a],
+                        bodyX0[b], bodyY0[b], bodyX1[b], bodyY1[b], reach * reach)) {
+                    narrow(a, b, t0, t1);
+                }
+            }
+        }
+    }
+
+    // Сортировка подсчётом по ячейкам середин отрезков и перенос отрезков в этот порядок
+    private void buildGrid(double minCellSize) {
+        if (asteroidCount == 0) {
+            return;
+        }
+        cellSize = Math.max(minCellSize, gridExtent / (maxColumns - 1));
+        columns = (int) (gridExtent / cellSize) + 1;
+        gridOrigin = -gridExtent / 2;
+        int cells = columns * columns;
+
+        int[] cellStart = this.cellStart;
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+        double scale = 1 / cellSize;
+        double origin = gridOrigin;
+        int last = columns - 1;
+        for (int i = 0; i < asteroidCount; i++) {
+            int cx = Math.min(last, Math.max(0, (int) (((x0[i] + x1[i]) * 0.5 - origin) * scale)));
+            int cy = Math.min(last, Math.max(0, (int) (((y0[i] + y1[i]) * 0.5 - origin) * scale)));
+            int cell = cy * columns + cx;
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 1; c <= cells; c++) {
+            cellStart[c] += cellStart[c - 1];
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, cells);
+        double[] sorted = this.sorted;
+        for (int i = 0; i < asteroidCount; i++) {
+            int p = cellFill[cellOf[i]]++;
+            order[p] = i;
+            int k = 4 * p;
+            sorted[k] = x0[i];
+            sorted[k + 1] = y0[i];
+            sorted[k + 2] = x1[i];
+            sorted[k + 3] = y1[i];
+        }
+    }
+
+    // Блок - несколько строк сетки. Для каждой ячейки: пары внутри неё, с правой и с тремя соседними
+    // в следующей строке, так что каждая пара соседних ячеек просматривается ровно один раз
+    private void collectPairs(int block, double limit) {
+        int count = 0;
+        int fromRow = block * ROWS_PER_BLOCK;
+        int toRow = Math.min(fromRow + ROWS_PER_BLOCK, columns);
+        for (int cy = fromRow; cy < toRow; cy++) {
+            boolean hasNextRow = cy + 1 < columns;
+            for (int cx = 0; cx < columns; cx++) {
+                int cell = cy * columns + cx;
+                int start = cellStart[cell];
+                int end = cellStart[cell + 1];
+                if (start == end) {
+                    continue;
+                }
+                boolean hasRight = cx + 1 < columns;
+                int neighbours = cellStart[hasRight ? cell + 2 : cell + 1];
+                int belowFrom = hasNextRow ? cellStart[cx > 0 ? cell + columns - 1 : cell + columns] : 0;
+                int belowTo = hasNextRow ? cellStart[hasRight ? cell + columns + 2 : cell + columns + 1] : 0;
+                for (int p = start; p < end; p++) {
+                    count = scan(block, count, p, p + 1, neighbours, limit);
+                    count = scan(block, count, p, belowFrom, belowTo, limit);
+                }
+            }
+        }
+        blockPairCount[block] = count;
+    }
+
+    private int scan(int block, int count, int p, int from, int to, double limit) {
+        double[] sorted = this.sorted;
+        double ax0 = sorted[4 * p];
+        double ay0 = sorted[4 * p + 1];
+        double ax1 = sorted[4 * p + 2];
+        double ay1 = sorted[4 * p + 3];
+        for (int q = from; q < to; q++) {
+            int k = 4 * q;
+            if (sweptWithin(ax0, ay0, ax1, ay1, sorted[k], sorted[k + 1], sorted[k + 2], sorted[k + 3], limit)) {
+                long[] pairs = blockPairs[block];
+                if (count == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, count * 2);
+                    blockPairs[block] = pairs;
+                }
+                int i = order[p];
+                int j = order[q];
+                pairs[count++] = i < j ? (long) i << 32 | j : (long) j << 32 | i;
+            }
+        }
+        return count;
+    }
+
+    // Астероиды из прямоугольника ячеек, покрывающего раздутый отрезок тела
+    private void findAsteroidsNear(int body, double reach, double t0, double t1) {
+        if (asteroidCount == 0) {
+            return;
+        }
+        double bx0 = bodyX0[body];
+        double by0 = bodyY0[body];
+        double bx1 = bodyX1[body];
+        double by1 = bodyY1[body];
+        double margin = reach + cellSize / 2;
+        int fromX = Math.max(0, (int) Math.floor((Math.min(bx0, bx1) - margin - gridOrigin) / cellSize));
+        int toX = Math.min(columns - 1, (int) Math.floor((Math.max(bx0, bx1) + margin - gridOrigin) / cellSize));
+        int fromY = Math.max(0, (int) Math.floor((Math.min(by0, by1) - margin - gridOrigin) / cellSize));
+        int toY = Math.min(columns - 1, (int) Math.floor((Math.max(by0, by1) + margin - gridOrigin) / cellSize));
+        if (fromX > toX || fromY > toY) {
+            return;
+        }
+        double limit = reach * reach;
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int q = cellStart[cy * columns + fromX], stop = cellStart[cy * columns + toX + 1]; q < stop; q++) {
+                int k = 4 * q;
+                if (sweptWithin(bx0, by0, bx1, by1, sorted[k], sorted[k + 1], sorted[k + 2], sorted[k + 3], limit)) {
+                    narrow(body, bodyCount + order[q], t0, t1);
+                }
+            }
+        }
+    }
+
+    // Точная проверка пары на отрезке [t0, t1]. Сближение сообщается на том шаге, где расстояние минимально,
+    // столкновение - на том, где началось касание, поэтому одно событие не повторяется на соседних шагах
+    private void narrow(int a, int b, double t0, double t1) {
+        double contact = radius(a) + radius(b);
+        double lo = t0;
+        double hi = t1;
+        double c = hi - GOLDEN * (hi - lo);
+        double d = lo + GOLDEN * (hi - lo);
+        double fc = distance(a, b, c);
+        double fd = distance(a, b, d);
+        for (int i = 0; i < SEARCH_ITERATIONS; i++) {
+            if (fc < fd) {
+                hi = d;
+                d = c;
+                fd = fc;
+                c = hi - GOLDEN * (hi - lo);
+                fc = distance(a, b, c);
+            } else {
+                lo = c;
+                c = d;
+                fc = fd;
+                d = lo + GOLDEN * (hi - lo);
+                fd = distance(a, b, d);
+            }
+        }
+        double closest = fc < fd ? c : d;
+        double minimum = Math.min(fc, fd);
+        double start = distance(a, b, t0);
+        double end = distance(a, b, t1);
+        if (start <= minimum) {
+            closest = t0;
+            minimum = start;
+        }
+        if (end < minimum) {
+            closest = t1;
+            minimum = end;
+        }
+        if (minimum > contact + nearMissDistance) {
+            return;
+        }
+
+        if (minimum <= contact) {
+            if (start <= contact) {
+                return;
+            }
+            lo = t0;
+            hi = closest;
+            for (int i = 0; i < SEARCH_ITERATIONS; i++) {
+                double mid = (lo + hi) / 2;
+                if (distance(a, b, mid) > contact) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            double speed = relativeSpeed(a, b, hi);
+            double escape = Math.sqrt(2 * NBodySystem.GRAVITATIONAL_CONSTANT * (mass(a) + mass(b)) / contact);
+            listener.onEncounter(speed < escape ? EncounterType.MERGE : EncounterType.BOUNCE, a, b, hi,
+                    distance(a, b, hi), speed);
+            return;
+        }
+
+        // Сближение принадлежит шагу, в начале которого тела сближаются, а в конце уже расходятся:
+        // пологий минимум на стыке двух шагов засчитывается один раз
+        if (rangeRate(a, b, t0) >= 0 || rangeRate(a, b, t1) < 0) {
+            return;
+        }
+        listener.onEncounter(EncounterType.NEAR_MISS, a, b, closest, minimum, relativeSpeed(a, b, closest));
+    }
+
+    private double distance(int a, int b, double time) {
+        position(a, time, first);
+        position(b, time, second);
+        return Math.hypot(second[0] - first[0], second[1] - first[1]);
+    }
+
+    private double relativeSpeed(int a, int b, double time) {
+        position(a, time + 1, first);
+        position(b, time + 1, second);
+        double dx = second[0] - first[0];
+        double dy = second[1] - first[1];
+        position(a, time - 1, first);
+        position(b, time - 1, second);
+        dx -= second[0] - first[0];
+        dy -= second[1] - first[1];
+        return Math.hypot(dx, dy) / 2;
+    }
+
+    // Знак скорости изменения расстояния: меньше нуля - тела сближаются
+    private double rangeRate(int a, int b, double time) {
+        position(a, time, first);
+        position(b, time, second);
+        double dx = second[0] - first[0];
+        double dy = second[1] - first[1];
+        position(a, time + 1, first);
+        position(b, time + 1, second);
+        double vx = second[0] - first[0];
+        double vy = second[1] - first[1];
+        position(a, time - 1, first);
+        position(b, time - 1, second);
+        vx -= second[0] - first[0];
+        vy -= second[1] - first[1];
+        return dx * vx + dy * vy;
+    }
+
+    private void position(int id, double time, double[] out) {
+        if (id < bodyCount) {
+            bodies[id].positionAt(time, out);
+        } else {
+            asteroids.positionAt(id - bodyCount, time - stateTime, out);
+        }
+    }
+
+    private double radius(int id) {
+        return id < bodyCount ? bodyRadius[id] : asteroidRadius;
+    }
+
+    private double mass(int id) {
+        return id < bodyCount ? bodyMass[id] : asteroidMass;
+    }
+
+    // Ускорение в перицентре n²a/(1-e)² - наибольшее на орбите
+    private static double perihelionAcceleration(double meanMotion, double semiMajorAxis, double eccentricity) {
+        double q = 1 - eccentricity;
+        return meanMotion * meanMotion * semiMajorAxis / (q * q);
+    }
+
+    // Сближаются ли тела, равномерно идущие по своим отрезкам за одно и то же время, меньше чем на sqrt(limit).
+    // Без деления: внутри отрезка квадрат расстояния |p|² - (p·v)²/|v|² сравнивается после умножения на |v|²
+    private static boolean sweptWithin(double ax0, double ay0, double ax1, double ay1,
+                                       double bx0, double by0, double bx1, double by1, double limit) {
+        double px = bx0 - ax0;
+        double py = by0 - ay0;
+        double vx = bx1 - ax1 - px;
+        double vy = by1 - ay1 - py;
+        double pp = px * px + py * py;
+        double pv = px * vx + py * vy;
+        if (pv >= 0) {
+            return pp <= limit;
+        }
+        double vv = vx * vx + vy * vy;
+        if (-pv >= vv) {
+            double ex = px + vx;
+            double ey = py + vy;
+            return ex * ex + ey * ey <= limit;
+        }
+        return pp * vv - pv * pv <= limit * vv;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo1;
+
+// Получатель событий сближения. Вызывается в потоке физики, поэтому не должен надолго задерживать шаг.
+// first < second - номера тел: 0 - Солнце, затем тела системы в порядке срезов, затем астероиды;
+// distance - между центрами в момент события, relativeSpeed - модуль относительной скорости
+interface EncounterListener {
+    void onEncounter(EncounterType type, int first, int second, double time, double distance, double relativeSpeed);
+}
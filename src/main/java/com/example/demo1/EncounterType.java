@@ -0,0 +1,11 @@
+package com.example.demo1;
+
+// Вид события сближения двух тел
+enum EncounterType {
+    // Касание с относительной скоростью меньше второй космической пары: тела слились бы
+    MERGE,
+    // Касание на большей скорости: тела отскочили бы или разрушились
+    BOUNCE,
+    // Поверхности разошлись, не коснувшись, но ближе заданного расстояния
+    NEAR_MISS
+}
@@ -0,0 +1,16 @@
+package com.example.demo1;
+
+// Куда выгружаются кадры
+enum ExportFormat {
+    // Каталог с последовательностью frame-000000.png
+    PNG,
+    // Один файл сырого видео rgb24, кадры подряд без заголовков
+    RAW;
+
+    static ExportFormat parse(String value) {
+        if (value == null) {
+            return PNG;
+        }
+        return ExportFormat.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+}
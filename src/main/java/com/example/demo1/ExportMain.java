@@ -0,0 +1,90 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Выгрузка анимации без окна: кадр за кадром с фиксированным шагом модельного времени, в любом разрешении.
+// Каждый кадр приходится на время frame * timeScale / fps, физика доводится до него ровно нужным числом шагов,
+// поэтому одинаковые параметры дают одинаковые кадры независимо от скорости машины.
+// Запуск: java -cp target/classes:<javafx> com.example.demo1.ExportMain --width=3840 --height=2160 --seconds=10 --output=frames
+// Сырое видео собирается, например, так: ffmpeg -f rawvideo -pix_fmt rgb24 -s 3840x2160 -r 60 -i out.rgb out.mp4
+public class ExportMain {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> parameters = HeadlessMain.parseArguments(args);
+        String output = parameters.get("output");
+        if (output == null) {
+            System.err.println("--output is required: a directory for png frames or a file for raw video");
+            System.exit(2);
+        }
+        int width = Integer.parseInt(parameters.getOrDefault("width", "1920"));
+        int height = Integer.parseInt(parameters.getOrDefault("height", "1080"));
+        double fps = Double.parseDouble(parameters.getOrDefault("fps", "60"));
+        int frames = parameters.containsKey("frames")
+                ? Integer.parseInt(parameters.get("frames"))
+                : (int) Math.round(Double.parseDouble(parameters.getOrDefault("seconds", "10")) * fps);
+        double timeScale = Double.parseDouble(parameters.getOrDefault("time-scale", String.valueOf(Main.DEFAULT_TIME_SCALE)));
+        ExportFormat format = ExportFormat.parse(parameters.get("format"));
+        ViewMode viewMode = ViewMode.parse(parameters.get("view"));
+        int threads = Integer.parseInt(parameters.getOrDefault("physics-threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int encoders = Integer.parseInt(parameters.getOrDefault("encoders",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int buffers = Integer.parseInt(parameters.getOrDefault("buffers", String.valueOf(encoders + 2)));
+        double physicsStep = Double.parseDouble(parameters.getOrDefault("physics-step", "21600"));
+        int asteroidCount = Integer.parseInt(parameters.getOrDefault("asteroids", "200"));
+        int ringParticles = Integer.parseInt(parameters.getOrDefault("ring-particles", "40000"));
+        int stars = Integer.parseInt(parameters.getOrDefault("stars", String.valueOf(Main.DEFAULT_STARS)));
+        double metresPerPixel = Double.parseDouble(parameters.getOrDefault("metres-per-pixel", "0"));
+        long seed = Long.parseLong(parameters.getOrDefault("seed", String.valueOf(SeededRandom.DEFAULT_SEED)));
+
+        SolarSystem solarSystem = SolarSystemFactory.create(parameters.get("system"));
+        AsteroidBelt asteroidBelt = SolarSystemFactory.createAsteroidBelt(solarSystem, parameters.get("catalog"),
+                asteroidCount, threads, seed);
+        List<RingSystem> rings = SolarSystemFactory.createRings(solarSystem, ringParticles, seed);
+        CelestialBody followed = parameters.containsKey("follow") ? findBody(solarSystem, parameters.get("follow")) : null;
+
+        SimulationClock clock = new SimulationClock(physicsStep, 256);
+        // Кольца OffscreenRenderer считает сам на время кадра, движок их не шагает
+        PhysicsEngine engine = new PhysicsEngine(List.of(solarSystem, asteroidBelt), threads, clock);
+        OffscreenRenderer renderer = new OffscreenRenderer(engine, solarSystem, asteroidBelt, rings, viewMode, followed,
+                width, height, metresPerPixel, new Starfield(stars, SeededRandom.derive(seed, SeededRandom.STARS)));
+
+        long start = System.nanoTime();
+        long steps = 0;
+        try (FrameExporter exporter = new FrameExporter(Path.of(output), format, width, height, encoders, buffers)) {
+            for (int frame = 0; frame < frames; frame++) {
+                // Кадр лежит между двумя последними состояниями: после шага needed - 1 и после шага needed
+                double time = frame * timeScale / fps;
+                long needed = (long) Math.floor(time / physicsStep) + 1;
+                engine.runSteps(needed - steps);
+                steps = needed;
+                double alpha = (time - (needed - 1) * physicsStep) / physicsStep;
+                FrameExporter.Frame slot = exporter.acquire();
+                renderer.render(slot.pixels, engine.latest(), alpha);
+                exporter.submit(slot);
+            }
+        } finally {
+            engine.stop();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "%d frames %dx%d %s in %.3f s: %.1f frames/s, %.2fx real time at %.0f fps%n",
+                frames, width, height, format.name().toLowerCase(Locale.ROOT), seconds, frames / seconds,
+                frames / fps / seconds, fps);
+    }
+
+    private static CelestialBody findBody(SolarSystem solarSystem, String name) {
+        if (solarSystem.getSun().getName().equals(name)) {
+            return solarSystem.getSun();
+        }
+        for (int i = 0; i < solarSystem.size(); i++) {
+            if (solarSystem.getBody(i).getName().equals(name)) {
+                return solarSystem.getBody(i);
+            }
+        }
+        throw new IllegalArgumentException("No body named " + name);
+    }
+}
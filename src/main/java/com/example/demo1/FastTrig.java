@@ -0,0 +1,36 @@
+package com.example.demo1;
+
+// Табличные sin/cos с линейной интерполяцией, погрешность порядка 3e-7.
+// Таблица продлена на четверть периода, чтобы cos брался по той же таблице со сдвигом индекса.
+final class FastTrig {
+    static final int SIZE = 4096;
+    static final int MASK = SIZE - 1;
+    static final int QUARTER = SIZE / 4;
+    static final double INDEX_SCALE = SIZE / (2 * Math.PI);
+    static final float[] SIN = new float[SIZE + QUARTER + 1];
+
+    static {
+        for (int i = 0; i < SIN.length; i++) {
+            SIN[i] = (float) Math.sin(i / INDEX_SCALE);
+        }
+    }
+
+    private FastTrig() {
+    }
+
+    static double sin(double angle) {
+        return lookup(angle, 0);
+    }
+
+    static double cos(double angle) {
+        return lookup(angle, QUARTER);
+    }
+
+    private static double lookup(double angle, int shift) {
+        double index = angle * INDEX_SCALE;
+        double floor = Math.floor(index);
+        int i = (int) ((long) floor & MASK) + shift;
+        double fraction = index - floor;
+        return SIN[i] + (SIN[i + 1] - SIN[i]) * fraction;
+    }
+}
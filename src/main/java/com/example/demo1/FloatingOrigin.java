@@ -0,0 +1,15 @@
+package com.example.demo1;
+
+// Плавающее начало срезов как функция модельного времени: неподвижная точка или тело, за которым следит камера.
+// Физика спрашивает его на моменты обоих состояний среза, поэтому тело в начале получает ровно нулевые координаты.
+interface FloatingOrigin {
+    // out[0] = x, out[1] = y в метрах относительно Солнца; вызывается из потока физики
+    void positionAt(double time, double[] out);
+
+    static FloatingOrigin fixed(double x, double y) {
+        return (time, out) -> {
+            out[0] = x;
+            out[1] = y;
+        };
+    }
+}
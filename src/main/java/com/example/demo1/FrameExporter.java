@@ -0,0 +1,223 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+// Конвейер выгрузки кадров: растеризация в потоке вызывающего, сжатие в нескольких потоках-кодировщиках,
+// запись на диск в одном потоке строго по порядку кадров. Кадры живут в ограниченном наборе ячеек,
+// которые ходят по кругу: свободные -> кодирование -> запись -> свободные. Если кодировщики или диск
+// не успевают, acquire ждёт свободную ячейку: кадры не теряются, а память не растёт.
+class FrameExporter implements AutoCloseable {
+    private static final long POLL_MILLIS = 100;
+
+    // Ячейка конвейера: пиксели кадра и его закодированные байты, оба массива переиспользуются
+    static final class Frame {
+        final int[] pixels;
+        byte[] encoded = new byte[0];
+        int length;
+        long index;
+
+        Frame(int pixelCount) {
+            this.pixels = new int[pixelCount];
+        }
+    }
+
+    private static final Frame END = new Frame(0);
+
+    private final Path output;
+    private final ExportFormat format;
+    private final int width;
+    private final int height;
+    private final BlockingQueue<Frame> free;
+    private final BlockingQueue<Frame> encoding;
+    // Ячеек всего ограниченное число, поэтому очередь записи не растёт сверх него
+    private final BlockingQueue<Frame> writing = new LinkedBlockingQueue<>();
+    private final Thread[] encoders;
+    private final Thread writer;
+    private final FileChannel rawChannel;
+    private volatile Throwable failure;
+    private long submitted;
+    private volatile long written;
+
+    // frames - число ячеек: не меньше числа кодировщиков плюс два, чтобы растеризация не ждала без нужды
+    public FrameExporter(Path output, ExportFormat format, int width, int height, int encoderThreads, int frames)
+            throws IOException {
+        this.output = output;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        int slots = Math.max(frames, encoderThreads + 2);
+        this.free = new ArrayBlockingQueue<>(slots);
+        this.encoding = new ArrayBlockingQueue<>(slots);
+        for (int i = 0; i < slots; i++) {
+            free.add(new Frame(width * height));
+        }
+        if (format == ExportFormat.PNG) {
+            Files.createDirectories(output);
+            rawChannel = null;
+        } else {
+            rawChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        encoders = new Thread[encoderThreads];
+        for (int i = 0; i < encoderThreads; i++) {
+            encoders[i] = new Thread(this::encodeLoop, "export-encoder-" + i);
+            encoders[i].setDaemon(true);
+            encoders[i].start();
+        }
+        writer = new Thread(this::writeLoop, "export-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Свободная ячейка для следующего кадра; ждёт, пока конвейер освободит её
+    public Frame acquire() throws IOException, InterruptedException {
+        while (true) {
+            checkFailure();
+            Frame frame = free.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (frame != null) {
+                return frame;
+            }
+        }
+    }
+
+    // Кадр с заполненными pixels уходит кодировщикам; номера идут по порядку вызовов
+    public void submit(Frame frame) throws IOException, InterruptedException {
+        checkFailure();
+        frame.index = submitted++;
+        encoding.put(frame);
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    // Дожидается записи всех отправленных кадров
+    @Override
+    public void close() throws IOException {
+        if (failure != null) {
+            for (Thread encoder : encoders) {
+                encoder.interrupt();
+            }
+            writer.interrupt();
+            if (rawChannel != null) {
+                rawChannel.close();
+            }
+            checkFailure();
+        }
+        try {
+            for (int i = 0; i < encoders.length; i++) {
+                encoding.put(END);
+            }
+            for (Thread encoder : encoders) {
+                encoder.join();
+            }
+            writing.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while finishing export", e);
+        } finally {
+            if (rawChannel != null) {
+                rawChannel.close();
+            }
+        }
+        checkFailure();
+    }
+
+    private void encodeLoop() {
+        PngEncoder encoder = format == ExportFormat.PNG ? new PngEncoder(Deflater.BEST_SPEED) : null;
+        try {
+            while (true) {
+                Frame frame = encoding.take();
+                if (frame == END) {
+                    return;
+                }
+                if (encoder != null) {
+                    frame.encoded = encoder.encode(frame.pixels, width, height, frame.encoded);
+                    frame.length = encoder.getLength();
+                } else {
+                    toRgb(frame);
+                }
+                writing.put(frame);
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    private void toRgb(Frame frame) {
+        int count = width * height;
+        if (frame.encoded.length < count * 3) {
+            frame.encoded = new byte[count * 3];
+        }
+        int[] pixels = frame.pixels;
+        byte[] rgb = frame.encoded;
+        for (int i = 0, o = 0; i < count; i++) {
+            int color = pixels[i];
+            rgb[o++] = (byte) (color >>> 16);
+            rgb[o++] = (byte) (color >>> 8);
+            rgb[o++] = (byte) color;
+        }
+        frame.length = count * 3;
+    }
+
+    // Кодировщики заканчивают кадры в любом порядке; запись ждёт следующий по номеру
+    private void writeLoop() {
+        PriorityQueue<Frame> pending = new PriorityQueue<>((a, b) -> Long.compare(a.index, b.index));
+        long next = 0;
+        try {
+            while (true) {
+                Frame frame = writing.take();
+                if (frame == END) {
+                    return;
+                }
+                pending.add(frame);
+                while (!pending.isEmpty() && pending.peek().index == next) {
+                    Frame ready = pending.poll();
+                    write(ready);
+                    next++;
+                    written = next;
+                    free.put(ready);
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    private void write(Frame frame) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame.encoded, 0, frame.length);
+        if (rawChannel != null) {
+            while (buffer.hasRemaining()) {
+                rawChannel.write(buffer);
+            }
+            return;
+        }
+        Path file = output.resolve(String.format(Locale.ROOT, "frame-%06d.png", frame.index));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IOException("Frame export failed", cause);
+        }
+    }
+}
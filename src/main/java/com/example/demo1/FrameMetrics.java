@@ -0,0 +1,114 @@
+package com.example.demo1;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Метрики цикла кадра без зависимостей от JavaFX: шаг физики (пишет поток физики),
+// обновление сцены и интервал между импульсами JavaFX, в который входит отрисовка (пишет поток JavaFX),
+// паузы GC и скорость аллокаций по всем потокам. Паузы и аллокации опрашиваются из потока JavaFX раз в кадр.
+class FrameMetrics {
+    private static final int WINDOW = 1024;
+    private static final long ALLOCATION_SAMPLE_NANOS = 250_000_000L;
+
+    final LatencyHistogram physicsStep = new LatencyHistogram("physicsStep", WINDOW);
+    final LatencyHistogram sceneUpdate = new LatencyHistogram("sceneUpdate", WINDOW);
+    final LatencyHistogram frameInterval = new LatencyHistogram("frameInterval", WINDOW);
+    final LatencyHistogram gcPause = new LatencyHistogram("gcPause", WINDOW);
+    // Байт в секунду, а не наносекунды
+    final LatencyHistogram allocationRate = new LatencyHistogram("allocationRate", WINDOW);
+
+    private final List<GarbageCollectorMXBean> collectors = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean threads;
+    private volatile long gcCount;
+    private long gcTime = -1;
+    private long lastFrame;
+    private long lastAllocationSample;
+    private long lastAllocated = -1;
+
+    public FrameMetrics() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // Параллельные фазы сборщика приложение не останавливают
+            String name = collector.getName();
+            if (!name.contains("Concurrent") && !name.contains("Cycles")) {
+                collectors.add(collector);
+            }
+        }
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean
+                && threadBean.isThreadAllocatedMemorySupported()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+            threads = threadBean;
+        } else {
+            threads = null;
+        }
+    }
+
+    // Вызывается из потока JavaFX в конце каждого кадра
+    public void frame(long now, long updateNanos) {
+        if (lastFrame != 0) {
+            frameInterval.record(now - lastFrame);
+        }
+        lastFrame = now;
+        sceneUpdate.record(updateNanos);
+        pollCollectors();
+        if (threads != null && now - lastAllocationSample >= ALLOCATION_SAMPLE_NANOS) {
+            sampleAllocation(now);
+        }
+    }
+
+    private void pollCollectors() {
+        long time = 0;
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            time += Math.max(0, collector.getCollectionTime());
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        // Время сборок между двумя кадрами - миллисекунды, которые кадр простоял в паузах
+        if (gcTime >= 0 && time > gcTime) {
+            gcPause.record((time - gcTime) * 1_000_000);
+        }
+        gcTime = time;
+        gcCount = count;
+    }
+
+    private void sampleAllocation(long now) {
+        long allocated = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                allocated += bytes;
+            }
+        }
+        // Сумма уменьшается, когда завершается поток, поэтому отрицательный прирост отбрасывается
+        if (lastAllocated >= 0 && allocated >= lastAllocated) {
+            allocationRate.record((long) ((allocated - lastAllocated) * 1e9 / (now - lastAllocationSample)));
+        }
+        lastAllocated = allocated;
+        lastAllocationSample = now;
+    }
+
+    public List<LatencyHistogram> histograms() {
+        return List.of(physicsStep, sceneUpdate, frameInterval, gcPause, allocationRate);
+    }
+
+    // Время в миллисекундах, аллокации в мегабайтах в секунду: в обоих случаях деление на 1e6
+    static String unit(LatencyHistogram histogram) {
+        return histogram.getName().equals("allocationRate") ? "MB/s" : "ms";
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        for (LatencyHistogram histogram : histograms()) {
+            LatencyHistogram.Summary summary = histogram.summary();
+            text.append(String.format(Locale.ROOT, "%-14s p50 %8.2f  p99 %8.2f  max %8.2f %s%n",
+                    histogram.getName(), summary.p50 / 1e6, summary.p99 / 1e6, summary.max / 1e6, unit(histogram)));
+        }
+        text.append("gcCount ").append(gcCount);
+        return text.toString();
+    }
+}
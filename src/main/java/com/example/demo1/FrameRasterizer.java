@@ -0,0 +1,95 @@
+package com.example.demo1;
+
+// Программная растеризация кадра в массив ARGB для выгрузки без окна: круги с мягким краем,
+// точки плотности и кольца по радиальному профилю. Пишет в переданный массив, своих буферов не держит.
+class FrameRasterizer {
+    // На сколько точка пояса приближает пиксель к своему цвету, из 255: плотные места светлее
+    private static final int DENSITY_STEP = 48;
+    private static final double RING_MAX_ALPHA = 200 / 255.0;
+
+    private final int width;
+    private final int height;
+    private int[] pixels;
+
+    public FrameRasterizer(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // Кадр начинается с копии заранее нарисованного фона того же размера
+    public void begin(int[] pixels, int[] background) {
+        this.pixels = pixels;
+        System.arraycopy(background, 0, pixels, 0, pixels.length);
+    }
+
+    // Край сглаживается по доле пикселя внутри круга; круги меньше пикселя гаснут пропорционально площади
+    public void fillCircle(double x, double y, double radius, int color) {
+        if (radius < 0.5) {
+            blend(x, y, color, Math.max(radius * radius * 4, 0.25));
+            return;
+        }
+        int top = Math.max(0, (int) Math.floor(y - radius));
+        int bottom = Math.min(height - 1, (int) Math.ceil(y + radius));
+        int left = Math.max(0, (int) Math.floor(x - radius));
+        int right = Math.min(width - 1, (int) Math.ceil(x + radius));
+        for (int row = top; row <= bottom; row++) {
+            double dy = row + 0.5 - y;
+            for (int column = left; column <= right; column++) {
+                double dx = column + 0.5 - x;
+                double coverage = radius + 0.5 - Math.sqrt(dx * dx + dy * dy);
+                if (coverage > 0) {
+                    blend(row * width + column, color, Math.min(coverage, 1));
+                }
+            }
+        }
+    }
+
+    public void plotPoint(double x, double y, int color) {
+        blend(x, y, color, DENSITY_STEP / 255.0);
+    }
+
+    // Каждый пиксель кольца получает среднюю плотность профиля на своём отрезке радиусов, как текстура RingView
+    public void ring(RingProfile profile, double x, double y, double pixelsPerMetre, int color) {
+        double outer = profile.getOuterRadius() * pixelsPerMetre;
+        double inner = profile.getInnerRadius() * pixelsPerMetre;
+        double metresPerPixel = 1 / pixelsPerMetre;
+        double maxDensity = profile.getMaxDensity();
+        int top = Math.max(0, (int) Math.floor(y - outer));
+        int bottom = Math.min(height - 1, (int) Math.ceil(y + outer));
+        int left = Math.max(0, (int) Math.floor(x - outer));
+        int right = Math.min(width - 1, (int) Math.ceil(x + outer));
+        for (int row = top; row <= bottom; row++) {
+            double dy = row + 0.5 - y;
+            for (int column = left; column <= right; column++) {
+                double dx = column + 0.5 - x;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance < inner - 0.5 || distance > outer + 0.5) {
+                    continue;
+                }
+                double density = profile.averageDensity((distance - 0.5) * metresPerPixel, (distance + 0.5) * metresPerPixel);
+                if (density > 0) {
+                    blend(row * width + column, color, density / maxDensity * RING_MAX_ALPHA);
+                }
+            }
+        }
+    }
+
+    private void blend(double x, double y, int color, double alpha) {
+        if (!(x >= 0 && y >= 0 && x < width && y < height)) {
+            return;
+        }
+        blend((int) y * width + (int) x, color, alpha);
+    }
+
+    private void blend(int i, int color, double alpha) {
+        int base = pixels[i];
+        int r = mix(base >>> 16 & 0xFF, color >>> 16 & 0xFF, alpha);
+        int g = mix(base >>> 8 & 0xFF, color >>> 8 & 0xFF, alpha);
+        int b = mix(base & 0xFF, color & 0xFF, alpha);
+        pixels[i] = 0xFF000000 | r << 16 | g << 8 | b;
+    }
+
+    private static int mix(int from, int to, double alpha) {
+        return (int) (from + (to - from) * alpha + 0.5);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo1;
+
+import java.util.Locale;
+
+// Средняя и максимальная длительность кадра за окно, вывод в консоль
+class FrameTimeMonitor {
+    private final String label;
+    private final long reportIntervalNanos;
+    private long lastFrameTime;
+    private long windowStart;
+    private int frames;
+    private long frameSum;
+    private long frameMax;
+    private long updateSum;
+    private long updateMax;
+
+    public FrameTimeMonitor(String label, double reportIntervalSeconds) {
+        this.label = label;
+        this.reportIntervalNanos = (long) (reportIntervalSeconds * 1e9);
+    }
+
+    public void frame(long now, long updateNanos) {
+        if (lastFrameTime == 0) {
+            lastFrameTime = now;
+            windowStart = now;
+            return;
+        }
+        long frameNanos = now - lastFrameTime;
+        lastFrameTime = now;
+        frames++;
+        frameSum += frameNanos;
+        frameMax = Math.max(frameMax, frameNanos);
+        updateSum += updateNanos;
+        updateMax = Math.max(updateMax, updateNanos);
+
+        if (now - windowStart >= reportIntervalNanos) {
+            System.out.printf(Locale.ROOT,
+                    "%s: %d frames, frame avg %.2f ms / max %.2f ms, update avg %.2f ms / max %.2f ms%n",
+                    label, frames,
+                    frameSum / 1e6 / frames, frameMax / 1e6,
+                    updateSum / 1e6 / frames, updateMax / 1e6);
+            windowStart = now;
+            frames = 0;
+            frameSum = frameMax = updateSum = updateMax = 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo1;
+
+// Как движутся тела системы: по готовым орбитам или под взаимным притяжением
+enum GravityMode {
+    // Замкнутые орбиты Кеплера из элементов каталога, тела друг на друга не действуют
+    KEPLER,
+    // Точный перебор всех пар, O(N²) - эталон для проверки точности
+    BRUTE_FORCE,
+    // Дерево Барнса-Хата, O(N log N)
+    BARNES_HUT;
+
+    // kepler, brute-force или barnes-hut; по умолчанию орбиты Кеплера
+    static GravityMode parse(String value) {
+        if (value == null) {
+            return KEPLER;
+        }
+        return GravityMode.valueOf(value.trim().replace('-', '_').toUpperCase(java.util.Locale.ROOT));
+    }
+}
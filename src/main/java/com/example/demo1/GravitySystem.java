@@ -0,0 +1,146 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+// Солнечная система под взаимным притяжением вместо замкнутых орбит Кеплера: тела SolarSystem
+// переносятся в NBodySystem (ячейка 0 - Солнце) и дальше движутся только по силам, перебором или деревом.
+// Начальные положения берутся из элементов орбит на текущее время системы, скорости - их разностью
+// на ±VELOCITY_STEP, массы - из каталога. Суммарный импульс обнуляется скоростью Солнца, чтобы
+// система не уплывала. Наружу идут положения относительно Солнца, как у SolarSystem.
+// Снимок состояния хранит положения и скорости, и продолжение с него идёт с того же места.
+class GravitySystem implements BodyStore {
+    // Больший шаг физики делится на куски не длиннее часа: Луна обходит Землю за 27 суток
+    private static final double MAX_SUBSTEP = 3600;
+    private static final double VELOCITY_STEP = 60;
+
+    private final SolarSystem solarSystem;
+    private final NBodySystem bodies;
+
+    public GravitySystem(SolarSystem solarSystem, GravityMode mode) {
+        this(solarSystem, seed(solarSystem, mode));
+    }
+
+    private GravitySystem(SolarSystem solarSystem, NBodySystem bodies) {
+        this.solarSystem = solarSystem;
+        this.bodies = bodies;
+        updateBodies();
+    }
+
+    private static NBodySystem seed(SolarSystem solarSystem, GravityMode mode) {
+        int cells = solarSystem.size() + 1;
+        NBodySystem bodies = new NBodySystem(cells);
+        bodies.setMode(mode);
+
+        double time = solarSystem.getTime();
+        double[] x = new double[cells];
+        double[] y = new double[cells];
+        double[] beforeX = new double[cells];
+        double[] beforeY = new double[cells];
+        double[] afterX = new double[cells];
+        double[] afterY = new double[cells];
+        solarSystem.positionsAt(time, x, y);
+        solarSystem.positionsAt(time - VELOCITY_STEP, beforeX, beforeY);
+        solarSystem.positionsAt(time + VELOCITY_STEP, afterX, afterY);
+        bodies.add(solarSystem.getSun(), 0, 0, 0, 0, 0, 0);
+        double momentumX = 0;
+        double momentumY = 0;
+        for (int i = 1; i < cells; i++) {
+            CelestialBody body = solarSystem.getBody(i - 1);
+            double vx = (afterX[i] - beforeX[i]) / (2 * VELOCITY_STEP);
+            double vy = (afterY[i] - beforeY[i]) / (2 * VELOCITY_STEP);
+            bodies.add(body, x[i], y[i], 0, vx, vy, 0);
+            momentumX += body.getMass() * vx;
+            momentumY += body.getMass() * vy;
+        }
+        bodies.vx[0] = -momentumX / bodies.mass[0];
+        bodies.vy[0] = -momentumY / bodies.mass[0];
+        return bodies;
+    }
+
+    // Для снимка: положения и скорости всех ячеек, Солнце первым
+    void save(CheckpointWriter out) throws IOException {
+        int cells = bodies.size();
+        out.putInt(cells);
+        for (double[] column : new double[][]{bodies.x, bodies.y, bodies.z, bodies.vx, bodies.vy, bodies.vz}) {
+            out.putDoubles(column, cells);
+        }
+    }
+
+    // Массы берутся из тел системы, она должна быть прочитана из того же снимка
+    static GravitySystem load(ByteBuffer in, SolarSystem solarSystem, GravityMode mode) throws IOException {
+        int cells = Checkpoint.getCount(in, 6 * Double.BYTES);
+        if (cells != solarSystem.size() + 1) {
+            throw new IOException("N-body state has " + cells + " bodies, the system has " + (solarSystem.size() + 1));
+        }
+        double[][] columns = new double[6][cells];
+        for (double[] column : columns) {
+            Checkpoint.getDoubles(in, column, cells);
+        }
+        NBodySystem bodies = new NBodySystem(cells);
+        bodies.setMode(mode);
+        for (int i = 0; i < cells; i++) {
+            CelestialBody body = i == 0 ? solarSystem.getSun() : solarSystem.getBody(i - 1);
+            bodies.add(body, columns[0][i], columns[1][i], columns[2][i], columns[3][i], columns[4][i], columns[5][i]);
+        }
+        return new GravitySystem(solarSystem, bodies);
+    }
+
+    public SolarSystem getSolarSystem() {
+        return solarSystem;
+    }
+
+    public GravityMode getMode() {
+        return bodies.getMode();
+    }
+
+    public double totalEnergy() {
+        return bodies.totalEnergy();
+    }
+
+    @Override
+    public int size() {
+        return solarSystem.size();
+    }
+
+    // Часы SolarSystem идут вместе с шагами, а положения тел для наведения и снимков задаёт N-body
+    @Override
+    public void step(int from, int to, double dt) {
+        int substeps = Math.max(1, (int) Math.ceil(Math.abs(dt) / MAX_SUBSTEP));
+        for (int k = 0; k < substeps; k++) {
+            bodies.step(dt / substeps);
+        }
+        solarSystem.advanceTime(dt);
+        updateBodies();
+    }
+
+    private void updateBodies() {
+        for (int i = 1; i <= solarSystem.size(); i++) {
+            CelestialBody body = solarSystem.getBody(i - 1);
+            body.x = bodies.x[i] - bodies.x[0];
+            body.y = bodies.y[i] - bodies.y[0];
+        }
+    }
+
+    @Override
+    public void writePositions(int from, int to, double originX, double originY, float[] x, float[] y, int offset) {
+        double sunX = bodies.x[0];
+        double sunY = bodies.y[0];
+        for (int i = from + 1, j = offset; i <= to; i++, j++) {
+            x[j] = (float) (bodies.x[i] - sunX - originX);
+            y[j] = (float) (bodies.y[i] - sunY - originY);
+        }
+    }
+
+    @Override
+    public boolean isSplittable() {
+        return false;
+    }
+
+    // Силы считаются в пуле движка, а не в общем пуле JVM
+    @Override
+    public void setPool(ForkJoinPool pool) {
+        bodies.setPool(pool);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo1;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Пакетный режим без окна и без JavaFX: строит ту же систему, шагает её заданное число
+// лет симуляции так быстро, как позволяет процессор, и записывает итоговые положения.
+// Запуск: java -cp target/classes com.example.demo1.HeadlessMain --years=100 --asteroids=1000000 --output=state.csv
+// --checkpoint=файл сохраняет итоговое состояние, --resume=файл продолжает с сохранённого.
+// --encounters=файл.csv записывает столкновения и сближения с астероидами и между телами.
+// Одинаковые --seed и параметры дают бит в бит одинаковый результат при любом --physics-threads
+public class HeadlessMain {
+    public static void main(String[] args) throws IOException {
+        Map<String, String> parameters = parseArguments(args);
+        double years = Double.parseDouble(parameters.getOrDefault("years", "1"));
+        int asteroidCount = Integer.parseInt(parameters.getOrDefault("asteroids", "200"));
+        int threads = Integer.parseInt(parameters.getOrDefault("physics-threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        double physicsStep = Double.parseDouble(parameters.getOrDefault("physics-step", "21600"));
+        String output = parameters.get("output");
+        long seed = Long.parseLong(parameters.getOrDefault("seed", String.valueOf(SeededRandom.DEFAULT_SEED)));
+        int ringParticles = Integer.parseInt(parameters.getOrDefault("ring-particles", "40000"));
+
+        long loadStart = System.nanoTime();
+        SolarSystem solarSystem;
+        AsteroidBelt asteroidBelt;
+        List<RingSystem> rings;
+        SimulationClock clock;
+        Checkpoint checkpoint = null;
+        // Продолжение со снимка: система, состояние N тел, пояс, кольца и шаг физики берутся из него
+        if (parameters.containsKey("resume")) {
+            checkpoint = Checkpoint.read(Path.of(parameters.get("resume")));
+            solarSystem = checkpoint.getSolarSystem();
+            asteroidBelt = checkpoint.getAsteroidBelt();
+            rings = checkpoint.getRings();
+            seed = checkpoint.getSeed();
+            clock = checkpoint.createClock(256);
+            physicsStep = clock.getFixedStep();
+        } else {
+            solarSystem = SolarSystemFactory.create(parameters.get("system"));
+            asteroidBelt = SolarSystemFactory.createAsteroidBelt(solarSystem, parameters.get("catalog"),
+                    asteroidCount, threads, seed);
+            rings = SolarSystemFactory.createRings(solarSystem, ringParticles, seed);
+            clock = new SimulationClock(physicsStep, 256);
+        }
+        double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+        // Тела системы по орбитам Кеплера или под взаимным притяжением; пояс всегда по орбитам
+        BodyStore planetsStore = SolarSystemFactory.createPlanetsStore(solarSystem, parameters.get("gravity"), checkpoint);
+        GravitySystem gravity = planetsStore instanceof GravitySystem g ? g : null;
+        // Кольца в движок не входят: их положение - формула от времени, в снимок состояния они пишутся как есть
+        PhysicsEngine engine = new PhysicsEngine(List.of(planetsStore, asteroidBelt), threads, clock);
+        // События сближений пишутся в CSV по мере шагов, в конце печатается их число по видам
+        BufferedWriter encounters = null;
+        long[] encounterCounts = new long[EncounterType.values().length];
+        if (parameters.containsKey("encounters")) {
+            encounters = Files.newBufferedWriter(Path.of(parameters.get("encounters")), StandardCharsets.UTF_8);
+            encounters.write("type,time,first,second,distance,relative_speed\n");
+            engine.setCollisionDetector(createDetector(parameters, solarSystem, asteroidBelt, encounters, encounterCounts));
+        }
+
+        long steps = (long) Math.ceil(years * Units.JULIAN_YEAR / physicsStep);
+        int bodies = solarSystem.size() + asteroidBelt.size();
+
+        double startEnergy = gravity != null ? gravity.totalEnergy() : 0;
+        long start = System.nanoTime();
+        engine.runSteps(steps);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "loaded %d bodies in %.3f s, orbit kernel: %s, gravity: %s%n",
+                solarSystem.size() + asteroidBelt.size(), loadSeconds, AsteroidState.describeKernel(),
+                gravity != null ? gravity.getMode() : GravityMode.KEPLER);
+        System.out.printf(Locale.ROOT,
+                "bodies=%d threads=%d years=%.2f steps=%d time=%.3f s%n", bodies, threads, years, steps, seconds);
+        System.out.printf(Locale.ROOT,
+                "%.1f steps/s, %.3e body-steps/s%n", steps / seconds, steps * (double) bodies / seconds);
+
+        if (gravity != null) {
+            System.out.printf(Locale.ROOT, "energy drift %.3e%n", (gravity.totalEnergy() - startEnergy) / Math.abs(startEnergy));
+        }
+        if (encounters != null) {
+            encounters.close();
+            System.out.printf(Locale.ROOT, "encounters: %d merge, %d bounce, %d near miss%n",
+                    encounterCounts[EncounterType.MERGE.ordinal()], encounterCounts[EncounterType.BOUNCE.ordinal()],
+                    encounterCounts[EncounterType.NEAR_MISS.ordinal()]);
+        }
+        if (output != null) {
+            writePositions(Path.of(output), engine.latest(), solarSystem, engine.offsetOf(planetsStore), bodies);
+        }
+        if (parameters.containsKey("checkpoint")) {
+            long checkpointStart = System.nanoTime();
+            Checkpoint.write(new CheckpointWriter(), Path.of(parameters.get("checkpoint")), clock, seed,
+                    solarSystem, gravity, asteroidBelt, rings);
+            System.out.printf(Locale.ROOT, "checkpoint written in %.1f ms%n", (System.nanoTime() - checkpointStart) / 1e6);
+        }
+        engine.stop();
+    }
+
+    private static CollisionDetector createDetector(Map<String, String> parameters, SolarSystem solarSystem,
+                                                    AsteroidBelt asteroidBelt, BufferedWriter writer, long[] counts) {
+        double asteroidRadius = Double.parseDouble(parameters.getOrDefault("asteroid-radius-km", "1")) * 1000;
+        double nearMiss = Double.parseDouble(parameters.getOrDefault("near-miss-km", "1000")) * 1000;
+        CollisionDetector[] detector = new CollisionDetector[1];
+        detector[0] = new CollisionDetector(solarSystem, asteroidBelt.getState(), asteroidRadius, nearMiss,
+                (type, first, second, time, distance, relativeSpeed) -> {
+                    counts[type.ordinal()]++;
+                    try {
+                        writer.write(type + "," + time + "," + detector[0].describe(first) + ","
+                                + detector[0].describe(second) + "," + distance + "," + relativeSpeed + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return detector[0];
+    }
+
+    private static void writePositions(Path path, StateSnapshot snapshot, SolarSystem solarSystem,
+                                       int planetsOffset, int bodies) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("index,name,x,y\n");
+            for (int i = 0; i < bodies; i++) {
+                int local = i - planetsOffset;
+                String name = local >= 0 && local < solarSystem.size() ? solarSystem.getBody(local).getName() : "";
+                writer.write(i + "," + name + "," + (snapshot.originX + snapshot.x[i]) + "," + (snapshot.originY + snapshot.y[i]) + "\n");
+            }
+        }
+    }
+
+    static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                if (eq > 0) {
+                    parameters.put(arg.substring(2, eq), arg.substring(eq + 1));
+                } else {
+                    parameters.put(arg.substring(2), "true");
+                }
+            }
+        }
+        return parameters;
+    }
+}
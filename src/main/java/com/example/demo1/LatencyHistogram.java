@@ -0,0 +1,65 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Последние N значений в кольцевом буфере без блокировок: писатель один (свой поток у каждой метрики),
+// читатели - HUD, экспорт и JMX - копируют окно и считают процентили у себя.
+// Если писатель обгоняет читателя, в копию может попасть чуть более новое значение - для процентилей это не важно.
+class LatencyHistogram {
+    private final String name;
+    private final AtomicLongArray values;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+
+    public LatencyHistogram(String name, int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.name = name;
+        this.values = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    public void record(long value) {
+        long sequence = written.get();
+        values.lazySet((int) (sequence & mask), value);
+        written.lazySet(sequence + 1);
+    }
+
+    public Summary summary() {
+        long total = written.get();
+        int n = (int) Math.min(total, values.length());
+        long[] window = new long[n];
+        for (int i = 0; i < n; i++) {
+            window[i] = values.get((int) ((total - n + i) & mask));
+        }
+        Arrays.sort(window);
+        return new Summary(total, percentile(window, 0.5), percentile(window, 0.99), n == 0 ? 0 : window[n - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Процентили по текущему окну; count - сколько значений записано всего
+    static final class Summary {
+        final long count;
+        final long p50;
+        final long p99;
+        final long max;
+
+        Summary(long count, long p50, long p99, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+}
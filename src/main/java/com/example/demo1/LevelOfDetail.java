@@ -0,0 +1,26 @@
+package com.example.demo1;
+
+// Насколько подробно рисовать тело при данном радиусе на экране
+enum LevelOfDetail {
+    // За пределами окна: узел скрыт и не обновляется
+    HIDDEN,
+    // Меньше пикселя: точка фиксированного размера без градиента
+    POINT,
+    // Несколько пикселей: круг однотонной заливкой
+    FLAT,
+    // Полная заливка
+    FULL;
+
+    static final double POINT_RADIUS = 1;
+    private static final double FLAT_RADIUS = 4;
+
+    static LevelOfDetail of(Viewport viewport, double x, double y, double radius) {
+        if (!viewport.contains(x, y, Math.max(radius, POINT_RADIUS))) {
+            return HIDDEN;
+        }
+        if (radius < POINT_RADIUS) {
+            return POINT;
+        }
+        return radius < FLAT_RADIUS ? FLAT : FULL;
+    }
+}
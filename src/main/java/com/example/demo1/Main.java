@@ -7,308 +7,98 @@ import javafx.scene.Scene;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.Stop;
-import javafx.scene.paint.Paint;
-import javafx.scene.shape.Ellipse;
-import javafx.scene.paint.RadialGradient;
 import javafx.scene.effect.Glow;
-import javafx.scene.input.MouseEvent;
+import javafx.scene.input.KeyCode;
 import javafx.scene.text.Text;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
 import javafx.stage.Screen;
 import javafx.geometry.Rectangle2D;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
-abstract class CelestialBody {
-    protected String name;
-    protected double radius;
-    protected double mass;
-    protected Orbit orbit;
-    protected Circle visualRepresentation;
-    protected Paint color;
-
-    public CelestialBody(String name, double mass, double radius, Orbit orbit, Paint color) {
-        this.name = name;
-        this.mass = mass;
-        this.radius = radius;
-        this.orbit = orbit;
-        this.color = color;
-    }
-
-    public abstract void updatePosition();
-
-    public String getName() {
-        return name;
-    }
-
-    public double getRadius() {
-        return radius;
-    }
-
-    public double getMass() {
-        return mass;
-    }
-
-    public Circle getVisualRepresentation() {
-        return visualRepresentation;
-    }
-}
-
-class SolarSystem {
-    private ArrayList<Planet> planets;
-
-    public SolarSystem() {
-        this.planets = new ArrayList<>();
-    }
-
-    public void addPlanet(Planet planet) {
-        planets.add(planet);
-    }
-
-    public void update() {
-        // Обновление орбит планет, спутников и поясов астероидов
-        for (Planet planet : planets) {
-            planet.updatePosition();
-        }
-    }
-
-    public ArrayList<Planet> getPlanets() {
-        return planets;
-    }
-}
-
-class Sun extends CelestialBody {
-    public Sun(String name, double mass, double radius, Paint color) {
-        super(name, mass, radius, null, color);
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public double getMass() {
-        return mass;
-    }
-
-    public double getRadius() {
-        return radius;
-    }
-
-    @Override
-    public void updatePosition() {
-        // Солнце неподвижно
-    }
-}
-
-class Planet extends CelestialBody  {
-    private double speed;
-    private Circle visualRepresentation;
-    private ArrayList<Ellipse> rings;
-    private double sceneWidth;
-    private double sceneHeight;
-
-    public Planet(String name, double mass, double radius, Orbit orbit, double speed, Paint color, double sceneWidth, double sceneHeight) {
-        super(name, mass, radius, orbit, color);
-        this.speed = speed;
-        this.sceneWidth = sceneWidth;
-        this.sceneHeight = sceneHeight;
-        this.rings = new ArrayList<>();
-    }
-
-    public Orbit getOrbit() {
-        return orbit;
-    }
-
-    public double getMass(){
-        return mass;
-    }
-
-    public double getRadius() {
-        return radius;
-    }
-
-    public Circle createCircleRepresentation(double planetRadius) {
-        visualRepresentation = new Circle(orbit.getSemiMajorAxis(), 400, planetRadius);
-        visualRepresentation.setFill(color);
-        return visualRepresentation;
-    }
-
-    public void addRing(Ellipse ring) {
-        rings.add(ring);
-    }
+public class Main extends Application {
+    static final double SUN_RADIUS = 60;
+    private static final double REAL_SUN_RADIUS = 353000;
+    // Год проходит примерно за 13 секунд, как Земля в исходной анимации
+    static final double DEFAULT_TIME_SCALE = Units.JULIAN_YEAR / 13.3;
+    // Звёзд на небе; слабые по отдельности едва видны и вместе дают Млечный Путь
+    static final int DEFAULT_STARS = 20000;
+    private SolarSystem solarSystem;
+    private PhysicsEngine physicsEngine;
+    private SimulationClient client;
+    // Насколько далеко от курсора ещё засчитывается наведение, пикселей
+    private static final double HOVER_RADIUS = 4;
+    // Поле отсечения пояса, пикселей: кружок астероида и радиус наведения у края окна
+    private static final double CULL_MARGIN = 8;
+    private static final long INFO_TEXT_NANOS = 5_000_000_000L;
+    private static final long METRICS_HUD_REFRESH_NANOS = 500_000_000L;
+    private static final double ZOOM_PER_NOTCH = 1.15;
+    private static final double SCROLL_NOTCH = 40;
+    // Исходный вид в настоящем масштабе: от Солнца до края окна 6 а.е., видно орбиту Юпитера
+    static final double REAL_VIEW_RADIUS = 6 * Units.ASTRONOMICAL_UNIT;
+    // В настоящем масштабе тела меньше маркера рисуются маркером: доля схематичного радиуса
+    static final double REAL_MARKER_SCALE = 0.35;
+    // Крупнее этого масштаба спрайты астероидов сливаются и пояс рисуется точками
+    static final double REAL_POINT_METRES_PER_PIXEL = 2e8;
+    private double mouseX = -1;
+    private double mouseY = -1;
+    private MetricsCsvExporter metricsExporter;
+    private ViewMode viewMode;
+    private boolean trailsShown;
+    // Тело, за которым следует камера: id из сетки наведения, -1 - свободная камера
+    private int followedId = -1;
+    private Camera camera;
 
     @Override
-    public void updatePosition() {
-        orbit.updatePosition(speed);
-        double angle = Math.toRadians(orbit.getAngle());
-
-        double a = orbit.getSemiMajorAxis();
-        double b = a * Math.sqrt(1 - Math.pow(orbit.getEccentricity(), 2));
-
-        double x = sceneWidth / 2 + a * Math.cos(angle);
-        double y = sceneHeight / 2 + b * Math.sin(angle);
-
-        if (visualRepresentation == null) {
-            visualRepresentation = new Circle(x, y, radius, color);
-        } else {
-            visualRepresentation.setCenterX(x);
-            visualRepresentation.setCenterY(y);
+    public void start(Stage primaryStage) throws IOException {
+        Map<String, String> parameters = getParameters().getNamed();
+        int asteroidCount = Integer.parseInt(parameters.getOrDefault("asteroids", "200"));
+        int ringParticles = Integer.parseInt(parameters.getOrDefault("ring-particles", "40000"));
+        int stars = Integer.parseInt(parameters.getOrDefault("stars", String.valueOf(DEFAULT_STARS)));
+        int trailLength = Integer.parseInt(parameters.getOrDefault("trail-length", "512"));
+        int trailDecimation = Integer.parseInt(parameters.getOrDefault("trail-decimation", "8"));
+        int trailAsteroids = Integer.parseInt(parameters.getOrDefault("trail-asteroids", "1000"));
+        trailsShown = Boolean.parseBoolean(parameters.get("trails"));
+        AsteroidRenderMode asteroidRenderMode = AsteroidRenderMode.parse(parameters.get("asteroid-render"));
+        viewMode = ViewMode.parse(parameters.get("view"));
+        int physicsThreads = Integer.parseInt(parameters.getOrDefault("physics-threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        double physicsStep = Double.parseDouble(parameters.getOrDefault("physics-step", "21600"));
+        // Со снимка берутся система, пояс, кольца и часы; масштаб времени из снимка, если не задан явно
+        // Зритель сервера (--connect): модель приходит от ServerMain снимком, положения - кадрами, своей физики нет
+        if (parameters.containsKey("connect")) {
+            client = SimulationClient.connect(parameters.get("connect"));
         }
-
-        for (Ellipse ring : rings) {
-            ring.setCenterX(x);
-            ring.setCenterY(y);
+        Checkpoint resumed = client != null ? client.getModel()
+                : parameters.containsKey("resume") ? Checkpoint.read(Path.of(parameters.get("resume"))) : null;
+        long seed = resumed != null ? resumed.getSeed()
+                : Long.parseLong(parameters.getOrDefault("seed", String.valueOf(SeededRandom.DEFAULT_SEED)));
+        SimulationClock clock = resumed != null ? resumed.createClock(256) : new SimulationClock(physicsStep, 256);
+        if (resumed == null || parameters.containsKey("time-scale")) {
+            clock.setTimeScale(Double.parseDouble(parameters.getOrDefault("time-scale", String.valueOf(DEFAULT_TIME_SCALE))));
         }
-    }
-
-    public Circle getVisualRepresentation() {
-        return visualRepresentation;
-    }
-
-    public String getName() {
-        return name;
-    }
-}
-
-class Orbit {
-    private double semiMajorAxis;
-    private double eccentricity;
-    private double angle;
-
-    public Orbit(double semiMajorAxis, double eccentricity) {
-        this.semiMajorAxis = semiMajorAxis;
-        this.eccentricity = eccentricity;
-        this.angle = 0;
-    }
-
-    public void updatePosition(double speed) {
-        angle += speed;
-        if (angle > 360) {
-            angle = 0;
-        }
-    }
-
-    public double getSemiMajorAxis() {
-        return semiMajorAxis;
-    }
-
-    public double getEccentricity() {
-        return eccentricity;
-    }
-
-    public double getAngle() {
-        return angle;
-    }
-}
-
-class Moon extends CelestialBody {
-    public Moon(String name, double mass, Orbit orbit, double radius, Paint color) {
-        super(name, mass, radius, orbit, color);
-    }
-
-    public double getRadius() {
-        return radius;
-    }
-
-    public void updatePosition() {
-        orbit.updatePosition(0.6);
-    }
-
-    public Circle createCircleRepresentation(double planetRadius) {
-        visualRepresentation = new Circle(orbit.getSemiMajorAxis(), 400, planetRadius);
-        visualRepresentation.setFill(color);
-        return visualRepresentation;
-    }
-
-    public Circle getVisualRepresentation() {
-        return visualRepresentation;
-    }
-}
-
-class Star {
-    private double x, y;
-    private double size;
-    private Color color;
-
-    public Star(double x, double y, double size, Color color) {
-        this.x = x;
-        this.y = y;
-        this.size = size;
-        this.color = color;
-    }
-
-    public Circle createCircleRepresentation() {
-        Circle star = new Circle(x, y, size);
-        star.setFill(color);
-        return star;
-    }
-}
-
-class AsteroidBelt {
-    private ArrayList<Circle> asteroids;
-    private double screenWidth;
-    private double screenHeight;
-
-    public AsteroidBelt(double screenWidth, double screenHeight) {
-        this.screenWidth = screenWidth;
-        this.screenHeight = screenHeight;
-        this.asteroids = new ArrayList<>();
-    }
-
-    public void createAsteroids(int numAsteroids) {
-        for (int i = 0; i < numAsteroids; i++) {
-            double randomRadius = (Math.random() * 0.07 + 0.4) * Math.min(screenWidth, screenHeight);
-            double angle = Math.random() * 360;
-            double x = screenWidth / 2 + randomRadius * Math.cos(Math.toRadians(angle));
-            double y = screenHeight / 2 + randomRadius * Math.sin(Math.toRadians(angle));
-            Circle asteroid = new Circle(x, y, 2);
-            asteroid.setFill(Color.LINEN);
-            asteroids.add(asteroid);
+        Path checkpointPath = Path.of(parameters.getOrDefault("checkpoint", "solar-system.checkpoint"));
+        FrameTimeMonitor frameTimeMonitor = Boolean.parseBoolean(parameters.get("frame-stats"))
+                ? new FrameTimeMonitor(asteroidRenderMode + " x" + asteroidCount, 5)
+                : null;
+        // Метрики кадра собираются всегда и доступны через JMX; оверлей и CSV включаются параметрами
+        FrameMetrics frameMetrics = new FrameMetrics();
+        try {
+            new MetricsMBean(frameMetrics).register();
+        } catch (JMException e) {
+            System.err.println("Frame metrics are not available over JMX: " + e.getMessage());
         }
-    }
-
-    public void updatePosition(double angleSpeed) {
-        for (int i = 0; i < asteroids.size(); i++) {
-            Circle asteroid = asteroids.get(i);
-
-            double x = asteroid.getCenterX() - screenWidth / 2;
-            double y = asteroid.getCenterY() - screenHeight / 2;
-            double currentRadius = Math.sqrt(x * x + y * y);
-
-            double minRadius = 0.4 * Math.min(screenWidth, screenHeight);
-            double maxRadius = 0.47 * Math.min(screenWidth, screenHeight);
-
-            if (currentRadius < minRadius) currentRadius = minRadius;
-            if (currentRadius > maxRadius) currentRadius = maxRadius;
-
-            double angle = Math.atan2(y, x) + angleSpeed;
-
-            x = currentRadius * Math.cos(angle) + screenWidth / 2;
-            y = currentRadius * Math.sin(angle) + screenHeight / 2;
-
-            asteroid.setCenterX(x);
-            asteroid.setCenterY(y);
+        if (parameters.containsKey("metrics-csv")) {
+            metricsExporter = new MetricsCsvExporter(frameMetrics, Path.of(parameters.get("metrics-csv")),
+                    Double.parseDouble(parameters.getOrDefault("metrics-interval", "5")));
         }
-    }
-
-    public ArrayList<Circle> getAsteroids() {
-        return asteroids;
-    }
-}
 
-public class Main extends Application {
-    private static final double SUN_RADIUS = 60;
-    private static final double REAL_SUN_RADIUS = 353000;
-    private SolarSystem solarSystem = new SolarSystem();
-    private boolean isTextFixed = false;
-
-    @Override
-    public void start(Stage primaryStage) {
         Group root = new Group();
         Rectangle2D screenBounds = Screen.getPrimary().getVisualBounds();
         double sceneWidth = (screenBounds.getWidth())/2;
@@ -318,244 +108,340 @@ public class Main extends Application {
         planetInfoText.setFill(Color.WHITE);
         planetInfoText.setStyle("-fx-font-family: 'Inter'; -fx-font-size: 14;");
         root.getChildren().add(planetInfoText);
+        Text metricsText = new Text(50, 160, "");
+        metricsText.setFill(Color.LIGHTGREEN);
+        metricsText.setStyle("-fx-font-family: 'monospace'; -fx-font-size: 12;");
+        metricsText.setMouseTransparent(true);
+        metricsText.setVisible(Boolean.parseBoolean(parameters.get("metrics-hud")));
+        root.getChildren().add(metricsText);
+
+        // Градиент и звёзды рисуются один раз в картинку под всеми узлами
+        scene.setFill(Color.BLACK);
+        SkyLayer sky = new SkyLayer(new Starfield(stars, SeededRandom.derive(seed, SeededRandom.STARS)));
+        sky.update(sceneWidth, sceneHeight);
+        root.getChildren().add(0, sky.getView());
 
-        scene.setFill(new LinearGradient(
-                0, 0, 1, 1, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.BLACK),
-                new Stop(1, Color.DARKBLUE)
-        ));
 
+        solarSystem = resumed != null ? resumed.getSolarSystem() : SolarSystemFactory.create(parameters.get("system"));
+        Sun sunObject = solarSystem.getSun();
 
-        Sun sunObject = new Sun("Sun", 1.989e30, 696.340,
-                new RadialGradient(
-                        0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE,
-                        new Stop(0, Color.YELLOW),
-                        new Stop(0.6, Color.ORANGE),
-                        new Stop(1, Color.RED)
-                ));
+        SchematicProjection projection = SchematicProjection.forSystem(solarSystem, sceneWidth, sceneHeight, 1);
 
-        Circle sun = new Circle(sceneWidth / 2, sceneHeight / 2, SUN_RADIUS);
-        sun.setFill(sunObject.color);
+        Viewport viewport = new Viewport(sceneWidth, sceneHeight);
+        BodyView sunView = new BodyView(sunObject, BodyPaints.forBody(sunObject.getName()), SUN_RADIUS);
+        Circle sun = sunView.getCircle();
         Glow glow = new Glow();
         glow.setLevel(1);
         sun.setEffect(glow);
+        sunView.cacheRendering();
         root.getChildren().add(sun);
 
-        AsteroidBelt asteroidBelt = new AsteroidBelt(sceneWidth, sceneHeight);
-        asteroidBelt.createAsteroids(200);
-
-        for (int i = 0; i < 60; i++) {
-            double x = Math.random() * scene.getWidth();
-            double y = Math.random() * scene.getHeight();
-            double size = Math.random() * 2 + 1;
-            Color color = Color.WHITE;
-            Star star = new Star(x, y, size, color);
-            root.getChildren().add(star.createCircleRepresentation());
+        AsteroidBelt asteroidBelt = resumed != null ? resumed.getAsteroidBelt()
+                : SolarSystemFactory.createAsteroidBelt(solarSystem, parameters.get("catalog"), asteroidCount, physicsThreads, seed);
+        AsteroidBeltView asteroidBeltView = new AsteroidBeltView(asteroidBelt, asteroidRenderMode, sceneWidth, sceneHeight);
+
+        // История следов пишется всегда, клавиша T только показывает слой, поэтому след виден сразу.
+        // Точки пишет поток физики, поэтому у зрителя сервера следов нет
+        TrailHistory trailHistory = trailLength > 0 && client == null
+                ? new TrailHistory(solarSystem, asteroidBelt.getState(), trailAsteroids, trailLength, trailDecimation)
+                : null;
+        TrailView trailView = trailHistory != null ? new TrailView(trailHistory, solarSystem, sceneWidth, sceneHeight) : null;
+        if (trailView != null) {
+            root.getChildren().add(trailView.getView());
         }
 
-        double baseRadius = sceneWidth * 0.085;
-
-        Orbit mercuryOrbit = new Orbit(baseRadius * 1.3, 0.2056 * 2.5);
-        Orbit venusOrbit = new Orbit(baseRadius * 1.5, 0.0067 * 2.5);
-        Orbit earthOrbit = new Orbit(baseRadius * 1.7, 0.0167 * 2.5);
-        Orbit marsOrbit = new Orbit(baseRadius * 1.9, 0.0934 * 2.5);
-        Orbit jupiterOrbit = new Orbit(baseRadius * 3.0, 0.0484 * 2.5);
-        Orbit saturnOrbit = new Orbit(baseRadius * 4.0, 0.0565 * 2.5);
-        Orbit uranusOrbit = new Orbit(baseRadius * 4.5, 0.0461 * 2.5);
-        Orbit neptuneOrbit = new Orbit(baseRadius * 5.0, 0.0097 * 2.5);
-        Orbit plutoOrbit = new Orbit(baseRadius * 5.5, 0.0087 * 2.5);
-
-        Planet mercury = new Planet("Mercury", 3.3e23, 2439.7*8, mercuryOrbit, 0.65, new RadialGradient(
-                0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#7f7f7f")), new Stop(0.6, Color.web("#4c4c4c")), new Stop(1, Color.web("#2a2a2a"))),
-                sceneWidth, sceneHeight);
-
-        Planet venus = new Planet("Venus", 4.9e24, 6052.8*6, venusOrbit, 0.59,new RadialGradient(
-                0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#E5B97E")), new Stop(0.6, Color.web("#D77F3C")), new Stop(1, Color.web("#9F4F20"))),
-                sceneWidth, sceneHeight);
-
-        Planet earth = new Planet("Earth", 5.98e24, 6371*6, earthOrbit, 0.45, Color.STEELBLUE, sceneWidth, sceneHeight);
-
-        Planet mars = new Planet("Mars", 6.44e23, 3386*7, marsOrbit, 0.408, new RadialGradient(
-                0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#D16C4B")), new Stop(0.6, Color.web("#A13A2E")), new Stop(1, Color.web("#7F2A1C"))),
-                sceneWidth, sceneHeight);
-
-        Planet jupiter = new Planet("Jupiter", 1.9e27, 71492*2, jupiterOrbit, 0.221, new LinearGradient(
-                0, 0, 1, 1, true, CycleMethod.REFLECT, new Stop(0.0, Color.BURLYWOOD), new Stop(0.1, Color.TAN), new Stop(0.2, Color.SADDLEBROWN), new Stop(0.3, Color.DARKORANGE),
-                new Stop(0.4, Color.BROWN), new Stop(0.5, Color.BURLYWOOD), new Stop(0.6, Color.TAN), new Stop(0.7, Color.SADDLEBROWN), new Stop(0.8, Color.DARKORANGE), new Stop(0.9, Color.BROWN)),
-                sceneWidth, sceneHeight);
-
-        Planet saturn = new Planet("Saturn", 5.68e26, 60268*2, saturnOrbit, 0.164, new RadialGradient(0, 0, 0.5, 0.5, 1, true,
-                javafx.scene.paint.CycleMethod.NO_CYCLE, new Stop(0, Color.PERU), new Stop(0.4, Color.GOLDENROD),new Stop(1, Color.LIGHTGOLDENRODYELLOW)),
-                sceneWidth, sceneHeight);
-
-        Planet uranus = new Planet("Uranus", 8.7e25, 25559*2, uranusOrbit, 0.115, new RadialGradient(
-                0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#A0D8D3")), new Stop(0.6, Color.web("#66B1B1")), new Stop(1, Color.web("#4F7D7D"))),
-                sceneWidth, sceneHeight);
-
-        Planet neptune = new Planet("Neptune", 1.03e26, 24764*2, neptuneOrbit, 0.09, new RadialGradient(
-                0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#4A90E2")), new Stop(0.6, Color.web("#306C9B")), new Stop(1, Color.web("#1A3A5A"))),
-                sceneWidth, sceneHeight);
-
-        Planet pluto = new Planet("Pluto", 1.3e22, 2376.3*8, plutoOrbit, 0.079,new RadialGradient(
-                0, 0, 0.5, 0.5, 1, true, CycleMethod.NO_CYCLE, new Stop(0, Color.web("#A89785")), new Stop(0.6, Color.web("#7A5D45")), new Stop(1, Color.web("#5A3A2C"))),
-                sceneWidth, sceneHeight);
-
-        solarSystem.addPlanet(mercury);
-        solarSystem.addPlanet(venus);
-        solarSystem.addPlanet(earth);
-        solarSystem.addPlanet(mars);
-        solarSystem.addPlanet(jupiter);
-        solarSystem.addPlanet(saturn);
-        solarSystem.addPlanet(uranus);
-        solarSystem.addPlanet(neptune);
-        solarSystem.addPlanet(pluto);
-
-        Orbit moonOrbit = new Orbit(20, 0.0549);
-
-        Moon moon = new Moon("Moon", 7.35e22, moonOrbit, 3476*4, Color.LIGHTSTEELBLUE);
-
-        Circle moonCircle = moon.createCircleRepresentation((moon.getRadius() / REAL_SUN_RADIUS) * SUN_RADIUS);
-
-        root.getChildren().add(moonCircle);
+        ArrayList<BodyView> moonViews = new ArrayList<>();
+        for (Moon moon : solarSystem.getMoons()) {
+            BodyView moonView = new BodyView(moon, BodyPaints.forBody(moon.getName()), displayRadius(moon));
+            moonViews.add(moonView);
+            root.getChildren().add(moonView.getCircle());
+        }
 
-        for (Circle asteroid : asteroidBelt.getAsteroids()) {
-            root.getChildren().add(asteroid);
+        root.getChildren().addAll(asteroidBeltView.getNodes());
+
+        // Кольца под планетами; индекс тела каждого кольца ищется один раз
+        List<RingSystem> rings = resumed != null ? resumed.getRings() : SolarSystemFactory.createRings(solarSystem, ringParticles, seed);
+        ArrayList<RingView> ringViews = new ArrayList<>();
+        int[] ringBodyIndex = new int[rings.size()];
+        for (int k = 0; k < rings.size(); k++) {
+            RingView ringView = new RingView(rings.get(k), sceneWidth, sceneHeight);
+            ringViews.add(ringView);
+            root.getChildren().addAll(ringView.getNodes());
+            for (int i = 0; i < solarSystem.size(); i++) {
+                if (solarSystem.getBody(i) == rings.get(k).getPlanet()) {
+                    ringBodyIndex[k] = i;
+                }
+            }
         }
 
+        ArrayList<BodyView> planetViews = new ArrayList<>();
         for (Planet planet : solarSystem.getPlanets()) {
-            Circle planetCircle = planet.createCircleRepresentation((planet.getRadius()/ REAL_SUN_RADIUS) * SUN_RADIUS);
-            root.getChildren().add(planetCircle);
+            BodyView planetView = new BodyView(planet, BodyPaints.forBody(planet.getName()), displayRadius(planet));
+            planetViews.add(planetView);
+            root.getChildren().add(planetView.getCircle());
+        }
 
-            planetCircle.setOnMouseEntered(event -> {
-                String speed = "";
-                String orbitRadius = "";
-                String radius = "";
-                switch (planet.getName()) {
-                    case "Mercury":
-                        speed = "47.87 km/s";
-                        orbitRadius = "57.9E9 m";
-                        radius = "2439 km";
-                        break;
-                    case "Venus":
-                        speed = "35.02 km/s";
-                        orbitRadius = "108.3E9 m";
-                        radius = "6052 km";
-                        break;
-                    case "Earth":
-                        speed = "29.78 km/s";
-                        orbitRadius = "149.6E9 m";
-                        radius = "6371 km";
-                        break;
-                    case "Mars":
-                        speed = "24.07 km/s";
-                        orbitRadius = "228.1E9 m";
-                        radius = "3386 km";
-                        break;
-                    case "Jupiter":
-                        speed = "13.07 km/s";
-                        orbitRadius = "778.4E9 m";
-                        radius = "71 492 km";
-                        break;
-                    case "Saturn":
-                        speed = "9.69 km/s";
-                        orbitRadius = "1426.98E9 m";
-                        radius = "60 268 km";
-                        break;
-                    case "Uranus":
-                        speed = "6.81 km/s";
-                        orbitRadius = "2869.5E9 m";
-                        radius = "25 559 km";
-                        break;
-                    case "Neptune":
-                        speed = "5.43 km/s";
-                        orbitRadius = "4496.7E9 m";
-                        radius = "24 764 km";
-                        break;
-                    case "Pluto":
-                        speed = "4.66 km/s";
-                        orbitRadius = "5919.4E9 m";
-                        radius = "1188 km";
-                        break;
+        SnapshotSource source;
+        BodyStore planetsStore = solarSystem;
+        if (client != null) {
+            source = client;
+        } else {
+            // Кольца в движок не входят: частица обходит планету за часы, быстрее шага физики,
+            // поэтому RingView считает её положение сам на время кадра, а не интерполирует срезы
+            planetsStore = SolarSystemFactory.createPlanetsStore(solarSystem, parameters.get("gravity"), resumed);
+            physicsEngine = new PhysicsEngine(List.of(planetsStore, asteroidBelt), physicsThreads, clock);
+            source = physicsEngine;
+        }
+        int planetsOffset = source.offsetOf(planetsStore);
+        // Частицы колец считаются в пуле движка; у зрителя движка нет, и он, как SimulationClient, берёт общий пул
+        ForkJoinPool framePool = physicsEngine != null ? physicsEngine.getPool() : ForkJoinPool.commonPool();
+        GravitySystem gravity = planetsStore instanceof GravitySystem g ? g : null;
+        // Индекс родителя каждого тела системы; -1 у планет, которые проецируются от Солнца
+        int[] parentIndex = new int[solarSystem.size()];
+        for (int i = 0; i < parentIndex.length; i++) {
+            parentIndex[i] = solarSystem.getParentIndex(i);
+        }
+        double[] worldX = new double[solarSystem.size()];
+        double[] worldY = new double[solarSystem.size()];
+        double[] screenX = new double[solarSystem.size()];
+        double[] screenY = new double[solarSystem.size()];
+
+        // Сетка для наведения: 0 - Солнце, затем тела системы в порядке срезов, затем астероиды
+        int asteroidsId = 1 + solarSystem.size();
+        ScreenGrid hoverGrid = new ScreenGrid(sceneWidth, sceneHeight, 16, asteroidsId + asteroidBelt.size());
+        for (int id = 0; id < asteroidsId; id++) {
+            hoverGrid.setLinear(id);
+        }
+        double[] radii = new double[solarSystem.size()];
+        camera = new Camera(sceneWidth, sceneHeight,
+                REAL_VIEW_RADIUS / (Math.min(sceneWidth, sceneHeight) / 2), source);
+        scene.setOnMouseMoved(event -> {
+            mouseX = event.getSceneX();
+            mouseY = event.getSceneY();
+        });
+        // Колесо - масштаб вокруг курсора, перетаскивание - сдвиг, Home - исходный вид
+        scene.setOnScroll(event -> {
+            double factor = Math.pow(ZOOM_PER_NOTCH, event.getDeltaY() / SCROLL_NOTCH);
+            if (viewMode == ViewMode.REAL) {
+                // При слежении масштаб идёт вокруг тела в центре, а не вокруг курсора
+                camera.zoomAt(factor, followedId >= 0 ? sceneWidth / 2 : event.getSceneX(),
+                        followedId >= 0 ? sceneHeight / 2 : event.getSceneY());
+            } else {
+                viewport.zoomAt(factor, event.getSceneX(), event.getSceneY());
+            }
+        });
+        scene.setOnMousePressed(event -> {
+            mouseX = event.getSceneX();
+            mouseY = event.getSceneY();
+        });
+        scene.setOnMouseDragged(event -> {
+            if (event.isPrimaryButtonDown()) {
+                if (viewMode == ViewMode.REAL) {
+                    follow(-1);
+                    camera.pan(event.getSceneX() - mouseX, event.getSceneY() - mouseY);
+                } else {
+                    viewport.pan(event.getSceneX() - mouseX, event.getSceneY() - mouseY);
                 }
-                planetInfoText.setText(
-                        "Name: " + planet.getName() + "\n" +
-                                "Mass: " + planet.getMass() + " kg\n" +
-                                "Orbit Radius: " + orbitRadius+ "\n" +
-                                "Speed: " + speed + "\n" +
-                                "Radius: " + radius
-                );
-            });
+            }
+            mouseX = event.getSceneX();
+            mouseY = event.getSceneY();
+        });
+        int asteroidsOffset = source.offsetOf(asteroidBelt);
+        // Отсечение пояса по ячейкам сетки среза, до интерполяции: рамка ячейки переводится в экран
+        // текущего вида и сравнивается с окном
+        source.indexBodies(asteroidsOffset, asteroidBelt.size());
+        double[] cellBox = new double[4];
+        SnapshotGrid.CellTest realCells = (minX, minY, maxX, maxY) -> viewport.intersects(camera.toScreenX(minX),
+                camera.toScreenY(minY), camera.toScreenX(maxX), camera.toScreenY(maxY), CULL_MARGIN);
+        SnapshotGrid.CellTest schematicCells = (minX, minY, maxX, maxY) -> {
+            projection.bounds(minX, minY, maxX, maxY, cellBox);
+            return viewport.intersects(viewport.toViewX(cellBox[0]), viewport.toViewY(cellBox[1]),
+                    viewport.toViewX(cellBox[2]), viewport.toViewY(cellBox[3]), CULL_MARGIN);
+        };
+        if (client != null) {
+            client.start();
+        } else {
+            physicsEngine.setStepHistogram(frameMetrics.physicsStep);
+            physicsEngine.setTrailHistory(trailHistory);
+            physicsEngine.start();
+        }
 
-            sun.addEventHandler(MouseEvent.MOUSE_ENTERED, event -> {
-                if (!isTextFixed) {
-                    planetInfoText.setText(
-                            "Name: " + sunObject.getName() +
-                                    "\nMass: " + sunObject.getMass()  + " kg" +
-                                    "\nRadius: " + sunObject.getRadius() + " km"
-                    );
+        // Пробел - пауза, 1-4 - сутки в секунду, год за 13 секунд, год в секунду, 10 лет в секунду, M - метрики,
+        // V - настоящий масштаб или схема, F - следить за телом под курсором, C - снимок состояния в файл, T - следы
+        CheckpointWriter checkpointWriter = new CheckpointWriter();
+        scene.setOnKeyPressed(event -> {
+            // У зрителя сервера время идёт по кадрам сервера, а следов нет: клавиши часов и следов не действуют
+            if (client != null && isLocalSimulationKey(event.getCode())) {
+                return;
+            }
+            switch (event.getCode()) {
+                case SPACE -> clock.setPaused(!clock.isPaused());
+                case DIGIT1 -> clock.setTimeScale(Units.DAY);
+                case DIGIT2 -> clock.setTimeScale(DEFAULT_TIME_SCALE);
+                case DIGIT3 -> clock.setTimeScale(Units.JULIAN_YEAR);
+                case DIGIT4 -> clock.setTimeScale(10 * Units.JULIAN_YEAR);
+                case HOME -> {
+                    follow(-1);
+                    viewport.reset();
+                    camera.reset();
                 }
-            });
-
-            moonCircle.addEventHandler(MouseEvent.MOUSE_ENTERED, event -> {
-                if (!isTextFixed) {
-                    planetInfoText.setText(
-                            "Name: " + moon.getName()+
-                                    "\nMass: " + moon.getMass() + " kg" +
-                                    "\nRadius: 1.737 km" +
-                                    "\nSpeed: 1.02 km/s" +
-                                    "\nOrbit Radius: 384,399 km"
-                    );
+                case V -> viewMode = viewMode == ViewMode.REAL ? ViewMode.SCHEMATIC : ViewMode.REAL;
+                case F -> {
+                    int hovered = hoverGrid.nearest(mouseX, mouseY, HOVER_RADIUS);
+                    follow(hovered < asteroidsId ? hovered : -1);
                 }
-            });
-
-
-            Timeline hideTextTimeline = new Timeline(new KeyFrame(Duration.seconds(5), e -> {
-                planetInfoText.setText("");
-            }));
-
-            hideTextTimeline.setCycleCount(200);
-            hideTextTimeline.play();
-
-            Ellipse saturnRing1 = new Ellipse(500, 500, 25, 5);
-            saturnRing1.setStrokeWidth(2);
-            saturnRing1.setStroke(Color.BURLYWOOD);
-            saturnRing1.setFill(Color.TRANSPARENT);
-
-            Ellipse saturnRing2 = new Ellipse(500, 500, 30, 10);
-            saturnRing2.setStrokeWidth(1.5);
-            saturnRing2.setStroke(Color.LIGHTGOLDENRODYELLOW);
-            saturnRing2.setFill(Color.TRANSPARENT);
-
-            saturn.addRing(saturnRing1);
-            saturn.addRing(saturnRing2);
-            root.getChildren().addAll(saturnRing1, saturnRing2);
-        }
+                case M -> metricsText.setVisible(!metricsText.isVisible());
+                case T -> trailsShown = !trailsShown;
+                case C -> {
+                    // Зритель не шагает модель, снимок был бы устаревшим
+                    if (physicsEngine != null) {
+                        physicsEngine.runBetweenSteps(() -> {
+                            long start = System.nanoTime();
+                            try {
+                                Checkpoint.write(checkpointWriter, checkpointPath, clock, seed, solarSystem, gravity,
+                                        asteroidBelt, rings);
+                                System.out.printf(Locale.ROOT, "Checkpoint saved to %s in %.1f ms%n", checkpointPath, (System.nanoTime() - start) / 1e6);
+                            } catch (IOException e) {
+                                System.err.println("Cannot save checkpoint: " + e.getMessage());
+                            }
+                        });
+                    }
+                }
+                default -> {
+                }
+            }
+        });
 
         new AnimationTimer() {
+            private int shownId = -1;
+            private long shownAt;
+            private long metricsShownAt;
+            private long lastFrame;
+
             @Override
             public void handle(long now) {
-                solarSystem.update();
-                for (Planet planet : solarSystem.getPlanets()) {
-                    Circle planetCircle = planet.getVisualRepresentation();
-                    double semiMajorAxis = planet.getOrbit().getSemiMajorAxis();
-                    double eccentricity = planet.getOrbit().getEccentricity();
-                    double angle = Math.toRadians(planet.getOrbit().getAngle());
-                    double semiMinorAxis = semiMajorAxis * Math.sqrt(1 - eccentricity * eccentricity);
-                    double x = (sceneWidth / 2) + semiMajorAxis * Math.cos(angle);
-                    double y = (sceneHeight / 2) + semiMinorAxis * Math.sin(angle);
-
-                    planetCircle.setCenterX(x);
-                    planetCircle.setCenterY(y);
+                long updateStart = System.nanoTime();
+                sky.update(scene.getWidth(), scene.getHeight());
+                // Поток JavaFX только читает последний готовый срез, физика или приём кадров идут в своём потоке
+                StateSnapshot snapshot = source.latest();
+                double alpha = snapshot.alphaAt(now);
+                double dt = lastFrame == 0 ? 0 : (now - lastFrame) * 1e-9;
+                lastFrame = now;
+                double originX = snapshot.originXAt(alpha);
+                double originY = snapshot.originYAt(alpha);
+                for (int i = 0, j = planetsOffset; i < worldX.length; i++, j++) {
+                    worldX[i] = originX + snapshot.interpolateX(j, alpha);
+                    worldY[i] = originY + snapshot.interpolateY(j, alpha);
+                }
+                double sunX;
+                double sunY;
+                double sunRadius;
+                boolean asteroidPoints;
+                if (viewMode == ViewMode.REAL) {
+                    int id = followedId;
+                    if (id >= 0) {
+                        camera.lookAt(id == 0 ? 0 : worldX[id - 1], id == 0 ? 0 : worldY[id - 1]);
+                    }
+                    camera.update(dt);
+                    asteroidBeltView.interpolate(snapshot, asteroidsOffset, alpha, realCells);
+                    // Настоящий радиус, но не меньше маркера, иначе тело не найти
+                    double metresPerPixel = camera.getMetresPerPixel();
+                    for (int i = 0; i < worldX.length; i++) {
+                        CelestialBody body = solarSystem.getBody(i);
+                        screenX[i] = camera.toScreenX(worldX[i]);
+                        screenY[i] = camera.toScreenY(worldY[i]);
+                        radii[i] = Math.max(body.getRadius() * 1000 / metresPerPixel, displayRadius(body) * REAL_MARKER_SCALE);
+                    }
+                    sunX = camera.toScreenX(0);
+                    sunY = camera.toScreenY(0);
+                    sunRadius = Math.max(sunObject.getRadius() * 1000 / metresPerPixel, SUN_RADIUS * REAL_MARKER_SCALE * 0.5);
+                    camera.project(asteroidBeltView.getScreenX(), asteroidBeltView.getScreenY(),
+                            asteroidBeltView.getVisibleCount(), originX, originY);
+                    asteroidPoints = metresPerPixel > REAL_POINT_METRES_PER_PIXEL;
+                } else {
+                    asteroidBeltView.interpolate(snapshot, asteroidsOffset, alpha, schematicCells);
+                    // Родитель всегда раньше спутника, поэтому его положение на схеме уже посчитано
+                    for (int i = 0; i < worldX.length; i++) {
+                        int parent = parentIndex[i];
+                        if (parent < 0) {
+                            screenX[i] = projection.toScreenX(worldX[i], worldY[i]);
+                            screenY[i] = projection.toScreenY(worldX[i], worldY[i]);
+                        } else {
+                            screenX[i] = projection.satelliteX(screenX[parent], worldX[i] - worldX[parent]);
+                            screenY[i] = projection.satelliteY(screenY[parent], worldY[i] - worldY[parent]);
+                        }
+                    }
+                    double zoom = viewport.getZoom();
+                    for (int i = 0; i < screenX.length; i++) {
+                        screenX[i] = viewport.toViewX(screenX[i]);
+                        screenY[i] = viewport.toViewY(screenY[i]);
+                        radii[i] = displayRadius(solarSystem.getBody(i)) * zoom;
+                    }
+                    sunX = viewport.toViewX(sceneWidth / 2);
+                    sunY = viewport.toViewY(sceneHeight / 2);
+                    sunRadius = SUN_RADIUS * zoom;
+                    projection.project(asteroidBeltView.getScreenX(), asteroidBeltView.getScreenY(), 0,
+                            asteroidBeltView.getVisibleCount(), originX, originY);
+                    viewport.apply(asteroidBeltView.getScreenX(), asteroidBeltView.getScreenY(),
+                            asteroidBeltView.getVisibleCount());
+                    asteroidPoints = zoom < 1;
+                }
 
-                    if (planet.getName().equals("Earth")) {
-                        moon.updatePosition();
-                        double moonX = x + moonOrbit.getSemiMajorAxis() * Math.cos(Math.toRadians(moonOrbit.getAngle()));
-                        double moonY = y + moonOrbit.getSemiMajorAxis() * Math.sin(Math.toRadians(moonOrbit.getAngle()));
-                        moon.getVisualRepresentation().setCenterX(moonX);
-                        moon.getVisualRepresentation().setCenterY(moonY);
+                if (trailView != null) {
+                    if (trailsShown) {
+                        trailView.render(viewMode, camera, projection, viewport);
+                    } else {
+                        trailView.hide();
                     }
                 }
-                asteroidBelt.updatePosition(0.0013);
+
+                // Отбор подробности: тела вне окна не обновляются, мелкие рисуются точками
+                sunView.render(viewport, sunX, sunY, sunRadius);
+                for (int i = 0; i < planetViews.size(); i++) {
+                    planetViews.get(i).render(viewport, screenX[i], screenY[i], radii[i]);
+                }
+                for (int i = 0, j = planetViews.size(); i < moonViews.size(); i++, j++) {
+                    moonViews.get(i).render(viewport, screenX[j], screenY[j], radii[j]);
+                }
+                asteroidBeltView.draw(viewport, asteroidPoints);
+                // Кольца растут вместе с кругом планеты: пикселей на метр - как у её радиуса на экране
+                double frameTime = snapshot.timeAt(alpha);
+                for (int k = 0; k < ringViews.size(); k++) {
+                    int i = ringBodyIndex[k];
+                    ringViews.get(k).render(framePool, viewport, frameTime, screenX[i], screenY[i],
+                            radii[i] / (solarSystem.getBody(i).getRadius() * 1000));
+                }
+
+                hoverGrid.setRadius(0, sunRadius);
+                hoverGrid.update(0, sunX, sunY);
+                for (int i = 0; i < screenX.length; i++) {
+                    hoverGrid.setRadius(1 + i, radii[i]);
+                    hoverGrid.update(1 + i, screenX[i], screenY[i]);
+                }
+                // В сетку наведения идут только тела из видимых ячеек, ушедшие из окна из неё убираются
+                hoverGrid.update(asteroidBeltView.getScreenX(), asteroidBeltView.getScreenY(),
+                        asteroidBeltView.getVisibleIds(), asteroidBeltView.getVisibleCount(), asteroidsId);
+                int hovered = hoverGrid.nearest(mouseX, mouseY, HOVER_RADIUS);
+                if (hovered >= 0 && hovered != shownId) {
+                    shownId = hovered;
+                    shownAt = now;
+                    planetInfoText.setText(hovered == 0 ? BodyInfo.describe(sunObject)
+                            : hovered < asteroidsId ? BodyInfo.describe(solarSystem.getBody(hovered - 1))
+                            : BodyInfo.describeAsteroid(asteroidBelt.getState(), hovered - asteroidsId));
+                } else if (shownId >= 0 && now - shownAt > INFO_TEXT_NANOS) {
+                    // Подсказка исчезает через 5 секунд после наведения
+                    shownId = -1;
+                    planetInfoText.setText("");
+                }
+                long updateNanos = System.nanoTime() - updateStart;
+                frameMetrics.frame(now, updateNanos);
+                if (metricsText.isVisible() && now - metricsShownAt > METRICS_HUD_REFRESH_NANOS) {
+                    metricsShownAt = now;
+                    metricsText.setText(frameMetrics.format());
+                }
+                if (frameTimeMonitor != null) {
+                    frameTimeMonitor.frame(now, updateNanos);
+                }
             }
         }.start();
 
@@ -564,6 +450,36 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    // 0 - Солнце, дальше тела в порядке SolarSystem; камера делает тело началом срезов физики
+    private void follow(int id) {
+        followedId = id;
+        camera.follow(id < 0 ? null : id == 0 ? solarSystem.getSun() : solarSystem.getBody(id - 1));
+    }
+
+    // Пауза, скорость времени и следы: то, чем управляет своя физика, а не сервер
+    private static boolean isLocalSimulationKey(KeyCode code) {
+        return code == KeyCode.SPACE || code == KeyCode.DIGIT1 || code == KeyCode.DIGIT2
+                || code == KeyCode.DIGIT3 || code == KeyCode.DIGIT4 || code == KeyCode.T;
+    }
+
+    // Радиус кружка на экране относительно нарисованного Солнца, с увеличением из каталога
+    static double displayRadius(CelestialBody body) {
+        return body.getRadius() * body.getDisplayScale() / REAL_SUN_RADIUS * SUN_RADIUS;
+    }
+
+    @Override
+    public void stop() throws IOException {
+        if (physicsEngine != null) {
+            physicsEngine.stop();
+        }
+        if (client != null) {
+            client.close();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
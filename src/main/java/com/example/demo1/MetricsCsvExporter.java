@@ -0,0 +1,67 @@
+package com.example.demo1;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Периодическая выгрузка метрик кадра в CSV из отдельного потока: строка на интервал,
+// p50, p99 и max каждой гистограммы в миллисекундах или MB/s
+class MetricsCsvExporter {
+    private final FrameMetrics metrics;
+    private final BufferedWriter writer;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsCsvExporter(FrameMetrics metrics, Path path, double intervalSeconds) throws IOException {
+        this.metrics = metrics;
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        StringBuilder header = new StringBuilder("time");
+        for (LatencyHistogram histogram : metrics.histograms()) {
+            String name = histogram.getName();
+            header.append(',').append(name).append("_p50,").append(name).append("_p99,").append(name).append("_max");
+        }
+        writer.write(header.append(",gc_count\n").toString());
+        writer.flush();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1, (long) (intervalSeconds * 1000));
+        scheduler.scheduleAtFixedRate(this::writeRow, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeRow() {
+        StringBuilder row = new StringBuilder(Instant.now().toString());
+        for (LatencyHistogram histogram : metrics.histograms()) {
+            LatencyHistogram.Summary summary = histogram.summary();
+            row.append(String.format(Locale.ROOT, ",%.3f,%.3f,%.3f", summary.p50 / 1e6, summary.p99 / 1e6, summary.max / 1e6));
+        }
+        row.append(',').append(metrics.getGcCount()).append('\n');
+        try {
+            writer.write(row.toString());
+            writer.flush();
+        } catch (IOException e) {
+            // Без файла выгружать некуда, окно при этом продолжает работать
+            System.err.println("Metrics export stopped: " + e.getMessage());
+            scheduler.shutdown();
+        }
+    }
+
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo1;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Метрики кадра в JMX (jconsole, VisualVM): по атрибуту на p50, p99 и max каждой гистограммы
+// плюс число сборок. Атрибуты строятся из списка гистограмм, поэтому новая метрика появляется сама.
+class MetricsMBean implements DynamicMBean {
+    static final String OBJECT_NAME = "com.example.demo1:type=FrameMetrics";
+
+    private final FrameMetrics metrics;
+    private final MBeanInfo info;
+
+    public MetricsMBean(FrameMetrics metrics) {
+        this.metrics = metrics;
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (LatencyHistogram histogram : metrics.histograms()) {
+            for (String statistic : new String[]{"p50", "p99", "max"}) {
+                attributes.add(new MBeanAttributeInfo(histogram.getName() + "." + statistic, "double",
+                        histogram.getName() + " " + statistic + ", " + FrameMetrics.unit(histogram), true, false, false));
+            }
+        }
+        attributes.add(new MBeanAttributeInfo("gcCount", "long", "Stop-the-world collections", true, false, false));
+        info = new MBeanInfo(getClass().getName(), "Frame loop metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (attribute.equals("gcCount")) {
+            return metrics.getGcCount();
+        }
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            String name = attribute.substring(0, dot);
+            for (LatencyHistogram histogram : metrics.histograms()) {
+                if (histogram.getName().equals(name)) {
+                    LatencyHistogram.Summary summary = histogram.summary();
+                    switch (attribute.substring(dot + 1)) {
+                        case "p50":
+                            return summary.p50 / 1e6;
+                        case "p99":
+                            return summary.p99 / 1e6;
+                        case "max":
+                            return summary.max / 1e6;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Неизвестные атрибуты по контракту DynamicMBean просто пропускаются
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    // Операций нет; ReflectionException - ответ DynamicMBean на неизвестную операцию
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.demo1;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+// Параллельная загрузка каталога малых тел (CSV в духе выгрузки MPC) прямо в массивы AsteroidState.
+// Файл отображается в память кусками по границам строк. Первый проход параллельно считает строки
+// в каждом куске, второй - разбирает их в свои индексы без промежуточных строк и объектов.
+// Первая строка файла - заголовок, строки с # и пустые строки пропускаются.
+// Строка с ошибкой или не эллиптической орбитой (e >= 1, a <= 0) отклоняет весь каталог с номером строки.
+// Колонки: designation,a_au,e,i_deg,node_deg,peri_deg,mean_anomaly_deg
+// Наклонение не используется: орбиты проецируются на плоскость эклиптики.
+final class MinorBodyCatalog {
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 256L << 20;
+    private static final int FIELDS = 7;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private MinorBodyCatalog() {
+    }
+
+    static AsteroidState load(Path path, ForkJoinPool pool, double gravitationalParameter) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = split(channel, size, pool.getParallelism() * 4);
+            int chunks = bounds.length - 1;
+            MappedByteBuffer[] maps = new MappedByteBuffer[chunks];
+            for (int c = 0; c < chunks; c++) {
+                maps[c] = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+            }
+
+            int[] counts = new int[chunks];
+            ParallelRange.run(pool, chunks, 1, (from, to) -> {
+                for (int c = from; c < to; c++) {
+                    counts[c] = parseChunk(maps[c], c == 0, null, 0, gravitationalParameter, null, null, c);
+                }
+            });
+
+            int[] offsets = new int[chunks];
+            long total = 0;
+            for (int c = 0; c < chunks; c++) {
+                offsets[c] = (int) total;
+                total += counts[c];
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IOException("Catalog has too many bodies: " + total);
+            }
+
+            // Ошибка куска запоминается и выходит из задачи, чтобы наружу ушло IOException, а не исключение пула
+            AsteroidState state = new AsteroidState((int) total);
+            String[] errors = new String[chunks];
+            int[] errorPositions = new int[chunks];
+            ParallelRange.run(pool, chunks, 1, (from, to) -> {
+                for (int c = from; c < to; c++) {
+                    parseChunk(maps[c], c == 0, state, offsets[c], gravitationalParameter, errors, errorPositions, c);
+                }
+            });
+            for (int c = 0; c < chunks; c++) {
+                if (errors[c] != null) {
+                    throw new IOException(path + ":" + lineNumber(maps, c, errorPositions[c]) + ": " + errors[c]);
+                }
+            }
+            state.setSize((int) total);
+            return state;
+        }
+    }
+
+    // Номер строки с единицы; считается только для сообщения об ошибке
+    private static long lineNumber(ByteBuffer[] maps, int chunk, int position) {
+        long line = 1;
+        for (int c = 0; c <= chunk; c++) {
+            int limit = c == chunk ? position : maps[c].limit();
+            for (int i = 0; i < limit; i++) {
+                if (maps[c].get(i) == '\n') {
+                    line++;
+                }
+            }
+        }
+        return line;
+    }
+
+    // Границы кусков, сдвинутые на начало следующей строки
+    private static long[] split(FileChannel channel, long size, int targetChunks) throws IOException {
+        long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / Math.max(targetChunks, 1)));
+        int chunks = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+        long[] bounds = new long[chunks + 1];
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        for (int c = 1; c < chunks; c++) {
+            long position = Math.max(c * chunkBytes, bounds[c - 1]);
+            bounds[c] = nextLineStart(channel, position, size, window);
+        }
+        bounds[chunks] = size;
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer window) throws IOException {
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Возвращает число строк с данными; если state == null, только считает.
+    // Первая ошибка разбора пишется в errors[chunk] с позицией строки, и кусок дальше не разбирается
+    private static int parseChunk(ByteBuffer buffer, boolean skipHeader, AsteroidState state, int index,
+                                  double gravitationalParameter, String[] errors, int[] errorPositions, int chunk) {
+        int limit = buffer.limit();
+        int position = 0;
+        int count = 0;
+        if (skipHeader) {
+            position = lineEnd(buffer, 0, limit) + 1;
+        }
+        int[] fieldStart = state == null ? null : new int[FIELDS + 1];
+        while (position < limit) {
+            int end = lineEnd(buffer, position, limit);
+            int contentEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+            if (contentEnd > position && buffer.get(position) != '#') {
+                if (state != null) {
+                    try {
+                        parseLine(buffer, position, contentEnd, fieldStart, state, index + count, gravitationalParameter);
+                    } catch (IllegalArgumentException e) {
+                        errors[chunk] = e.getMessage();
+                        errorPositions[chunk] = position;
+                        return count;
+                    }
+                }
+                count++;
+            }
+            position = end + 1;
+        }
+        return count;
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int from, int limit) {
+        int i = from;
+        while (i < limit && buffer.get(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static void parseLine(ByteBuffer buffer, int from, int to, int[] fieldStart, AsteroidState state, int i,
+                                  double gravitationalParameter) {
+        int field = 0;
+        fieldStart[0] = from;
+        for (int p = from; p < to && field < FIELDS; p++) {
+            if (buffer.get(p) == ',') {
+                fieldStart[++field] = p + 1;
+            }
+        }
+        if (field < FIELDS - 1) {
+            throw new IllegalArgumentException("expected " + FIELDS + " columns, found " + (field + 1));
+        }
+        fieldStart[FIELDS] = to + 1;
+
+        double semiMajorAxis = parseDouble(buffer, fieldStart[1], fieldStart[2] - 1) * Units.ASTRONOMICAL_UNIT;
+        double eccentricity = parseDouble(buffer, fieldStart[2], fieldStart[3] - 1);
+        if (!(semiMajorAxis > 0)) {
+            throw new IllegalArgumentException("semi-major axis must be positive");
+        }
+        if (!(eccentricity >= 0 && eccentricity < 1)) {
+            throw new IllegalArgumentException("eccentricity " + eccentricity + " is not an elliptic orbit");
+        }
+        double node = Math.toRadians(parseDouble(buffer, fieldStart[4], fieldStart[5] - 1));
+        double perihelion = Math.toRadians(parseDouble(buffer, fieldStart[5], fieldStart[6] - 1));
+        double meanAnomaly = Math.toRadians(parseDouble(buffer, fieldStart[6], fieldStart[7] - 1));
+
+        state.set(i, semiMajorAxis, eccentricity, meanAnomaly,
+                AsteroidState.meanMotion(gravitationalParameter, semiMajorAxis), node + perihelion);
+    }
+
+    // Разбор числа прямо из байтов: до 18 значащих цифр точно, затем одно деление или умножение на 10^k
+    static double parseDouble(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        while (to > from && buffer.get(to - 1) == ' ') {
+            to--;
+        }
+        if (from == to) {
+            throw new IllegalArgumentException("Empty number");
+        }
+        int p = from;
+        boolean negative = false;
+        byte first = buffer.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        for (; p < to; p++) {
+            byte b = buffer.get(p);
+            if (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else if (!fraction) {
+                    exponent++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b == 'e' || b == 'E') {
+                exponent += parseExponent(buffer, p + 1, to);
+                break;
+            } else {
+                throw new IllegalArgumentException("Bad number character '" + (char) b + "'");
+            }
+        }
+        double value = mantissa;
+        if (exponent < 0) {
+            value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value * Math.pow(10, exponent);
+        } else if (exponent > 0) {
+            value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    private static int parseExponent(ByteBuffer buffer, int from, int to) {
+        boolean negative = false;
+        if (from < to && (buffer.get(from) == '-' || buffer.get(from) == '+')) {
+            negative = buffer.get(from) == '-';
+            from++;
+        }
+        if (from == to) {
+            throw new IllegalArgumentException("Empty exponent");
+        }
+        int value = 0;
+        for (int p = from; p < to; p++) {
+            byte b = buffer.get(p);
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("Bad exponent character '" + (char) b + "'");
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    // Синтетический каталог пояса астероидов для проверки загрузки на больших объёмах
+    static void writeSynthetic(Path path, int count, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            writer.write("designation,a_au,e,i_deg,node_deg,peri_deg,mean_anomaly_deg\n");
+            StringBuilder line = new StringBuilder(96);
+            for (int i = 0; i < count; i++) {
+                line.setLength(0);
+                line.append('S').append(i).append(',')
+                        .append(String.format(Locale.ROOT, "%.6f,%.5f,%.3f,%.3f,%.3f,%.3f",
+                                2.1 + random.nextDouble() * 1.2,
+                                random.nextDouble() * 0.25,
+                                random.nextDouble() * 20,
+                                random.nextDouble() * 360,
+                                random.nextDouble() * 360,
+                                random.nextDouble() * 360))
+                        .append('\n');
+                writer.append(line);
+            }
+        }
+    }
+}
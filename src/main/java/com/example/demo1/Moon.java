@@ -0,0 +1,11 @@
+package com.example.demo1;
+
+class Moon extends CelestialBody {
+    public Moon(String name, double mass, Orbit orbit, double radius) {
+        super(name, mass, radius, orbit);
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+}
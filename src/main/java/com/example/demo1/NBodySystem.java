@@ -0,0 +1,172 @@
+package com.example.demo1;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Гравитационная задача N тел. Состояние хранится в массивах, интегрирование -
+// симплектическая схема leapfrog (kick-drift-kick), сохраняющая энергию на длинных интервалах.
+class NBodySystem {
+    public static final double GRAVITATIONAL_CONSTANT = 6.674e-11;
+    private static final int GRAIN = 512;
+
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    final double[] vx;
+    final double[] vy;
+    final double[] vz;
+    final double[] ax;
+    final double[] ay;
+    final double[] az;
+    final double[] mass;
+    private int count;
+
+    private final double gravitationalConstant;
+    private final double softening2;
+    private final BarnesHutTree tree;
+    private ForkJoinPool pool;
+    private GravityMode mode = GravityMode.BARNES_HUT;
+    private double openingAngle = 0.5;
+    private boolean accelerationsValid;
+
+    public NBodySystem(int capacity, double gravitationalConstant, double softening, ForkJoinPool pool) {
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.z = new double[capacity];
+        this.vx = new double[capacity];
+        this.vy = new double[capacity];
+        this.vz = new double[capacity];
+        this.ax = new double[capacity];
+        this.ay = new double[capacity];
+        this.az = new double[capacity];
+        this.mass = new double[capacity];
+        this.gravitationalConstant = gravitationalConstant;
+        this.softening2 = softening * softening;
+        this.tree = new BarnesHutTree(capacity);
+        this.pool = pool;
+    }
+
+    public NBodySystem(int capacity) {
+        this(capacity, GRAVITATIONAL_CONSTANT, 0, ForkJoinPool.commonPool());
+    }
+
+    // Параллельный расчёт сил идёт в этом пуле; в движке физики это его собственный пул
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int add(double m, double px, double py, double pz, double pvx, double pvy, double pvz) {
+        int i = count++;
+        mass[i] = m;
+        x[i] = px;
+        y[i] = py;
+        z[i] = pz;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        vz[i] = pvz;
+        accelerationsValid = false;
+        return i;
+    }
+
+    public int add(CelestialBody body, double px, double py, double pz, double pvx, double pvy, double pvz) {
+        return add(body.getMass(), px, py, pz, pvx, pvy, pvz);
+    }
+
+    public void setMode(GravityMode mode) {
+        if (mode == GravityMode.KEPLER) {
+            throw new IllegalArgumentException("N-body system needs a force mode, not " + mode);
+        }
+        this.mode = mode;
+        accelerationsValid = false;
+    }
+
+    public void setOpeningAngle(double openingAngle) {
+        this.openingAngle = openingAngle;
+        accelerationsValid = false;
+    }
+
+    public void step(double dt) {
+        if (!accelerationsValid) {
+            computeAccelerations();
+        }
+        double halfDt = dt / 2;
+        for (int i = 0; i < count; i++) {
+            vx[i] += ax[i] * halfDt;
+            vy[i] += ay[i] * halfDt;
+            vz[i] += az[i] * halfDt;
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            z[i] += vz[i] * dt;
+        }
+        computeAccelerations();
+        for (int i = 0; i < count; i++) {
+            vx[i] += ax[i] * halfDt;
+            vy[i] += ay[i] * halfDt;
+            vz[i] += az[i] * halfDt;
+        }
+    }
+
+    public void computeAccelerations() {
+        if (mode == GravityMode.BRUTE_FORCE) {
+            ParallelRange.run(pool, count, GRAIN, this::bruteForce);
+        } else {
+            tree.build(x, y, z, mass, count);
+            ParallelRange.run(pool, count, GRAIN, this::barnesHut);
+        }
+        accelerationsValid = true;
+    }
+
+    private void bruteForce(int from, int to) {
+        for (int i = from; i < to; i++) {
+            double px = x[i], py = y[i], pz = z[i];
+            double sumX = 0, sumY = 0, sumZ = 0;
+            for (int j = 0; j < count; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = x[j] - px;
+                double dy = y[j] - py;
+                double dz = z[j] - pz;
+                double r2 = dx * dx + dy * dy + dz * dz + softening2;
+                double inverse = 1 / Math.sqrt(r2);
+                double factor = mass[j] * inverse * inverse * inverse;
+                sumX += dx * factor;
+                sumY += dy * factor;
+                sumZ += dz * factor;
+            }
+            ax[i] = sumX * gravitationalConstant;
+            ay[i] = sumY * gravitationalConstant;
+            az[i] = sumZ * gravitationalConstant;
+        }
+    }
+
+    private void barnesHut(int from, int to) {
+        int[] stack = BarnesHutTree.newStack();
+        for (int i = from; i < to; i++) {
+            tree.accelerate(i, x[i], y[i], z[i], openingAngle, softening2, gravitationalConstant, ax, ay, az, stack);
+        }
+    }
+
+    // Полная энергия системы, O(N²) - для проверки сохранения энергии интегратором
+    public double totalEnergy() {
+        double kinetic = 0;
+        double potential = 0;
+        for (int i = 0; i < count; i++) {
+            kinetic += 0.5 * mass[i] * (vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i]);
+            for (int j = i + 1; j < count; j++) {
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double dz = z[j] - z[i];
+                potential -= gravitationalConstant * mass[i] * mass[j] / Math.sqrt(dx * dx + dy * dy + dz * dz + softening2);
+            }
+        }
+        return kinetic + potential;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public GravityMode getMode() {
+        return mode;
+    }
+}
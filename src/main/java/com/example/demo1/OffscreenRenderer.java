@@ -0,0 +1,190 @@
+package com.example.demo1;
+
+import java.util.List;
+
+// Кадр для выгрузки: те же проекции и размеры тел, что в окне, но рисуются программно в массив пикселей.
+// JavaFX нужен только ради цветов тел из BodyPaints, тулкит и окно не запускаются.
+// pixelScale увеличивает все экранные размеры для кадров крупнее окна, например 4K.
+class OffscreenRenderer {
+    private static final int ASTEROID_COLOR = 0xFFFAF0E6; // Color.LINEN
+    private static final int RING_COLOR = 0xFFDEB887; // Color.BURLYWOOD
+    private static final double ASTEROID_RADIUS = 1.5;
+    // С этого радиуса колец в пикселях поверх профиля рисуются частицы, как в RingView
+    private static final double RING_PARTICLE_RADIUS = 256;
+
+    private final SolarSystem solarSystem;
+    private final AsteroidBelt asteroidBelt;
+    private final List<RingSystem> rings;
+    private final int planetsOffset;
+    private final int asteroidsOffset;
+    private final ViewMode viewMode;
+    private final Camera camera;
+    private final SchematicProjection projection;
+    // Индекс тела в центре кадра; -1 - Солнце, -2 - камера не следит
+    private final int followedIndex;
+    private final double width;
+    private final double height;
+    private final double pixelScale;
+    private final FrameRasterizer rasterizer;
+    private final int sunColor;
+    private final int[] colors;
+    private final int[] parentIndex;
+    private final int[] ringBodyIndex;
+    private final double[] worldX;
+    private final double[] worldY;
+    private final double[] screenX;
+    private final double[] screenY;
+    private final double[] radii;
+    private final float[] asteroidX;
+    private final float[] asteroidY;
+    private final float[] ringX;
+    private final float[] ringY;
+    // Небо рисуется один раз, кадр начинается с его копии
+    private final int[] background;
+
+    // followed - тело в центре кадра в настоящем масштабе или null; metresPerPixel <= 0 - исходный масштаб окна
+    public OffscreenRenderer(PhysicsEngine engine, SolarSystem solarSystem, AsteroidBelt asteroidBelt,
+                             List<RingSystem> rings, ViewMode viewMode, CelestialBody followed,
+                             int width, int height, double metresPerPixel, Starfield starfield) {
+        this.solarSystem = solarSystem;
+        this.asteroidBelt = asteroidBelt;
+        this.rings = rings;
+        this.planetsOffset = engine.offsetOf(solarSystem);
+        this.asteroidsOffset = engine.offsetOf(asteroidBelt);
+        this.viewMode = viewMode;
+        this.width = width;
+        this.height = height;
+        this.pixelScale = Math.min(width, height) / SchematicProjection.REFERENCE_SIZE;
+        this.rasterizer = new FrameRasterizer(width, height);
+        double homeMetresPerPixel = Main.REAL_VIEW_RADIUS / (Math.min(width, height) / 2.0);
+        this.camera = new Camera(width, height, metresPerPixel > 0 ? metresPerPixel : homeMetresPerPixel, engine);
+        if (followed != null) {
+            camera.follow(followed);
+        }
+        this.projection = SchematicProjection.forSystem(solarSystem, width, height, pixelScale);
+
+        int count = solarSystem.size();
+        int index = followed == null ? -2 : -1;
+        for (int i = 0; i < count; i++) {
+            if (solarSystem.getBody(i) == followed) {
+                index = i;
+            }
+        }
+        this.followedIndex = index;
+        this.sunColor = BodyPaints.argb(BodyPaints.flatColor(BodyPaints.forBody(solarSystem.getSun().getName())));
+        this.colors = new int[count];
+        this.parentIndex = new int[count];
+        for (int i = 0; i < count; i++) {
+            colors[i] = BodyPaints.argb(BodyPaints.flatColor(BodyPaints.forBody(solarSystem.getBody(i).getName())));
+            parentIndex[i] = solarSystem.getParentIndex(i);
+        }
+        this.ringBodyIndex = new int[rings.size()];
+        int maxParticles = 0;
+        for (int k = 0; k < rings.size(); k++) {
+            for (int i = 0; i < count; i++) {
+                if (solarSystem.getBody(i) == rings.get(k).getPlanet()) {
+                    ringBodyIndex[k] = i;
+                }
+            }
+            maxParticles = Math.max(maxParticles, rings.get(k).size());
+        }
+        this.worldX = new double[count];
+        this.worldY = new double[count];
+        this.screenX = new double[count];
+        this.screenY = new double[count];
+        this.radii = new double[count];
+        this.asteroidX = new float[asteroidBelt.size()];
+        this.asteroidY = new float[asteroidBelt.size()];
+        this.ringX = new float[maxParticles];
+        this.ringY = new float[maxParticles];
+
+        this.background = new int[width * height];
+        starfield.render(background, width, height, pixelScale);
+    }
+
+    // Рисует состояние среза, интерполированное на долю шага alpha
+    public void render(int[] pixels, StateSnapshot snapshot, double alpha) {
+        double originX = snapshot.originXAt(alpha);
+        double originY = snapshot.originYAt(alpha);
+        for (int i = 0, j = planetsOffset; i < worldX.length; i++, j++) {
+            worldX[i] = originX + snapshot.interpolateX(j, alpha);
+            worldY[i] = originY + snapshot.interpolateY(j, alpha);
+        }
+        for (int i = 0, j = asteroidsOffset; i < asteroidX.length; i++, j++) {
+            asteroidX[i] = snapshot.interpolateX(j, alpha);
+            asteroidY[i] = snapshot.interpolateY(j, alpha);
+        }
+
+        double sunX;
+        double sunY;
+        double sunRadius;
+        boolean asteroidPoints;
+        if (viewMode == ViewMode.REAL) {
+            if (followedIndex >= -1) {
+                camera.lookAt(followedIndex < 0 ? 0 : worldX[followedIndex], followedIndex < 0 ? 0 : worldY[followedIndex]);
+            }
+            camera.update(0);
+            double metresPerPixel = camera.getMetresPerPixel();
+            for (int i = 0; i < worldX.length; i++) {
+                CelestialBody body = solarSystem.getBody(i);
+                screenX[i] = camera.toScreenX(worldX[i]);
+                screenY[i] = camera.toScreenY(worldY[i]);
+                radii[i] = Math.max(body.getRadius() * 1000 / metresPerPixel,
+                        Main.displayRadius(body) * Main.REAL_MARKER_SCALE * pixelScale);
+            }
+            sunX = camera.toScreenX(0);
+            sunY = camera.toScreenY(0);
+            sunRadius = Math.max(solarSystem.getSun().getRadius() * 1000 / metresPerPixel,
+                    Main.SUN_RADIUS * Main.REAL_MARKER_SCALE * 0.5 * pixelScale);
+            camera.project(asteroidX, asteroidY, asteroidX.length, originX, originY);
+            asteroidPoints = metresPerPixel > Main.REAL_POINT_METRES_PER_PIXEL / pixelScale;
+        } else {
+            for (int i = 0; i < worldX.length; i++) {
+                int parent = parentIndex[i];
+                if (parent < 0) {
+                    screenX[i] = projection.toScreenX(worldX[i], worldY[i]);
+                    screenY[i] = projection.toScreenY(worldX[i], worldY[i]);
+                } else {
+                    screenX[i] = projection.satelliteX(screenX[parent], worldX[i] - worldX[parent]);
+                    screenY[i] = projection.satelliteY(screenY[parent], worldY[i] - worldY[parent]);
+                }
+                radii[i] = Main.displayRadius(solarSystem.getBody(i)) * pixelScale;
+            }
+            sunX = width / 2;
+            sunY = height / 2;
+            sunRadius = Main.SUN_RADIUS * pixelScale;
+            projection.project(asteroidX, asteroidY, 0, asteroidX.length, originX, originY);
+            asteroidPoints = true;
+        }
+
+        rasterizer.begin(pixels, background);
+        for (int i = 0; i < asteroidX.length; i++) {
+            if (asteroidPoints) {
+                rasterizer.plotPoint(asteroidX[i], asteroidY[i], ASTEROID_COLOR);
+            } else {
+                rasterizer.fillCircle(asteroidX[i], asteroidY[i], ASTEROID_RADIUS * pixelScale, ASTEROID_COLOR);
+            }
+        }
+        double time = snapshot.timeAt(alpha);
+        for (int k = 0; k < rings.size(); k++) {
+            int i = ringBodyIndex[k];
+            RingSystem ring = rings.get(k);
+            double pixelsPerMetre = radii[i] / (solarSystem.getBody(i).getRadius() * 1000);
+            rasterizer.ring(ring.getProfile(), screenX[i], screenY[i], pixelsPerMetre, RING_COLOR);
+            if (ring.getProfile().getOuterRadius() * pixelsPerMetre >= RING_PARTICLE_RADIUS) {
+                ring.positions(0, ring.size(), time, screenX[i], screenY[i], pixelsPerMetre, ringX, ringY, 0);
+                for (int p = 0; p < ring.size(); p++) {
+                    rasterizer.plotPoint(ringX[p], ringY[p], RING_COLOR);
+                }
+            }
+        }
+        rasterizer.fillCircle(sunX, sunY, sunRadius, sunColor);
+        // Спутники под планетами, как в окне
+        for (int i = solarSystem.getPlanets().size(); i < radii.length; i++) {
+            rasterizer.fillCircle(screenX[i], screenY[i], radii[i], colors[i]);
+        }
+        for (int i = 0; i < solarSystem.getPlanets().size(); i++) {
+            rasterizer.fillCircle(screenX[i], screenY[i], radii[i], colors[i]);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo1;
+
+// Кеплерова орбита, заданная элементами. Все величины, не зависящие от времени,
+// считаются один раз в конструкторе, положение в любой момент t вычисляется напрямую.
+class Orbit {
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private final double semiMajorAxis;
+    private final double eccentricity;
+    private final double period;
+    private final double meanAnomalyAtEpoch;
+    private final double argumentOfPeriapsis;
+    private final double semiMinorAxis;
+    private final double meanMotion;
+    private final double periapsisCos;
+    private final double periapsisSin;
+
+    public Orbit(double semiMajorAxis, double eccentricity, double period) {
+        this(semiMajorAxis, eccentricity, period, 0, 0);
+    }
+
+    public Orbit(double semiMajorAxis, double eccentricity, double period,
+                 double meanAnomalyAtEpoch, double argumentOfPeriapsis) {
+        this.semiMajorAxis = semiMajorAxis;
+        this.eccentricity = eccentricity;
+        this.period = period;
+        this.meanAnomalyAtEpoch = meanAnomalyAtEpoch;
+        this.argumentOfPeriapsis = argumentOfPeriapsis;
+        this.semiMinorAxis = semiMajorAxis * Math.sqrt(1 - eccentricity * eccentricity);
+        this.meanMotion = TWO_PI / period;
+        this.periapsisCos = Math.cos(argumentOfPeriapsis);
+        this.periapsisSin = Math.sin(argumentOfPeriapsis);
+    }
+
+    // Положение относительно центрального тела (в фокусе эллипса) в момент time; out[0] = x, out[1] = y
+    public void positionAt(double time, double[] out) {
+        out[0] = 0;
+        out[1] = 0;
+        addPositionAt(time, out);
+    }
+
+    // То же, но прибавляется к out: так положение складывается по цепочке родителей без временных массивов
+    public void addPositionAt(double time, double[] out) {
+        double meanAnomaly = meanAnomalyAtEpoch + meanMotion * time;
+        double eccentricAnomaly = KeplerSolver.eccentricAnomaly(meanAnomaly, eccentricity);
+        double x = semiMajorAxis * (Math.cos(eccentricAnomaly) - eccentricity);
+        double y = semiMinorAxis * Math.sin(eccentricAnomaly);
+        out[0] += x * periapsisCos - y * periapsisSin;
+        out[1] += x * periapsisSin + y * periapsisCos;
+    }
+
+    public double getSemiMajorAxis() {
+        return semiMajorAxis;
+    }
+
+    public double getEccentricity() {
+        return eccentricity;
+    }
+
+    public double getPeriod() {
+        return period;
+    }
+
+    public double getMeanAnomalyAtEpoch() {
+        return meanAnomalyAtEpoch;
+    }
+
+    public double getArgumentOfPeriapsis() {
+        return argumentOfPeriapsis;
+    }
+}
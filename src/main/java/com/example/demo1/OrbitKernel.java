@@ -0,0 +1,33 @@
+package com.example.demo1;
+
+// Шаг и положения малых тел над массивами AsteroidState сразу для нескольких тел за инструкцию.
+// Реализация на jdk.incubator.vector подгружается, только если модуль подключён
+// (--add-modules jdk.incubator.vector); иначе load() возвращает null и работают скалярные циклы AsteroidState.
+interface OrbitKernel {
+    void step(double[] angle, float[] angularVelocity, int from, int to, double dt);
+
+    void positions(double[] radius, double[] angle, float[] eccentricity, float[] minorAxisFactor,
+                   float[] periapsisCos, float[] periapsisSin, int from, int to,
+                   double centerX, double centerY, float[] x, float[] y, int offset);
+
+    // Например "vector, 4 x double"
+    String describe();
+
+    static OrbitKernel load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            OrbitKernel kernel = (OrbitKernel) Class.forName("com.example.demo1.VectorOrbitKernel")
+                    .getDeclaredConstructor().newInstance();
+            return kernel.isUseful() ? kernel : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    // false - на этой машине векторов нет и ядро было бы медленнее скалярного
+    default boolean isUseful() {
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo1;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Параллельный обход диапазона индексов [0, size) кусками не меньше grain
+final class ParallelRange {
+    interface RangeAction {
+        void run(int from, int to);
+    }
+
+    private ParallelRange() {
+    }
+
+    static void run(ForkJoinPool pool, int size, int grain, RangeAction action) {
+        if (size <= grain || pool.getParallelism() == 1) {
+            action.run(0, size);
+            return;
+        }
+        pool.invoke(new RangeTask(0, size, grain, action));
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeAction action;
+
+        RangeTask(int from, int to, int grain, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                action.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, action), new RangeTask(mid, to, grain, action));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.demo1;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.LockSupport;
+
+// Шагает все хранилища тел параллельными кусками в собственном пуле потоков
+// и публикует готовые срезы положений через SnapshotExchange
+class PhysicsEngine implements SnapshotSource {
+    private static final int CHUNK_SIZE = 16384;
+    private static final long MAX_PARK_NANOS = 5_000_000;
+    private static final int HEADLESS_BATCH = 1024;
+
+    private final BodyStore[] stores;
+    private final int[] offsets;
+    private final int[] chunkStore;
+    private final int[] chunkFrom;
+    private final int[] chunkTo;
+    private final ForkJoinPool pool;
+    private final SnapshotExchange exchange;
+    private final SimulationClock clock;
+    private volatile boolean running;
+    private Thread thread;
+    private long tick;
+    private volatile LatencyHistogram stepHistogram;
+    private volatile CollisionDetector collisionDetector;
+    private volatile TrailHistory trailHistory;
+    private volatile FloatingOrigin origin = FloatingOrigin.fixed(0, 0);
+    private final double[] originAt = new double[2];
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    public PhysicsEngine(List<BodyStore> stores, int threads, SimulationClock clock) {
+        this.stores = stores.toArray(new BodyStore[0]);
+        this.offsets = new int[this.stores.length];
+        this.clock = clock;
+
+        int bodyCount = 0;
+        int chunkCount = 0;
+        for (int s = 0; s < this.stores.length; s++) {
+            offsets[s] = bodyCount;
+            int size = this.stores[s].size();
+            bodyCount += size;
+            chunkCount += this.stores[s].isSplittable() ? (size + CHUNK_SIZE - 1) / CHUNK_SIZE : Math.min(size, 1);
+        }
+
+        chunkStore = new int[chunkCount];
+        chunkFrom = new int[chunkCount];
+        chunkTo = new int[chunkCount];
+        int c = 0;
+        for (int s = 0; s < this.stores.length; s++) {
+            int size = this.stores[s].size();
+            int step = this.stores[s].isSplittable() ? CHUNK_SIZE : Math.max(size, 1);
+            for (int from = 0; from < size; from += step) {
+                chunkStore[c] = s;
+                chunkFrom[c] = from;
+                chunkTo[c] = Math.min(from + step, size);
+                c++;
+            }
+        }
+
+        this.pool = new ForkJoinPool(threads);
+        for (BodyStore store : this.stores) {
+            store.setPool(pool);
+        }
+        this.exchange = new SnapshotExchange(bodyCount);
+        for (StateSnapshot snapshot : exchange.buffers()) {
+            writeAll(snapshot);
+        }
+    }
+
+    @Override
+    public int offsetOf(BodyStore store) {
+        for (int s = 0; s < stores.length; s++) {
+            if (stores[s] == store) {
+                return offsets[s];
+            }
+        }
+        throw new IllegalArgumentException("Store is not registered in the engine");
+    }
+
+    // Делает steps шагов фиксированной длины и публикует два последних состояния.
+    // Тела в разных кусках независимы, поэтому каждый кусок проходит все шаги подряд, пока он в кэше.
+    public void advance(int steps) {
+        if (steps <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        StateSnapshot snapshot = exchange.back();
+        // Часы уже учли эти шаги: начало берётся на моменты обоих публикуемых состояний
+        FloatingOrigin currentOrigin = origin;
+        double time = clock.getSimulationTime();
+        snapshot.simulationTime = time;
+        snapshot.stepSize = clock.getFixedStep();
+        currentOrigin.positionAt(time - snapshot.stepSize, originAt);
+        snapshot.previousOriginX = originAt[0];
+        snapshot.previousOriginY = originAt[1];
+        currentOrigin.positionAt(time, originAt);
+        snapshot.originX = originAt[0];
+        snapshot.originY = originAt[1];
+        pool.invoke(new ChunkTask(0, chunkStore.length, clock.getFixedStep(), steps, snapshot));
+        tick += steps;
+        snapshot.tick = tick;
+        snapshot.residual = clock.getAccumulator();
+        snapshot.timeScale = clock.isPaused() ? 0 : clock.getTimeScale();
+        if (snapshot.grid != null) {
+            snapshot.grid.build(snapshot, pool);
+        }
+        snapshot.publishedNanos = System.nanoTime();
+        exchange.publish();
+        // Поиск сближений идёт после публикации, кадр его не ждёт; время входит в длительность шага
+        CollisionDetector detector = collisionDetector;
+        if (detector != null) {
+            detector.detect(pool, time, clock.getFixedStep(), steps);
+        }
+        TrailHistory trails = trailHistory;
+        if (trails != null) {
+            trails.record(clock.getStepCount(), time, clock.getFixedStep(), steps);
+        }
+        LatencyHistogram histogram = stepHistogram;
+        if (histogram != null) {
+            histogram.record(snapshot.publishedNanos - start);
+        }
+    }
+
+    @Override
+    public void setOrigin(FloatingOrigin origin) {
+        this.origin = origin;
+    }
+
+    @Override
+    public void indexBodies(int from, int count) {
+        exchange.index(from, count, pool);
+    }
+
+    // Проверять сближения на каждом шаге; null - не проверять
+    public void setCollisionDetector(CollisionDetector collisionDetector) {
+        this.collisionDetector = collisionDetector;
+    }
+
+    // Записывать точки следов после каждого продвижения; null - не записывать
+    public void setTrailHistory(TrailHistory trailHistory) {
+        this.trailHistory = trailHistory;
+    }
+
+    // Длительность каждого продвижения физики, включая публикацию среза
+    public void setStepHistogram(LatencyHistogram stepHistogram) {
+        this.stepHistogram = stepHistogram;
+    }
+
+    // Действие в момент, когда хранилища не шагаются (например, снимок состояния):
+    // в потоке физики перед следующим продвижением, а без потока - сразу
+    public void runBetweenSteps(Runnable task) {
+        if (thread == null) {
+            task.run();
+            return;
+        }
+        tasks.add(task);
+        LockSupport.unpark(thread);
+    }
+
+    // Пакетный режим: шаги подряд без ожидания реального времени
+    public void runSteps(long steps) {
+        while (steps > 0) {
+            int batch = (int) Math.min(steps, HEADLESS_BATCH);
+            clock.advanceSteps(batch);
+            advance(batch);
+            steps -= batch;
+        }
+    }
+
+    // Запуск в отдельном потоке: шаги делаются по мере того, как часы накапливают время
+    public void start() {
+        running = true;
+        thread = new Thread(() -> {
+            while (running) {
+                for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                    task.run();
+                }
+                advance(clock.advance(System.nanoTime()));
+                long wait = Math.min(clock.nanosUntilNextStep(), MAX_PARK_NANOS);
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }, "physics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Override
+    public StateSnapshot latest() {
+        return exchange.latest();
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    // Пул шагов физики; в нём же можно распараллелить работу кадра, пока шаг не идёт
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    private void writeAll(StateSnapshot snapshot) {
+        for (int s = 0; s < stores.length; s++) {
+            // Нулевой шаг только пересчитывает положения из начального состояния
+            stores[s].step(0, stores[s].size(), 0);
+            stores[s].writePositions(0, stores[s].size(), 0, 0, snapshot.previousX, snapshot.previousY, offsets[s]);
+            stores[s].writePositions(0, stores[s].size(), 0, 0, snapshot.x, snapshot.y, offsets[s]);
+        }
+    }
+
+    private void stepChunk(int c, double dt, int steps, StateSnapshot snapshot) {
+        BodyStore store = stores[chunkStore[c]];
+        int from = chunkFrom[c];
+        int to = chunkTo[c];
+        int offset = offsets[chunkStore[c]] + from;
+        for (int k = 1; k < steps; k++) {
+            store.step(from, to, dt);
+        }
+        store.writePositions(from, to, snapshot.previousOriginX, snapshot.previousOriginY, snapshot.previousX, snapshot.previousY, offset);
+        store.step(from, to, dt);
+        store.writePositions(from, to, snapshot.originX, snapshot.originY, snapshot.x, snapshot.y, offset);
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final double dt;
+        private final int steps;
+        private final StateSnapshot snapshot;
+
+        ChunkTask(int lo, int hi, double dt, int steps, StateSnapshot snapshot) {
+            this.lo = lo;
+            this.hi = hi;
+            this.dt = dt;
+            this.steps = steps;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= 1) {
+                if (hi > lo) {
+                    stepChunk(lo, dt, steps, snapshot);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ChunkTask(lo, mid, dt, steps, snapshot), new ChunkTask(mid, hi, dt, steps, snapshot));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo1;
+
+class Planet extends CelestialBody  {
+    public Planet(String name, double mass, double radius, Orbit orbit) {
+        super(name, mass, radius, orbit);
+    }
+
+    public Orbit getOrbit() {
+        return orbit;
+    }
+
+    public double getMass(){
+        return mass;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    // Период обращения в секундах
+    public double getOrbitalPeriod() {
+        return orbit.getPeriod();
+    }
+
+
+    public String getName() {
+        return name;
+    }
+}
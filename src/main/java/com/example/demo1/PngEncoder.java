@@ -0,0 +1,103 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// PNG без сторонних библиотек: RGB по 8 бит, фильтр Sub на каждой строке и один блок IDAT.
+// Почти весь кадр - чёрное небо, такой фильтр сводит его к нулям, и Deflater на быстром уровне сжимает хорошо.
+// Буферы переиспользуются между кадрами, поэтому экземпляр принадлежит одному потоку.
+class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+    // Сигнатура, IHDR целиком, длина и тип IDAT
+    private static final int DATA_OFFSET = 8 + 25 + 8;
+    // CRC блока IDAT и блок IEND
+    private static final int TRAILER = 4 + 12;
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private byte[] scanlines = new byte[0];
+    private int length;
+
+    public PngEncoder(int level) {
+        this.deflater = new Deflater(level);
+    }
+
+    // Кодирует ARGB-кадр в target с нуля; если места не хватает, возвращается увеличенный массив.
+    // Длина результата - getLength()
+    public byte[] encode(int[] pixels, int width, int height, byte[] target) {
+        int stride = 1 + width * 3;
+        int rawLength = stride * height;
+        if (scanlines.length < rawLength) {
+            scanlines = new byte[rawLength];
+        }
+        byte[] raw = scanlines;
+        for (int row = 0, p = 0, o = 0; row < height; row++) {
+            raw[o++] = 1;
+            int left = 0;
+            for (int column = 0; column < width; column++, p++) {
+                int color = pixels[p];
+                raw[o++] = (byte) ((color >>> 16) - (left >>> 16));
+                raw[o++] = (byte) ((color >>> 8) - (left >>> 8));
+                raw[o++] = (byte) (color - left);
+                left = color;
+            }
+        }
+
+        byte[] out = target.length < DATA_OFFSET + TRAILER + 1024 ? new byte[DATA_OFFSET + TRAILER + rawLength / 8] : target;
+        System.arraycopy(SIGNATURE, 0, out, 0, SIGNATURE.length);
+        writeInt(out, 8, 13);
+        writeType(out, 12, "IHDR");
+        writeInt(out, 16, width);
+        writeInt(out, 20, height);
+        out[24] = 8;
+        out[25] = 2;
+        out[26] = 0;
+        out[27] = 0;
+        out[28] = 0;
+        writeInt(out, 29, checksum(out, 12, 17));
+        writeType(out, 37, "IDAT");
+
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int position = DATA_OFFSET;
+        while (!deflater.finished()) {
+            if (out.length - TRAILER - position < 1024) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            position += deflater.deflate(out, position, out.length - TRAILER - position);
+        }
+        writeInt(out, 33, position - DATA_OFFSET);
+        writeInt(out, position, checksum(out, 37, position - 37));
+        position += 4;
+        writeInt(out, position, 0);
+        writeType(out, position + 4, "IEND");
+        writeInt(out, position + 8, checksum(out, position + 4, 4));
+        length = position + 12;
+        return out;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    private int checksum(byte[] data, int from, int count) {
+        crc.reset();
+        crc.update(data, from, count);
+        return (int) crc.getValue();
+    }
+
+    private static void writeType(byte[] data, int at, String type) {
+        for (int i = 0; i < 4; i++) {
+            data[at + i] = (byte) type.charAt(i);
+        }
+    }
+
+    private static void writeInt(byte[] data, int at, int value) {
+        data[at] = (byte) (value >>> 24);
+        data[at + 1] = (byte) (value >>> 16);
+        data[at + 2] = (byte) (value >>> 8);
+        data[at + 3] = (byte) value;
+    }
+}
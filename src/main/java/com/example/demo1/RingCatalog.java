@@ -0,0 +1,73 @@
+package com.example.demo1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Профили колец из CSV: planet,inner_km,outer_km,density, полосы одного тела идут подряд
+final class RingCatalog {
+    private static final int COLUMNS = 4;
+
+    private RingCatalog() {
+    }
+
+    static Map<String, RingProfile> loadDefault() {
+        try (InputStream in = RingCatalog.class.getResourceAsStream("rings.csv")) {
+            if (in == null) {
+                throw new IllegalStateException("rings.csv is missing from resources");
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read built-in ring catalog", e);
+        }
+    }
+
+    static Map<String, RingProfile> load(InputStream in) throws IOException {
+        Map<String, List<double[]>> bands = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("planet,")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length < COLUMNS) {
+                throw new IOException("Line " + lineNumber + ": expected " + COLUMNS + " columns, got " + fields.length);
+            }
+            try {
+                bands.computeIfAbsent(fields[0].trim(), name -> new ArrayList<>()).add(new double[]{
+                        Double.parseDouble(fields[1].trim()) * 1000,
+                        Double.parseDouble(fields[2].trim()) * 1000,
+                        Double.parseDouble(fields[3].trim())});
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        Map<String, RingProfile> profiles = new LinkedHashMap<>();
+        for (Map.Entry<String, List<double[]>> entry : bands.entrySet()) {
+            List<double[]> list = entry.getValue();
+            double[] inner = new double[list.size()];
+            double[] outer = new double[list.size()];
+            double[] density = new double[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                inner[i] = list.get(i)[0];
+                outer[i] = list.get(i)[1];
+                density[i] = list.get(i)[2];
+            }
+            try {
+                profiles.put(entry.getKey(), new RingProfile(inner, outer, density));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(entry.getKey() + ": " + e.getMessage(), e);
+            }
+        }
+        return profiles;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Радиальный профиль плотности колец: полосы [inner, outer) в метрах с постоянной поверхностной плотностью.
+// Щели - полосы с нулевой плотностью или промежутки между полосами.
+class RingProfile {
+    private final double[] inner;
+    private final double[] outer;
+    private final double[] density;
+    // Накопленная доля частиц до конца каждой полосы: плотность, умноженная на площадь кольца
+    private final double[] cumulative;
+
+    public RingProfile(double[] inner, double[] outer, double[] density) {
+        if (inner.length == 0 || inner.length != outer.length || inner.length != density.length) {
+            throw new IllegalArgumentException("Ring profile needs matching non-empty band arrays");
+        }
+        this.inner = inner.clone();
+        this.outer = outer.clone();
+        this.density = density.clone();
+        this.cumulative = new double[inner.length];
+        double total = 0;
+        for (int i = 0; i < inner.length; i++) {
+            if (outer[i] <= inner[i] || density[i] < 0 || (i > 0 && inner[i] < outer[i - 1])) {
+                throw new IllegalArgumentException("Band " + i + " is empty, negative or overlaps the previous one");
+            }
+            total += density[i] * (outer[i] * outer[i] - inner[i] * inner[i]);
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Ring profile has no particles");
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    // Радиус по равномерному u из [0, 1): сначала полоса по накопленной доле, внутри неё - равномерно по площади
+    public double sampleRadius(double u) {
+        int band = Arrays.binarySearch(cumulative, u);
+        band = band >= 0 ? band + 1 : -band - 1;
+        band = Math.min(band, cumulative.length - 1);
+        while (density[band] == 0) {
+            band++;
+        }
+        double start = band == 0 ? 0 : cumulative[band - 1];
+        double fraction = (u - start) / (cumulative[band] - start);
+        double r2 = inner[band] * inner[band];
+        return Math.sqrt(r2 + fraction * (outer[band] * outer[band] - r2));
+    }
+
+    // Средняя плотность на отрезке радиусов [from, to): узкие кольца дают долю своей ширины, а не пропадают
+    public double averageDensity(double from, double to) {
+        double sum = 0;
+        for (int i = 0; i < inner.length; i++) {
+            double overlap = Math.min(outer[i], to) - Math.max(inner[i], from);
+            if (overlap > 0) {
+                sum += overlap * density[i];
+            }
+        }
+        return sum / (to - from);
+    }
+
+    void save(CheckpointWriter out) throws IOException {
+        out.putInt(inner.length);
+        out.putDoubles(inner, inner.length);
+        out.putDoubles(outer, outer.length);
+        out.putDoubles(density, density.length);
+    }
+
+    static RingProfile load(ByteBuffer in) throws IOException {
+        int bands = Checkpoint.getCount(in, 3 * Double.BYTES);
+        double[] inner = new double[bands];
+        double[] outer = new double[bands];
+        double[] density = new double[bands];
+        Checkpoint.getDoubles(in, inner, bands);
+        Checkpoint.getDoubles(in, outer, bands);
+        Checkpoint.getDoubles(in, density, bands);
+        try {
+            return new RingProfile(inner, outer, density);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt ring profile: " + e.getMessage(), e);
+        }
+    }
+
+    public double getMaxDensity() {
+        return Arrays.stream(density).max().orElse(0);
+    }
+
+    public double getInnerRadius() {
+        return inner[0];
+    }
+
+    public double getOuterRadius() {
+        return outer[outer.length - 1];
+    }
+}
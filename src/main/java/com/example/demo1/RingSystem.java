@@ -0,0 +1,96 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+// Кольца планеты: частицы на круговых орбитах вокруг неё, радиусы разыгрываются по профилю плотности.
+// Периоды частиц - часы, короче шага физики, поэтому положения считаются в замкнутом виде от времени,
+// а не накоплением угла: так их можно получить на любой момент, в том числе на время кадра.
+class RingSystem {
+    private final CelestialBody planet;
+    private final RingProfile profile;
+    private final float[] radius;
+    private final float[] phase;
+    private final float[] meanMotion;
+
+    public RingSystem(CelestialBody planet, RingProfile profile, int count, long seed) {
+        this.planet = planet;
+        this.profile = profile;
+        this.radius = new float[count];
+        this.phase = new float[count];
+        this.meanMotion = new float[count];
+        double gravitationalParameter = NBodySystem.GRAVITATIONAL_CONSTANT * planet.getMass();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            double r = profile.sampleRadius(random.nextDouble());
+            radius[i] = (float) r;
+            phase[i] = (float) (random.nextDouble() * 2 * Math.PI);
+            meanMotion[i] = (float) AsteroidState.meanMotion(gravitationalParameter, r);
+        }
+    }
+
+    private RingSystem(CelestialBody planet, RingProfile profile, float[] radius, float[] phase, float[] meanMotion) {
+        this.planet = planet;
+        this.profile = profile;
+        this.radius = radius;
+        this.phase = phase;
+        this.meanMotion = meanMotion;
+    }
+
+    // Планету снимок хранит индексом, её пишет и разрешает Checkpoint
+    void save(CheckpointWriter out) throws IOException {
+        profile.save(out);
+        out.putInt(radius.length);
+        out.putFloats(radius, radius.length);
+        out.putFloats(phase, phase.length);
+        out.putFloats(meanMotion, meanMotion.length);
+    }
+
+    static RingSystem load(ByteBuffer in, CelestialBody planet) throws IOException {
+        RingProfile profile = RingProfile.load(in);
+        int count = Checkpoint.getCount(in, 3 * Float.BYTES);
+        float[] radius = new float[count];
+        float[] phase = new float[count];
+        float[] meanMotion = new float[count];
+        Checkpoint.getFloats(in, radius, count);
+        Checkpoint.getFloats(in, phase, count);
+        Checkpoint.getFloats(in, meanMotion, count);
+        return new RingSystem(planet, profile, radius, phase, meanMotion);
+    }
+
+    public int size() {
+        return radius.length;
+    }
+
+    // Положения на момент time: центр плюс орбита, умноженная на scale (метры или пиксели на метр).
+    // Фаза и время неотрицательны, поэтому floor - простое приведение к long;
+    // sin и cos читаются из одной ячейки таблицы со сдвигом на четверть периода
+    public void positions(int from, int to, double time, double centerX, double centerY, double scale,
+                          float[] x, float[] y, int offset) {
+        float[] radius = this.radius;
+        float[] phase = this.phase;
+        float[] meanMotion = this.meanMotion;
+        float[] table = FastTrig.SIN;
+        for (int i = from, j = offset; i < to; i++, j++) {
+            double index = (phase[i] + meanMotion[i] * time) * FastTrig.INDEX_SCALE;
+            long whole = (long) index;
+            int k = (int) (whole & FastTrig.MASK);
+            double fraction = index - whole;
+            int c = k + FastTrig.QUARTER;
+            double sin = table[k] + (table[k + 1] - table[k]) * fraction;
+            double cos = table[c] + (table[c + 1] - table[c]) * fraction;
+            double r = radius[i] * scale;
+            x[j] = (float) (centerX + r * cos);
+            y[j] = (float) (centerY + r * sin);
+        }
+    }
+
+    public CelestialBody getPlanet() {
+        return planet;
+    }
+
+    public RingProfile getProfile() {
+        return profile;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo1;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Отрисовка колец одним проходом. Издали - текстура радиального профиля, посчитанная один раз:
+// кадр стоит одно перемещение ImageView при любом числе частиц. Вблизи, когда текстура начинает
+// расплываться, поверх неё сами частицы точками попадают в пиксельный слой.
+class RingView {
+    private static final int TEXTURE_SIZE = 512;
+    private static final int RING_COLOR = 0xFFDEB887; // Color.BURLYWOOD
+    private static final double MAX_ALPHA = 200;
+    // Меньше этого радиуса в пикселях кольца не рисуются
+    private static final double MIN_RADIUS = 1.5;
+    // С этого радиуса в пикселях рисуются отдельные частицы
+    private static final double PARTICLE_RADIUS = TEXTURE_SIZE / 2.0;
+    // Частиц на кусок при параллельном расчёте положений
+    private static final int GRAIN = 8192;
+
+    private final RingSystem rings;
+    private final ImageView texture;
+    private final AsteroidCanvasLayer particles;
+    private final float[] screenX;
+    private final float[] screenY;
+    private boolean textureShown = true;
+    private boolean particlesShown = true;
+
+    public RingView(RingSystem rings, double screenWidth, double screenHeight) {
+        this.rings = rings;
+        this.texture = new ImageView(createTexture(rings.getProfile()));
+        this.texture.setSmooth(true);
+        this.texture.setMouseTransparent(true);
+        this.particles = new AsteroidCanvasLayer((int) Math.ceil(screenWidth), (int) Math.ceil(screenHeight), RING_COLOR);
+        this.screenX = new float[rings.size()];
+        this.screenY = new float[rings.size()];
+        showTexture(false);
+        showParticles(false);
+    }
+
+    // Пиксель получает среднюю плотность кольца на своём отрезке радиусов
+    private static WritableImage createTexture(RingProfile profile) {
+        double metresPerTexel = profile.getOuterRadius() / (TEXTURE_SIZE / 2.0);
+        double maxDensity = profile.getMaxDensity();
+        int[] pixels = new int[TEXTURE_SIZE * TEXTURE_SIZE];
+        double center = TEXTURE_SIZE / 2.0;
+        for (int row = 0; row < TEXTURE_SIZE; row++) {
+            for (int column = 0; column < TEXTURE_SIZE; column++) {
+                double distance = Math.hypot(column + 0.5 - center, row + 0.5 - center);
+                double density = profile.averageDensity((distance - 0.5) * metresPerTexel, (distance + 0.5) * metresPerTexel);
+                int alpha = (int) Math.round(density / maxDensity * MAX_ALPHA);
+                pixels[row * TEXTURE_SIZE + column] = alpha << 24
+                        | ((RING_COLOR >>> 16 & 0xFF) * alpha / 255) << 16
+                        | ((RING_COLOR >>> 8 & 0xFF) * alpha / 255) << 8
+                        | (RING_COLOR & 0xFF) * alpha / 255;
+            }
+        }
+        WritableImage image = new WritableImage(TEXTURE_SIZE, TEXTURE_SIZE);
+        image.getPixelWriter().setPixels(0, 0, TEXTURE_SIZE, TEXTURE_SIZE, PixelFormat.getIntArgbPreInstance(),
+                pixels, 0, TEXTURE_SIZE);
+        return image;
+    }
+
+    public List<Node> getNodes() {
+        return List.of(texture, particles.getView());
+    }
+
+    public RingSystem getRings() {
+        return rings;
+    }
+
+    // Вызывается только из потока JavaFX: (x, y) - центр планеты на экране, time - модельное время кадра.
+    // Частицы обходят планету за часы, быстрее шага физики, поэтому берутся не из среза, а на время кадра.
+    // Положения считаются кусками в pool, точки в слой ставятся одним потоком
+    public void render(ForkJoinPool pool, Viewport viewport, double time, double x, double y, double pixelsPerMetre) {
+        double outer = rings.getProfile().getOuterRadius() * pixelsPerMetre;
+        boolean visible = outer >= MIN_RADIUS && viewport.contains(x, y, outer);
+        showTexture(visible);
+        boolean close = visible && outer >= PARTICLE_RADIUS;
+        showParticles(close);
+        if (!visible) {
+            return;
+        }
+        texture.setX(x - outer);
+        texture.setY(y - outer);
+        texture.setFitWidth(2 * outer);
+        texture.setFitHeight(2 * outer);
+        if (close) {
+            float[] sx = screenX;
+            float[] sy = screenY;
+            ParallelRange.run(pool, sx.length, GRAIN,
+                    (from, to) -> rings.positions(from, to, time, x, y, pixelsPerMetre, sx, sy, from));
+            particles.clear();
+            for (int i = 0; i < sx.length; i++) {
+                particles.plotPoint(sx[i], sy[i]);
+            }
+            particles.flush();
+        }
+    }
+
+    private void showTexture(boolean shown) {
+        if (shown != textureShown) {
+            texture.setVisible(shown);
+            textureShown = shown;
+        }
+    }
+
+    private void showParticles(boolean shown) {
+        if (shown != particlesShown) {
+            particles.getView().setVisible(shown);
+            particlesShown = shown;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo1;
+
+// Схема вместо масштабного чертежа: расстояние от Солнца переводится в пиксели логарифмически,
+// чтобы на одном экране помещались и Меркурий, и Плутон. Внутри первой опорной орбиты шкала
+// линейная. Спутники рисуются от экранного положения родителя в собственном линейном масштабе.
+// Для больших массивов множитель радиуса берётся из таблицы по расстоянию.
+class SchematicProjection {
+    private static final int TABLE_SIZE = 8192;
+    private static final double TABLE_RANGE = 1.5;
+    // Орбита Луны занимает 20 пикселей от Земли
+    private static final double SATELLITE_SCALE = 20 / 3.844e8;
+    // Окно, под которое подобраны размеры схемы: при pixelScale = 1 его меньшая сторона
+    static final double REFERENCE_SIZE = 960;
+
+    private final double centerX;
+    private final double centerY;
+    private final double innerDistance;
+    private final double innerPixels;
+    private final double pixelsPerLog;
+    private final double satelliteScale;
+    private final double tableLimit;
+    private final double tableScale;
+    private final float[] factorTable = new float[TABLE_SIZE + 2];
+
+    // innerDistance и outerDistance в метрах переходят в innerPixels и outerPixels от центра,
+    // satelliteScale - пикселей на метр удаления спутника от родителя
+    public SchematicProjection(double centerX, double centerY, double innerDistance, double innerPixels,
+                               double outerDistance, double outerPixels, double satelliteScale) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.innerDistance = innerDistance;
+        this.innerPixels = innerPixels;
+        this.pixelsPerLog = (outerPixels - innerPixels) / Math.log(outerDistance / innerDistance);
+        this.satelliteScale = satelliteScale;
+        this.tableLimit = outerDistance * TABLE_RANGE;
+        this.tableScale = TABLE_SIZE / tableLimit;
+        for (int k = 0; k < factorTable.length; k++) {
+            factorTable[k] = (float) factor(k / tableScale);
+        }
+    }
+
+    // Ближайшая и дальняя планеты задают опорные радиусы схемы; pixelScale увеличивает спутниковый масштаб
+    // для кадров крупнее окна
+    static SchematicProjection forSystem(SolarSystem solarSystem, double width, double height, double pixelScale) {
+        double innerOrbit = Double.MAX_VALUE;
+        double outerOrbit = 0;
+        for (Planet planet : solarSystem.getPlanets()) {
+            innerOrbit = Math.min(innerOrbit, planet.getOrbit().getSemiMajorAxis());
+            outerOrbit = Math.max(outerOrbit, planet.getOrbit().getSemiMajorAxis());
+        }
+        double baseRadius = Math.min(width, height) * 0.085;
+        return new SchematicProjection(width / 2, height / 2, innerOrbit, baseRadius * 1.3,
+                Math.max(outerOrbit, innerOrbit * 2), baseRadius * 5.5, SATELLITE_SCALE * pixelScale);
+    }
+
+    // Расстояние на экране для расстояния r метров от Солнца
+    public double screenDistance(double r) {
+        if (r < innerDistance) {
+            return r * innerPixels / innerDistance;
+        }
+        return innerPixels + Math.log(r / innerDistance) * pixelsPerLog;
+    }
+
+    // Во сколько раз умножить мировые координаты, чтобы получить экранное смещение от центра
+    private double factor(double r) {
+        return r < innerDistance ? innerPixels / innerDistance : screenDistance(r) / r;
+    }
+
+    // Рамка на схеме (без Viewport) для рамки в метрах от Солнца, в out: minX, minY, maxX, maxY.
+    // Множитель монотонен по расстоянию, поэтому лежит между множителями ближней и дальней точек рамки
+    public void bounds(double minX, double minY, double maxX, double maxY, double[] out) {
+        double nearX = Math.max(minX, Math.min(0, maxX));
+        double nearY = Math.max(minY, Math.min(0, maxY));
+        double farX = Math.max(Math.abs(minX), Math.abs(maxX));
+        double farY = Math.max(Math.abs(minY), Math.abs(maxY));
+        double near = factor(Math.sqrt(nearX * nearX + nearY * nearY));
+        double far = factor(Math.sqrt(farX * farX + farY * farY));
+        double low = Math.min(near, far);
+        double high = Math.max(near, far);
+        out[0] = centerX + Math.min(minX * low, minX * high);
+        out[1] = centerY + Math.min(minY * low, minY * high);
+        out[2] = centerX + Math.max(maxX * low, maxX * high);
+        out[3] = centerY + Math.max(maxY * low, maxY * high);
+    }
+
+    public double toScreenX(double x, double y) {
+        return centerX + x * factor(Math.sqrt(x * x + y * y));
+    }
+
+    public double toScreenY(double x, double y) {
+        return centerY + y * factor(Math.sqrt(x * x + y * y));
+    }
+
+    public double satelliteX(double parentScreenX, double dx) {
+        return parentScreenX + dx * satelliteScale;
+    }
+
+    public double satelliteY(double parentScreenY, double dy) {
+        return parentScreenY + dy * satelliteScale;
+    }
+
+    // То же для точек в метрах от Солнца: count точек с x[from], y[from] пишутся в outX, outY с нуля
+    public void project(double[] x, double[] y, int from, int count, double[] outX, double[] outY) {
+        float[] table = factorTable;
+        for (int i = 0; i < count; i++) {
+            double wx = x[from + i];
+            double wy = y[from + i];
+            double r = Math.sqrt(wx * wx + wy * wy);
+            double f;
+            if (r < tableLimit) {
+                double index = r * tableScale;
+                int k = (int) index;
+                f = table[k] + (table[k + 1] - table[k]) * (index - k);
+            } else {
+                f = factor(r);
+            }
+            outX[i] = centerX + wx * f;
+            outY[i] = centerY + wy * f;
+        }
+    }
+
+    // Перевод массивов на месте: таблица с линейной интерполяцией вместо логарифма на каждое тело.
+    // Массивы записаны относительно начала (originX, originY) среза
+    public void project(float[] x, float[] y, int from, int to, double originX, double originY) {
+        float[] table = factorTable;
+        for (int i = from; i < to; i++) {
+            double wx = x[i] + originX;
+            double wy = y[i] + originY;
+            double r = Math.sqrt(wx * wx + wy * wy);
+            double f;
+            if (r < tableLimit) {
+                double index = r * tableScale;
+                int k = (int) index;
+                f = table[k] + (table[k + 1] - table[k]) * (index - k);
+            } else {
+                f = factor(r);
+            }
+            x[i] = (float) (centerX + wx * f);
+            y[i] = (float) (centerY + wy * f);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+
+// Равномерная сетка по экранным координатам для поиска тела под курсором.
+// Каждая ячейка - двусвязный список индексов в массивах, при обновлении тело переносится
+// между списками только если сменило ячейку, поэтому медленно ползущие астероиды почти ничего не стоят.
+// Тела крупнее ячейки и тела с меняющимся радиусом (Солнце, планеты, спутники) в сетку не кладутся
+// и проверяются перебором - их единицы.
+class ScreenGrid {
+    private static final int NONE = -1;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] head;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] cellOf;
+    private final float[] x;
+    private final float[] y;
+    private final float[] radius;
+    private final int[] oversized;
+    private int oversizedCount;
+    private double maxCellRadius;
+    private final boolean[] linear;
+    // Тела прошлого выборочного пакета и метки пакета, в котором тело было последний раз
+    private final int[] batch;
+    private final int[] batchStamp;
+    private int batchCount;
+    private int stamp;
+
+    public ScreenGrid(double width, double height, double cellSize, int capacity) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.head = new int[columns * rows];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.cellOf = new int[capacity];
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.radius = new float[capacity];
+        this.oversized = new int[capacity];
+        this.linear = new boolean[capacity];
+        this.batch = new int[capacity];
+        this.batchStamp = new int[capacity];
+        Arrays.fill(head, NONE);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    // Тело всегда проверяется перебором; его радиус можно менять каждый кадр
+    public void setLinear(int i) {
+        if (!linear[i]) {
+            relink(i, NONE);
+            linear[i] = true;
+            oversized[oversizedCount++] = i;
+        }
+    }
+
+    // Тела в ячейках могут только увеличивать радиус до размера ячейки, крупные становятся линейными
+    public void setRadius(int i, double r) {
+        radius[i] = (float) r;
+        if (!linear[i]) {
+            if (r > cellSize) {
+                setLinear(i);
+            } else {
+                maxCellRadius = Math.max(maxCellRadius, r);
+            }
+        }
+    }
+
+    public void update(int i, double px, double py) {
+        x[i] = (float) px;
+        y[i] = (float) py;
+        if (!linear[i]) {
+            relink(i, cellAt(px, py));
+        }
+    }
+
+    // Пакетное обновление: i-е значения массивов относятся к телу firstId + i
+    public void update(float[] xs, float[] ys, int count, int firstId) {
+        for (int i = 0, id = firstId; i < count; i++, id++) {
+            float px = xs[i];
+            float py = ys[i];
+            x[id] = px;
+            y[id] = py;
+            relink(id, cellAt(px, py));
+        }
+    }
+
+    // Выборочное обновление: k-е значения массивов относятся к телу firstId + ids[k].
+    // Тела прошлого выборочного пакета, не попавшие в этот, убираются из сетки
+    public void update(float[] xs, float[] ys, int[] ids, int count, int firstId) {
+        int current = ++stamp;
+        for (int k = 0; k < count; k++) {
+            int id = firstId + ids[k];
+            float px = xs[k];
+            float py = ys[k];
+            x[id] = px;
+            y[id] = py;
+            relink(id, cellAt(px, py));
+            batchStamp[id] = current;
+        }
+        for (int k = 0; k < batchCount; k++) {
+            int id = batch[k];
+            if (batchStamp[id] != current) {
+                relink(id, NONE);
+            }
+        }
+        for (int k = 0; k < count; k++) {
+            batch[k] = firstId + ids[k];
+        }
+        batchCount = count;
+    }
+
+    // Ближайшее тело, край которого не дальше r от точки, или -1
+    public int nearest(double qx, double qy, double r) {
+        int best = NONE;
+        double bestDistance = r;
+        for (int k = 0; k < oversizedCount; k++) {
+            int i = oversized[k];
+            double d = Math.hypot(x[i] - qx, y[i] - qy) - radius[i];
+            if (d <= bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        double reach = r + maxCellRadius;
+        int minColumn = Math.max(0, (int) Math.floor((qx - reach) / cellSize));
+        int maxColumn = Math.min(columns - 1, (int) Math.floor((qx + reach) / cellSize));
+        int minRow = Math.max(0, (int) Math.floor((qy - reach) / cellSize));
+        int maxRow = Math.min(rows - 1, (int) Math.floor((qy + reach) / cellSize));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int i = head[row * columns + column]; i != NONE; i = next[i]) {
+                    double d = Math.hypot(x[i] - qx, y[i] - qy) - radius[i];
+                    if (d <= bestDistance) {
+                        bestDistance = d;
+                        best = i;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int cellAt(double px, double py) {
+        if (!(px >= 0 && py >= 0)) {
+            return NONE;
+        }
+        int column = (int) (px / cellSize);
+        int row = (int) (py / cellSize);
+        return column < columns && row < rows ? row * columns + column : NONE;
+    }
+
+    private void relink(int i, int cell) {
+        int old = cellOf[i];
+        if (old == cell) {
+            return;
+        }
+        if (old != NONE) {
+            int p = previous[i];
+            int n = next[i];
+            if (p != NONE) {
+                next[p] = n;
+            } else {
+                head[old] = n;
+            }
+            if (n != NONE) {
+                previous[n] = p;
+            }
+        }
+        cellOf[i] = cell;
+        if (cell != NONE) {
+            int first = head[cell];
+            next[i] = first;
+            previous[i] = NONE;
+            if (first != NONE) {
+                previous[first] = i;
+            }
+            head[cell] = i;
+        }
+    }
+}
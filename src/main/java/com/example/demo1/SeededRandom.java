@@ -0,0 +1,44 @@
+package com.example.demo1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+// Воспроизводимая генерация. Из одного зерна выводятся независимые зёрна для каждой подсистемы
+// (пояс, кольца, звёзды), чтобы добавление частиц в одну не меняло остальные.
+// Параллельная генерация режет диапазон на блоки фиксированного размера, у каждого блока свой
+// SplittableRandom, отщеплённый от корня по порядку номеров блоков. Разбиение не зависит от числа потоков,
+// общего генератора с блокировкой нет, поэтому результат совпадает бит в бит при любом параллелизме
+final class SeededRandom {
+    static final long DEFAULT_SEED = 1;
+    static final long BELT = 1;
+    static final long RINGS = 2;
+    static final long STARS = 3;
+    private static final int BLOCK_SIZE = 65536;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    interface BlockAction {
+        void run(SplittableRandom random, int from, int to);
+    }
+
+    private SeededRandom() {
+    }
+
+    // Зерно подсистемы purpose; SplittableRandom перемешивает его, так что соседние purpose не коррелируют
+    static long derive(long seed, long purpose) {
+        return new SplittableRandom(seed + purpose * GOLDEN_GAMMA).nextLong();
+    }
+
+    static void generate(ForkJoinPool pool, long seed, int size, BlockAction action) {
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            randoms[b] = root.split();
+        }
+        ParallelRange.run(pool, blocks, 1, (from, to) -> {
+            for (int b = from; b < to; b++) {
+                action.run(randoms[b], b * BLOCK_SIZE, Math.min((b + 1) * BLOCK_SIZE, size));
+            }
+        });
+    }
+}
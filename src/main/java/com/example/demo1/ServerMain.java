@@ -0,0 +1,70 @@
+package com.example.demo1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Сервер симуляции без окна и без JavaFX: физика идёт в настоящем времени, как в окне, а состояние
+// раздаётся по сети зрителям - Main с --connect=host:port. Так одна симуляция ведёт стену экранов и пульт.
+// Запуск: java -cp target/classes com.example.demo1.ServerMain --asteroids=100000 --port=7070
+// По умолчанию слушает только эту машину; --host=0.0.0.0 открывает сервер для сети.
+// --quantum-km - шаг квантования положений, --frame-rate - сколько кадров в секунду получают зрители.
+// Модель задаётся теми же параметрами, что у окна, или берётся из --resume=файл
+public class ServerMain {
+    public static void main(String[] args) throws IOException {
+        Map<String, String> parameters = HeadlessMain.parseArguments(args);
+        int asteroidCount = Integer.parseInt(parameters.getOrDefault("asteroids", "200"));
+        int ringParticles = Integer.parseInt(parameters.getOrDefault("ring-particles", "40000"));
+        int threads = Integer.parseInt(parameters.getOrDefault("physics-threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        double physicsStep = Double.parseDouble(parameters.getOrDefault("physics-step", "21600"));
+        String host = parameters.getOrDefault("host", "127.0.0.1");
+        int port = Integer.parseInt(parameters.getOrDefault("port", "7070"));
+        double quantum = Double.parseDouble(parameters.getOrDefault("quantum-km", "1")) * 1000;
+        double frameRate = Double.parseDouble(parameters.getOrDefault("frame-rate", "60"));
+
+        SolarSystem solarSystem;
+        AsteroidBelt asteroidBelt;
+        List<RingSystem> rings;
+        SimulationClock clock;
+        long seed;
+        Checkpoint checkpoint = null;
+        if (parameters.containsKey("resume")) {
+            checkpoint = Checkpoint.read(Path.of(parameters.get("resume")));
+            solarSystem = checkpoint.getSolarSystem();
+            asteroidBelt = checkpoint.getAsteroidBelt();
+            rings = checkpoint.getRings();
+            seed = checkpoint.getSeed();
+            clock = checkpoint.createClock(256);
+        } else {
+            seed = Long.parseLong(parameters.getOrDefault("seed", String.valueOf(SeededRandom.DEFAULT_SEED)));
+            solarSystem = SolarSystemFactory.create(parameters.get("system"));
+            asteroidBelt = SolarSystemFactory.createAsteroidBelt(solarSystem, parameters.get("catalog"),
+                    asteroidCount, threads, seed);
+            rings = SolarSystemFactory.createRings(solarSystem, ringParticles, seed);
+            clock = new SimulationClock(physicsStep, 256);
+        }
+        if (!parameters.containsKey("resume") || parameters.containsKey("time-scale")) {
+            clock.setTimeScale(Double.parseDouble(parameters.getOrDefault("time-scale", String.valueOf(Main.DEFAULT_TIME_SCALE))));
+        }
+
+        // Модель уходит зрителю снимком при подключении; кольца зритель считает сам, поэтому движок их не шагает.
+        // Состояние N тел зрителю не нужно: положения тел системы приходят кадрами
+        ByteArrayOutputStream model = new ByteArrayOutputStream();
+        Checkpoint.write(new CheckpointWriter(), Channels.newChannel(model), clock, seed, solarSystem, null, asteroidBelt, rings);
+        BodyStore planetsStore = SolarSystemFactory.createPlanetsStore(solarSystem, parameters.get("gravity"), checkpoint);
+        PhysicsEngine engine = new PhysicsEngine(List.of(planetsStore, asteroidBelt), threads, clock);
+        int bodies = solarSystem.size() + asteroidBelt.size();
+        SimulationServer server = new SimulationServer(engine, bodies, model.toByteArray(),
+                new InetSocketAddress(host, port), quantum, frameRate);
+        engine.start();
+        server.start();
+        System.out.printf(Locale.ROOT, "serving %d bodies on %s, model %.1f MB, orbit kernel: %s%n",
+                bodies, server.getAddress(), model.size() / 1e6, AsteroidState.describeKernel());
+    }
+}
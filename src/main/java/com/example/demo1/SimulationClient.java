@@ -0,0 +1,199 @@
+package com.example.demo1;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ForkJoinPool;
+
+// Зритель SimulationServer: своей физики нет, срезы собираются из кадров сервера в отдельном потоке
+// и отдаются отрисовке через ту же тройную буферизацию, что у PhysicsEngine.
+// Сервер шлёт только текущие положения; предыдущее состояние среза - прошлый принятый кадр,
+// а доля шага считается от момента прихода, поэтому движение плавное с задержкой в один кадр сервера.
+// Кванты хранятся целыми от Солнца, и плавающее начало камеры вычитается уже здесь, в double.
+class SimulationClient implements SnapshotSource, Closeable {
+    private final SocketChannel channel;
+    private final Checkpoint model;
+    private final double quantum;
+    private final int bodyCount;
+    private final SnapshotExchange exchange;
+    private final long[] qx;
+    private final long[] qy;
+    private final long[] previousQx;
+    private final long[] previousQy;
+    private final double[] originAt = new double[2];
+    private final ByteBuffer header = StateStream.allocate(StateStream.HEADER_BYTES);
+    private ByteBuffer message = StateStream.allocate(1 << 16);
+    private volatile FloatingOrigin origin = FloatingOrigin.fixed(0, 0);
+    private volatile boolean running;
+    private Thread thread;
+    private boolean received;
+    private double previousTime;
+
+    private SimulationClient(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer in = readMessage(StateStream.HELLO);
+        if (in.getInt() != StateStream.MAGIC) {
+            throw new IOException(channel.getRemoteAddress() + " is not a simulation server");
+        }
+        int version = in.getInt();
+        if (version != StateStream.VERSION) {
+            throw new IOException("Unsupported simulation server version " + version);
+        }
+        this.quantum = in.getDouble();
+        this.bodyCount = in.getInt();
+        this.model = Checkpoint.read(in.slice(), "simulation server");
+        if (bodyCount != model.getSolarSystem().size() + model.getAsteroidBelt().size()) {
+            throw new IOException("Simulation server sends " + bodyCount + " bodies, its model has a different number");
+        }
+        this.exchange = new SnapshotExchange(bodyCount);
+        this.qx = new long[bodyCount];
+        this.qy = new long[bodyCount];
+        this.previousQx = new long[bodyCount];
+        this.previousQy = new long[bodyCount];
+    }
+
+    // address - host:port или только порт на этой машине; модель приходит сразу при подключении
+    static SimulationClient connect(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        String host = colon >= 0 ? address.substring(0, colon) : "127.0.0.1";
+        int port = Integer.parseInt(address.substring(colon + 1));
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        try {
+            return new SimulationClient(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Система, пояс, кольца и часы сервера на момент его запуска: сервер снимает модель один раз,
+    // текущее время зритель берёт из кадров
+    public Checkpoint getModel() {
+        return model;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(() -> {
+            try {
+                while (running) {
+                    receiveFrame();
+                }
+            } catch (IOException e) {
+                // При выходе соединение закрывает сам зритель
+                if (running) {
+                    System.err.println("Simulation server connection lost: " + e.getMessage());
+                }
+            }
+        }, "viewer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        channel.close();
+    }
+
+    @Override
+    public StateSnapshot latest() {
+        return exchange.latest();
+    }
+
+    // Хранилища в кадрах идут в том же порядке, что в движке сервера: система, затем пояс
+    @Override
+    public int offsetOf(BodyStore store) {
+        if (store == model.getSolarSystem()) {
+            return 0;
+        }
+        if (store == model.getAsteroidBelt()) {
+            return model.getSolarSystem().size();
+        }
+        throw new IllegalArgumentException("Store is not streamed by the server");
+    }
+
+    @Override
+    public void setOrigin(FloatingOrigin origin) {
+        this.origin = origin;
+    }
+
+    @Override
+    public void indexBodies(int from, int count) {
+        exchange.index(from, count, ForkJoinPool.commonPool());
+    }
+
+    private void receiveFrame() throws IOException {
+        ByteBuffer in = readMessage(StateStream.FRAME);
+        long tick = in.getLong();
+        double time = in.getDouble();
+        double timeScale = in.getDouble();
+        boolean key = in.get() != 0;
+        System.arraycopy(qx, 0, previousQx, 0, bodyCount);
+        System.arraycopy(qy, 0, previousQy, 0, bodyCount);
+        StateStream.decodeBodies(in, key, qx, qy);
+        if (!received) {
+            System.arraycopy(qx, 0, previousQx, 0, bodyCount);
+            System.arraycopy(qy, 0, previousQy, 0, bodyCount);
+            previousTime = time;
+            received = true;
+        }
+
+        StateSnapshot snapshot = exchange.back();
+        FloatingOrigin currentOrigin = origin;
+        currentOrigin.positionAt(previousTime, originAt);
+        snapshot.previousOriginX = originAt[0];
+        snapshot.previousOriginY = originAt[1];
+        currentOrigin.positionAt(time, originAt);
+        snapshot.originX = originAt[0];
+        snapshot.originY = originAt[1];
+        fill(previousQx, snapshot.previousOriginX, snapshot.previousX);
+        fill(previousQy, snapshot.previousOriginY, snapshot.previousY);
+        fill(qx, snapshot.originX, snapshot.x);
+        fill(qy, snapshot.originY, snapshot.y);
+        snapshot.tick = tick;
+        snapshot.simulationTime = time;
+        snapshot.stepSize = time - previousTime;
+        snapshot.residual = 0;
+        snapshot.timeScale = timeScale;
+        if (snapshot.grid != null) {
+            snapshot.grid.build(snapshot, ForkJoinPool.commonPool());
+        }
+        snapshot.publishedNanos = System.nanoTime();
+        exchange.publish();
+        previousTime = time;
+    }
+
+    private void fill(long[] quanta, double origin, float[] target) {
+        for (int i = 0; i < bodyCount; i++) {
+            target[i] = (float) (quanta[i] * quantum - origin);
+        }
+    }
+
+    // Сообщение целиком; возвращённый буфер стоит на данных после типа
+    private ByteBuffer readMessage(byte type) throws IOException {
+        header.clear();
+        readFully(header);
+        int length = header.getInt(0);
+        if (header.get(Integer.BYTES) != type || length < 1) {
+            throw new IOException("Unexpected message " + header.get(Integer.BYTES) + " from the simulation server");
+        }
+        if (message.capacity() < length - 1) {
+            message = StateStream.allocate(length - 1);
+        }
+        message.clear().limit(length - 1);
+        readFully(message);
+        return message.flip();
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Simulation server closed the connection");
+            }
+        }
+    }
+}
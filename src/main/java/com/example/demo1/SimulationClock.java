@@ -0,0 +1,104 @@
+package com.example.demo1;
+
+// Часы симуляции с фиксированным шагом физики. Реальное время, умноженное на масштаб,
+// копится в аккумуляторе и расходуется целыми шагами; остаток даёт коэффициент интерполяции.
+class SimulationClock {
+    private final double fixedStep;
+    private final int maxStepsPerAdvance;
+    private volatile double timeScale = 1;
+    private volatile boolean paused;
+    private double accumulator;
+    private long stepCount;
+    private long lastNanos;
+    private boolean started;
+    private long droppedSteps;
+
+    public SimulationClock(double fixedStep, int maxStepsPerAdvance) {
+        this.fixedStep = fixedStep;
+        this.maxStepsPerAdvance = maxStepsPerAdvance;
+    }
+
+    // Возвращает число шагов физики, которые нужно сделать к моменту now
+    public int advance(long now) {
+        if (!started) {
+            started = true;
+            lastNanos = now;
+            return 0;
+        }
+        double elapsed = (now - lastNanos) * 1e-9;
+        lastNanos = now;
+        if (paused) {
+            return 0;
+        }
+        accumulator += elapsed * timeScale;
+        double due = Math.floor(accumulator / fixedStep);
+        int steps = (int) Math.min(due, maxStepsPerAdvance);
+        accumulator -= steps * fixedStep;
+        if (due > steps) {
+            // Не успеваем догнать - отбрасываем долг, иначе каждый следующий кадр будет ещё тяжелее
+            droppedSteps += (long) (due - steps);
+            accumulator %= fixedStep;
+        }
+        stepCount += steps;
+        return steps;
+    }
+
+    // Для пакетного режима: шаги без привязки к реальному времени
+    public void advanceSteps(long steps) {
+        stepCount += steps;
+    }
+
+    // Продолжение со снимка: тот же номер шага и тот же неизрасходованный остаток времени
+    public void restore(long stepCount, double accumulator) {
+        this.stepCount = stepCount;
+        this.accumulator = accumulator;
+    }
+
+    public long nanosUntilNextStep() {
+        double scale = timeScale;
+        if (paused || scale <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) ((fixedStep - accumulator) / scale * 1e9);
+    }
+
+    public double getAlpha() {
+        return accumulator / fixedStep;
+    }
+
+    public double getAccumulator() {
+        return accumulator;
+    }
+
+    public double getSimulationTime() {
+        return stepCount * fixedStep;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public double getFixedStep() {
+        return fixedStep;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.demo1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+// Раздача состояния физики зрителям SimulationClient по протоколу StateStream.
+// Вся сеть обслуживается одним потоком на неблокирующих каналах через Selector; поток физики только публикует
+// срезы, как для окна, и не ждёт ни сети, ни зрителей. С заданной частотой поток сервера забирает последний срез,
+// квантует его и кодирует не больше двух кадров на всех зрителей: разность с прошлым кадром для тех, кто его получил,
+// и опорный кадр для только что подключившихся. Буфер кадра общий, у каждого зрителя своя позиция в нём.
+// Зритель, не дочитавший прошлый кадр, новый пропускает: медленный зритель теряет кадры, а не тормозит остальных,
+// и после пропуска получает опорный кадр.
+class SimulationServer implements Closeable {
+    private static final long STATS_NANOS = 5_000_000_000L;
+
+    private final PhysicsEngine engine;
+    private final int bodyCount;
+    private final double quantum;
+    private final long periodNanos;
+    private final ByteBuffer hello;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final long[] qx;
+    private final long[] qy;
+    // Младшие 32 бита квантов прошлого кадра, от них считаются разности
+    private final int[] sentX;
+    private final int[] sentY;
+    private final List<Viewer> viewers = new ArrayList<>();
+    // Буферы кадров; буфер свободен, когда его не дописывает ни один зритель
+    private final List<Frame> frames = new ArrayList<>();
+    private final ByteBuffer discard = ByteBuffer.allocate(256);
+    private volatile boolean running;
+    private Thread thread;
+    private long lastTick = -1;
+    // Номер последнего разосланного кадра
+    private long frameNumber;
+    private long framesSent;
+    private long framesDropped;
+    private long bytesSent;
+
+    // bodyCount первых тел срезов идут в кадры; model - снимок Checkpoint, по которому зритель строит тела
+    public SimulationServer(PhysicsEngine engine, int bodyCount, byte[] model, InetSocketAddress address,
+                            double quantum, double framesPerSecond) throws IOException {
+        this.engine = engine;
+        this.bodyCount = bodyCount;
+        this.quantum = quantum;
+        this.periodNanos = (long) (1e9 / framesPerSecond);
+        this.hello = StateStream.hello(quantum, bodyCount, model);
+        this.qx = new long[bodyCount];
+        this.qy = new long[bodyCount];
+        this.sentX = new int[bodyCount];
+        this.sentY = new int[bodyCount];
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    // Поток сервера не фоновый: процесс работает, пока сервер не закрыт
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "server");
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Viewer viewer : viewers) {
+            viewer.channel.close();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    private void run() {
+        long nextFrame = System.nanoTime();
+        long nextStats = nextFrame + STATS_NANOS;
+        try {
+            while (running) {
+                long wait = nextFrame - System.nanoTime();
+                // select(0) ждал бы бесконечно
+                selector.select(Math.max(1, wait / 1_000_000));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Viewer viewer = (Viewer) key.attachment();
+                        if (key.isReadable()) {
+                            read(viewer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(viewer);
+                        }
+                    }
+                }
+                long now = System.nanoTime();
+                if (now >= nextFrame) {
+                    publish();
+                    nextFrame = Math.max(nextFrame + periodNanos, now);
+                }
+                if (now >= nextStats) {
+                    System.out.printf(Locale.ROOT, "viewers=%d frames=%d dropped=%d %.2f MB/s%n", viewers.size(),
+                            framesSent, framesDropped, bytesSent / 1e6 / (STATS_NANOS / 1e9));
+                    framesSent = 0;
+                    framesDropped = 0;
+                    bytesSent = 0;
+                    nextStats = now + STATS_NANOS;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Server stopped: " + e.getMessage());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Viewer viewer = new Viewer(channel);
+        viewer.key = channel.register(selector, SelectionKey.OP_READ, viewer);
+        // Модель у всех зрителей одна, буфер общий, у каждого своя позиция
+        viewer.pending = hello.duplicate();
+        viewers.add(viewer);
+        System.out.println("Viewer connected: " + channel.getRemoteAddress());
+        flush(viewer);
+    }
+
+    // Зритель ничего не шлёт; чтение нужно только, чтобы заметить закрытие соединения
+    private void read(Viewer viewer) {
+        try {
+            discard.clear();
+            if (viewer.channel.read(discard) < 0) {
+                disconnect(viewer);
+            }
+        } catch (IOException e) {
+            disconnect(viewer);
+        }
+    }
+
+    private void flush(Viewer viewer) {
+        try {
+            bytesSent += viewer.channel.write(viewer.pending);
+        } catch (IOException e) {
+            disconnect(viewer);
+            return;
+        }
+        if (!viewer.pending.hasRemaining()) {
+            release(viewer);
+        }
+        viewer.key.interestOps(viewer.pending.hasRemaining()
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Viewer viewer) {
+        viewers.remove(viewer);
+        viewer.key.cancel();
+        release(viewer);
+        try {
+            System.out.println("Viewer disconnected: " + viewer.channel.getRemoteAddress());
+            viewer.channel.close();
+        } catch (IOException e) {
+            System.err.println("Cannot close viewer connection: " + e.getMessage());
+        }
+    }
+
+    // Новый срез квантуется один раз; разность кодируется всегда, чтобы прошлый кадр оставался её основой
+    private void publish() {
+        StateSnapshot snapshot = engine.latest();
+        if (snapshot.tick == lastTick || viewers.isEmpty()) {
+            return;
+        }
+        lastTick = snapshot.tick;
+        StateStream.quantize(snapshot, bodyCount, quantum, qx, qy);
+        Frame delta = encode(snapshot, false);
+        Frame key = null;
+        long previous = frameNumber++;
+        for (int v = viewers.size() - 1; v >= 0; v--) {
+            Viewer viewer = viewers.get(v);
+            if (viewer.pending.hasRemaining()) {
+                framesDropped++;
+                continue;
+            }
+            Frame frame = delta;
+            if (viewer.lastFrame != previous) {
+                // Опорный кадр кодируется после разности: он тоже переписывает sentX и sentY теми же значениями
+                if (key == null) {
+                    key = encode(snapshot, true);
+                }
+                frame = key;
+            }
+            frame.users++;
+            viewer.frame = frame;
+            viewer.pending = frame.data.duplicate();
+            viewer.lastFrame = frameNumber;
+            framesSent++;
+            flush(viewer);
+        }
+    }
+
+    private Frame encode(StateSnapshot snapshot, boolean key) {
+        int capacity = StateStream.maxFrameBytes(bodyCount, key);
+        Frame frame = null;
+        for (Frame free : frames) {
+            if (free.users == 0 && free.data.capacity() >= capacity) {
+                frame = free;
+                break;
+            }
+        }
+        if (frame == null) {
+            frame = new Frame(StateStream.allocate(capacity));
+            frames.add(frame);
+        }
+        frame.data.clear();
+        StateStream.encodeFrame(frame.data, snapshot, qx, qy, sentX, sentY, bodyCount, key);
+        frame.data.flip();
+        return frame;
+    }
+
+    private static void release(Viewer viewer) {
+        if (viewer.frame != null) {
+            viewer.frame.users--;
+            viewer.frame = null;
+        }
+    }
+
+    private static class Frame {
+        final ByteBuffer data;
+        int users;
+
+        Frame(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+
+    private static class Viewer {
+        final SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer pending;
+        Frame frame;
+        // Номер последнего кадра, отданного зрителю; -1 - кадров ещё не было
+        long lastFrame = -1;
+
+        Viewer(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo1;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+// Фон окна: градиент и звёзды Starfield, растеризованные один раз в картинку вместо заливки сцены
+// и узла на каждую звезду. Каждый импульс JavaFX только выводит готовую текстуру, поэтому время кадра
+// не зависит от числа звёзд. Заново небо рисуется лишь после смены размера окна: пока размер меняется,
+// старая картинка растягивается, а растеризация ждёт, когда он перестанет меняться.
+class SkyLayer {
+    private final Starfield starfield;
+    private final ImageView view = new ImageView();
+    private int drawnWidth;
+    private int drawnHeight;
+    private int lastWidth;
+    private int lastHeight;
+
+    public SkyLayer(Starfield starfield) {
+        this.starfield = starfield;
+        view.setMouseTransparent(true);
+    }
+
+    // Вызывается каждый кадр из потока JavaFX с текущим размером сцены
+    public void update(double sceneWidth, double sceneHeight) {
+        int width = (int) Math.ceil(sceneWidth);
+        int height = (int) Math.ceil(sceneHeight);
+        if (width == drawnWidth && height == drawnHeight || width <= 0 || height <= 0) {
+            return;
+        }
+        boolean settled = width == lastWidth && height == lastHeight;
+        lastWidth = width;
+        lastHeight = height;
+        view.setFitWidth(width);
+        view.setFitHeight(height);
+        if (!settled && drawnWidth > 0) {
+            return;
+        }
+        int[] pixels = new int[width * height];
+        starfield.render(pixels, width, height, 1);
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        view.setImage(image);
+        drawnWidth = width;
+        drawnHeight = height;
+    }
+
+    public Node getView() {
+        return view;
+    }
+}
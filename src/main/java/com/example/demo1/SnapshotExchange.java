@@ -0,0 +1,57 @@
+package com.example.demo1;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Обмен срезами между потоком физики и потоком отрисовки без блокировок.
+// Писатель заполняет свой буфер и атомарно меняет его местами со средним,
+// читатель забирает средний буфер, только если там лежит новый срез.
+// Третий буфер нужен, чтобы писатель никогда не трогал буфер, который сейчас читают.
+class SnapshotExchange {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final StateSnapshot[] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public SnapshotExchange(int bodyCount) {
+        buffers = new StateSnapshot[] {
+                new StateSnapshot(bodyCount),
+                new StateSnapshot(bodyCount),
+                new StateSnapshot(bodyCount)
+        };
+    }
+
+    // Вызывается только потоком физики
+    public StateSnapshot back() {
+        return buffers[back];
+    }
+
+    // Вызывается только потоком физики
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // До запуска писателя: каждый срез получает сетку тел [from, from + count) по уже записанным положениям.
+    // Дальше писатель перестраивает сетку своего буфера перед publish
+    public void index(int from, int count, ForkJoinPool pool) {
+        for (StateSnapshot snapshot : buffers) {
+            snapshot.grid = new SnapshotGrid(from, count);
+            snapshot.grid.build(snapshot, pool);
+        }
+    }
+
+    // Вызывается только потоком отрисовки
+    public StateSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+
+    StateSnapshot[] buffers() {
+        return buffers;
+    }
+}
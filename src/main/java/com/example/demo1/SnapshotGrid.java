@@ -0,0 +1,181 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Грубая сетка в метрах от Солнца по телам [from, from + count) среза, чтобы отрисовка отбрасывала
+// тела вне окна до интерполяции и проекции. Строится потоком, публикующим срез, подсчётом по ячейкам.
+// Текущее положение тела лежит в квадрате своей ячейки,
+// прошлое - не дальше наибольшего за шаг сдвига тел, поэтому квадрат, расширенный на этот сдвиг,
+// содержит и любую интерполированную точку.
+// Подсчёт идёт блоками тел параллельно, и каждый блок раскладывает номера своих тел по ячейкам внутри
+// своего участка order: запись не выходит за участок в 256 КБ и остаётся в кэше, а порядок не зависит
+// от числа потоков. Ячейка в order - по отрезку от каждого блока.
+final class SnapshotGrid {
+    private static final int SIDE = 64;
+    private static final int CELLS = SIDE * SIDE;
+    private static final int BLOCK = 1 << 16;
+
+    // Пересекает ли окно рамка в метрах от Солнца
+    interface CellTest {
+        boolean intersects(double minX, double minY, double maxX, double maxY);
+    }
+
+    private final int from;
+    private final int count;
+    private final int blocks;
+    private final int[] cellOf;
+    private final int[] order;
+    private final int[] cellCount = new int[CELLS];
+    // По блокам и ячейкам: начало отрезка в order; отрезок кончается началом следующего
+    private final int[] blockStart;
+    // По блокам: число тел в ячейке, затем позиция записи в order
+    private final int[] blockCursor;
+    // По блокам: границы текущих положений и наибольший сдвиг за шаг по x и y
+    private final float[] blockBounds;
+    // Угол сетки и сторона ячейки в метрах от Солнца, запас рамки ячейки
+    private double cornerX;
+    private double cornerY;
+    private double cellSize;
+    private double reach;
+
+    SnapshotGrid(int from, int count) {
+        this.from = from;
+        this.count = count;
+        this.blocks = Math.max(1, (count + BLOCK - 1) / BLOCK);
+        this.cellOf = new int[count];
+        this.order = new int[count];
+        this.blockStart = new int[blocks * CELLS + 1];
+        this.blockCursor = new int[blocks * CELLS];
+        this.blockBounds = new float[blocks * 6];
+    }
+
+    // Вызывается только потоком, заполняющим срез, перед его публикацией
+    void build(StateSnapshot snapshot, ForkJoinPool pool) {
+        ParallelRange.run(pool, blocks, 1, (first, last) -> {
+            for (int b = first; b < last; b++) {
+                measure(snapshot, b);
+            }
+        });
+        float lowX = Float.POSITIVE_INFINITY;
+        float lowY = Float.POSITIVE_INFINITY;
+        float highX = Float.NEGATIVE_INFINITY;
+        float highY = Float.NEGATIVE_INFINITY;
+        float shift = 0;
+        for (int b = 0; b < blocks; b++) {
+            lowX = Math.min(lowX, blockBounds[6 * b]);
+            lowY = Math.min(lowY, blockBounds[6 * b + 1]);
+            highX = Math.max(highX, blockBounds[6 * b + 2]);
+            highY = Math.max(highY, blockBounds[6 * b + 3]);
+            shift = Math.max(shift, Math.max(blockBounds[6 * b + 4], blockBounds[6 * b + 5]));
+        }
+        float gridLowX = lowX;
+        float gridLowY = lowY;
+        float scale = (float) (SIDE / Math.max(Math.max(highX - lowX, highY - lowY), 1.0));
+        ParallelRange.run(pool, blocks, 1, (first, last) -> {
+            for (int b = first; b < last; b++) {
+                classify(snapshot, b, gridLowX, gridLowY, scale);
+            }
+        });
+
+        // Участок блока b начинается с b * BLOCK, внутри него отрезки идут по ячейкам
+        Arrays.fill(cellCount, 0);
+        int position = 0;
+        for (int k = 0; k < blocks * CELLS; k++) {
+            int n = blockCursor[k];
+            blockStart[k] = position;
+            blockCursor[k] = position;
+            position += n;
+            cellCount[k % CELLS] += n;
+        }
+        blockStart[blocks * CELLS] = position;
+        ParallelRange.run(pool, blocks, 1, (first, last) -> {
+            for (int b = first; b < last; b++) {
+                scatter(b);
+            }
+        });
+        cornerX = snapshot.originX + lowX;
+        cornerY = snapshot.originY + lowY;
+        cellSize = 1 / (double) scale;
+        // Округления float в сдвиге начала и в номере ячейки покрываются несколькими ulp координат
+        reach = shift + 4 * Math.ulp(Math.max(Math.max(-lowX, highX), Math.max(-lowY, highY)));
+    }
+
+    private void measure(StateSnapshot snapshot, int b) {
+        float[] x = snapshot.x;
+        float[] y = snapshot.y;
+        float[] previousX = snapshot.previousX;
+        float[] previousY = snapshot.previousY;
+        float shiftX = (float) (snapshot.previousOriginX - snapshot.originX);
+        float shiftY = (float) (snapshot.previousOriginY - snapshot.originY);
+        float lowX = Float.POSITIVE_INFINITY;
+        float lowY = Float.POSITIVE_INFINITY;
+        float highX = Float.NEGATIVE_INFINITY;
+        float highY = Float.NEGATIVE_INFINITY;
+        float reachX = 0;
+        float reachY = 0;
+        for (int i = from + b * BLOCK, end = from + Math.min(count, (b + 1) * BLOCK); i < end; i++) {
+            float px = x[i];
+            float py = y[i];
+            // Сравнения вместо Math.min: тот учитывает NaN и -0 и заметно медленнее в горячем цикле
+            lowX = px < lowX ? px : lowX;
+            highX = px > highX ? px : highX;
+            lowY = py < lowY ? py : lowY;
+            highY = py > highY ? py : highY;
+            float dx = Math.abs(previousX[i] + shiftX - px);
+            float dy = Math.abs(previousY[i] + shiftY - py);
+            reachX = dx > reachX ? dx : reachX;
+            reachY = dy > reachY ? dy : reachY;
+        }
+        blockBounds[6 * b] = lowX;
+        blockBounds[6 * b + 1] = lowY;
+        blockBounds[6 * b + 2] = highX;
+        blockBounds[6 * b + 3] = highY;
+        blockBounds[6 * b + 4] = reachX;
+        blockBounds[6 * b + 5] = reachY;
+    }
+
+    // Ячейка каждого тела блока и число тел блока в ячейках
+    private void classify(StateSnapshot snapshot, int b, float lowX, float lowY, float scale) {
+        float[] x = snapshot.x;
+        float[] y = snapshot.y;
+        int base = b * CELLS;
+        Arrays.fill(blockCursor, base, base + CELLS, 0);
+        for (int i = b * BLOCK, end = Math.min(count, (b + 1) * BLOCK); i < end; i++) {
+            // Края округления попадают в крайние ячейки
+            int column = Math.min(SIDE - 1, (int) ((x[from + i] - lowX) * scale));
+            int row = Math.min(SIDE - 1, (int) ((y[from + i] - lowY) * scale));
+            int cell = base + row * SIDE + column;
+            cellOf[i] = cell;
+            blockCursor[cell]++;
+        }
+    }
+
+    private void scatter(int b) {
+        for (int i = b * BLOCK, end = Math.min(count, (b + 1) * BLOCK); i < end; i++) {
+            order[blockCursor[cellOf[i]]++] = i;
+        }
+    }
+
+    // Номера тел (от from) из ячеек, прошедших проверку, пишутся в out; возвращает их число
+    int collect(CellTest test, int[] out) {
+        int n = 0;
+        for (int c = 0; c < CELLS; c++) {
+            if (cellCount[c] == 0) {
+                continue;
+            }
+            double minX = cornerX + (c % SIDE) * cellSize - reach;
+            double minY = cornerY + (c / SIDE) * cellSize - reach;
+            if (!test.intersects(minX, minY, minX + cellSize + 2 * reach, minY + cellSize + 2 * reach)) {
+                continue;
+            }
+            for (int k = c; k < blocks * CELLS; k += CELLS) {
+                int first = blockStart[k];
+                int length = blockStart[k + 1] - first;
+                System.arraycopy(order, first, out, n, length);
+                n += length;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo1;
+
+// Откуда отрисовка берёт срезы: собственная физика или поток состояния от SimulationServer
+interface SnapshotSource {
+    // Вызывается только потоком отрисовки
+    StateSnapshot latest();
+
+    // Индекс первого тела хранилища в срезах
+    int offsetOf(BodyStore store);
+
+    // Новое плавающее начало применяется со следующего среза
+    void setOrigin(FloatingOrigin origin);
+
+    // Строить к каждому срезу SnapshotGrid по телам [from, from + count); вызывается до запуска
+    void indexBodies(int from, int count);
+}
@@ -0,0 +1,241 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Дерево тел: положение каждого - положение родителя плюс его собственная орбита.
+// Дерево хранится развёрнутым в массивы в топологическом порядке (родитель раньше потомка),
+// поэтому всё оно пересчитывается одним линейным проходом без поиска по именам и ветвлений по типу тела.
+class SolarSystem implements BodyStore {
+    private Sun sun;
+    private ArrayList<Planet> planets;
+    private ArrayList<Moon> moons;
+    private double time;
+    // Ячейка 0 - Солнце, тело i лежит в ячейке i + 1; null - тела добавлялись после последней развёртки
+    private CelestialBody[] bodies;
+    private Orbit[] orbits;
+    private int[] parents;
+    private double[] worldX;
+    private double[] worldY;
+    private final double[] local = new double[2];
+
+    public SolarSystem() {
+        this.planets = new ArrayList<>();
+        this.moons = new ArrayList<>();
+    }
+
+    public void setSun(Sun sun) {
+        this.sun = sun;
+        bodies = null;
+    }
+
+    public void addPlanet(Planet planet) {
+        planets.add(planet);
+        bodies = null;
+    }
+
+    // Родитель спутника должен быть добавлен раньше него
+    public void addMoon(Moon moon) {
+        moons.add(moon);
+        bodies = null;
+    }
+
+    // Переход сразу к любому моменту времени: положения считаются из элементов орбит, без повтора шагов
+    public void setTime(double time) {
+        this.time = time;
+        step(0, size(), 0);
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    // Часы без пересчёта орбит: положения тел тогда задаёт GravitySystem
+    void advanceTime(double dt) {
+        time += dt;
+    }
+
+    @Override
+    public int size() {
+        return planets.size() + moons.size();
+    }
+
+    // Хранилище не делится на куски, поэтому шаг всегда приходит на весь диапазон
+    @Override
+    public void step(int from, int to, double dt) {
+        if (bodies == null) {
+            flatten();
+        }
+        time += dt;
+        CelestialBody[] bodies = this.bodies;
+        Orbit[] orbits = this.orbits;
+        int[] parents = this.parents;
+        double[] worldX = this.worldX;
+        double[] worldY = this.worldY;
+        double[] local = this.local;
+        for (int i = 1; i < bodies.length; i++) {
+            orbits[i].positionAt(time, local);
+            int parent = parents[i];
+            double x = worldX[parent] + local[0];
+            double y = worldY[parent] + local[1];
+            worldX[i] = x;
+            worldY[i] = y;
+            bodies[i].x = x;
+            bodies[i].y = y;
+        }
+    }
+
+    @Override
+    public void writePositions(int from, int to, double originX, double originY, float[] x, float[] y, int offset) {
+        for (int i = from + 1, j = offset; i <= to; i++, j++) {
+            x[j] = (float) (worldX[i] - originX);
+            y[j] = (float) (worldY[i] - originY);
+        }
+    }
+
+    // Положения всех ячеек (0 - Солнце) на любой момент, состояние шага не меняется
+    public void positionsAt(double time, double[] x, double[] y) {
+        if (bodies == null) {
+            flatten();
+        }
+        double[] position = new double[2];
+        x[0] = 0;
+        y[0] = 0;
+        for (int i = 1; i < bodies.length; i++) {
+            orbits[i].positionAt(time, position);
+            x[i] = x[parents[i]] + position[0];
+            y[i] = y[parents[i]] + position[1];
+        }
+    }
+
+    @Override
+    public boolean isSplittable() {
+        return false;
+    }
+
+    // Тело по индексу в порядке срезов: планеты, затем спутники
+    public CelestialBody getBody(int i) {
+        return i < planets.size() ? planets.get(i) : moons.get(i - planets.size());
+    }
+
+    // Индекс родителя в том же порядке, -1 у тел, обращающихся вокруг Солнца
+    public int getParentIndex(int i) {
+        if (bodies == null) {
+            flatten();
+        }
+        return parents[i + 1] - 1;
+    }
+
+    public Sun getSun() {
+        return sun;
+    }
+
+    public ArrayList<Planet> getPlanets() {
+        return planets;
+    }
+
+    public ArrayList<Moon> getMoons() {
+        return moons;
+    }
+
+    // Для снимка: время и тела в порядке ячеек, у каждого - индекс родителя и элементы орбиты
+    void save(CheckpointWriter out) throws IOException {
+        if (bodies == null) {
+            flatten();
+        }
+        out.putDouble(time);
+        out.putInt(bodies.length);
+        for (int i = 0; i < bodies.length; i++) {
+            CelestialBody body = bodies[i];
+            out.putString(body.getName());
+            out.putDouble(body.getMass());
+            out.putDouble(body.getRadius());
+            out.putDouble(body.getDisplayScale());
+            if (i > 0) {
+                Orbit orbit = orbits[i];
+                out.putInt(parents[i]);
+                out.putDouble(orbit.getSemiMajorAxis());
+                out.putDouble(orbit.getEccentricity());
+                out.putDouble(orbit.getPeriod());
+                out.putDouble(orbit.getMeanAnomalyAtEpoch());
+                out.putDouble(orbit.getArgumentOfPeriapsis());
+            }
+        }
+    }
+
+    // Как и в каталоге, тела Солнца - планеты, остальные - спутники
+    static SolarSystem load(ByteBuffer in) throws IOException {
+        double time = in.getDouble();
+        int count = Checkpoint.getCount(in, 3 * Double.BYTES);
+        if (count == 0) {
+            throw new IOException("Checkpoint has no central body");
+        }
+        SolarSystem solarSystem = new SolarSystem();
+        CelestialBody[] slots = new CelestialBody[count];
+        for (int i = 0; i < count; i++) {
+            String name = Checkpoint.getString(in);
+            double mass = in.getDouble();
+            double radius = in.getDouble();
+            double displayScale = in.getDouble();
+            CelestialBody body;
+            if (i == 0) {
+                Sun sun = new Sun(name, mass, radius);
+                solarSystem.setSun(sun);
+                body = sun;
+            } else {
+                int parent = in.getInt();
+                if (parent < 0 || parent >= i) {
+                    throw new IOException("Body " + name + " refers to parent slot " + parent);
+                }
+                Orbit orbit = new Orbit(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+                if (parent == 0) {
+                    Planet planet = new Planet(name, mass, radius, orbit);
+                    solarSystem.addPlanet(planet);
+                    body = planet;
+                } else {
+                    Moon moon = new Moon(name, mass, orbit, radius);
+                    solarSystem.addMoon(moon);
+                    body = moon;
+                }
+                body.setParent(slots[parent]);
+            }
+            body.setDisplayScale(displayScale);
+            slots[i] = body;
+        }
+        solarSystem.setTime(time);
+        return solarSystem;
+    }
+
+    private void flatten() {
+        int count = size() + 1;
+        CelestialBody[] flat = new CelestialBody[count];
+        Orbit[] flatOrbits = new Orbit[count];
+        int[] flatParents = new int[count];
+        Map<CelestialBody, Integer> slots = new IdentityHashMap<>();
+        flat[0] = sun;
+        for (int i = 1; i < count; i++) {
+            CelestialBody body = getBody(i - 1);
+            CelestialBody parent = body.getParent();
+            int slot = 0;
+            if (parent != null && parent != sun) {
+                Integer parentSlot = slots.get(parent);
+                if (parentSlot == null) {
+                    throw new IllegalStateException(body.getName() + " is added before its parent " + parent.getName());
+                }
+                slot = parentSlot;
+            }
+            flat[i] = body;
+            flatOrbits[i] = body.getOrbit();
+            flatParents[i] = slot;
+            slots.put(body, i);
+        }
+        orbits = flatOrbits;
+        parents = flatParents;
+        worldX = new double[count];
+        worldY = new double[count];
+        bodies = flat;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+// Построение модели Солнечной системы без зависимостей от JavaFX,
+// общее для оконного и пакетного режимов
+final class SolarSystemFactory {
+    private SolarSystemFactory() {
+    }
+
+    // Без пути - встроенный каталог Солнечной системы
+    static SolarSystem create(String systemPath) throws IOException {
+        if (systemPath == null) {
+            return SystemCatalog.loadDefault();
+        }
+        try (InputStream in = Files.newInputStream(Path.of(systemPath))) {
+            return SystemCatalog.load(in);
+        }
+    }
+
+    // С каталогом пояс загружается из файла, иначе из зерна генерируется asteroidCount круговых орбит
+    static AsteroidBelt createAsteroidBelt(SolarSystem solarSystem, String catalogPath, int asteroidCount,
+                                           int threads, long seed) throws IOException {
+        double gravitationalParameter = NBodySystem.GRAVITATIONAL_CONSTANT * solarSystem.getSun().getMass();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            if (catalogPath == null) {
+                AsteroidBelt asteroidBelt = new AsteroidBelt();
+                asteroidBelt.createAsteroids(asteroidCount, gravitationalParameter, SeededRandom.derive(seed, SeededRandom.BELT), pool);
+                return asteroidBelt;
+            }
+            return new AsteroidBelt(MinorBodyCatalog.load(Path.of(catalogPath), pool, gravitationalParameter));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Тела системы для движка: по орбитам Кеплера или под взаимным притяжением в режиме gravity.
+    // Со снимка режим и положения со скоростями берутся из него, явно заданный другой режим - ошибка
+    static BodyStore createPlanetsStore(SolarSystem solarSystem, String gravity, Checkpoint resumed) {
+        if (resumed != null) {
+            GravitySystem saved = resumed.getGravity();
+            GravityMode savedMode = saved != null ? saved.getMode() : GravityMode.KEPLER;
+            if (gravity != null && GravityMode.parse(gravity) != savedMode) {
+                throw new IllegalArgumentException("Checkpoint was saved with gravity " + savedMode + ", not " + gravity);
+            }
+            return saved != null ? saved : solarSystem;
+        }
+        GravityMode mode = GravityMode.parse(gravity);
+        return mode == GravityMode.KEPLER ? solarSystem : new GravitySystem(solarSystem, mode);
+    }
+
+    // Кольца из встроенного каталога для тех его тел, что есть в системе, по particlesPerRing частиц
+    static List<RingSystem> createRings(SolarSystem solarSystem, int particlesPerRing, long seed) {
+        List<RingSystem> rings = new ArrayList<>();
+        if (particlesPerRing <= 0) {
+            return rings;
+        }
+        Map<String, RingProfile> profiles = RingCatalog.loadDefault();
+        // У каждой системы колец своё зерно, выведенное по порядку
+        SplittableRandom seeds = new SplittableRandom(SeededRandom.derive(seed, SeededRandom.RINGS));
+        for (int i = 0; i < solarSystem.size(); i++) {
+            CelestialBody body = solarSystem.getBody(i);
+            RingProfile profile = profiles.get(body.getName());
+            if (profile != null) {
+                rings.add(new RingSystem(body, profile, particlesPerRing, seeds.nextLong()));
+            }
+        }
+        return rings;
+    }
+}
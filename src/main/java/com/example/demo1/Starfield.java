@@ -0,0 +1,147 @@
+package com.example.demo1;
+
+import java.util.SplittableRandom;
+
+// Звёздное небо за системой. Положения хранятся в долях кадра, поэтому при смене размера окна небо
+// растягивается, а не разыгрывается заново. Звёзды бесконечно далеко: сдвиг и масштаб камеры их не двигают.
+// Блеск по закону числа звёзд N(<m) ~ 10^(0.45 m): на каждую звёздную величину слабее звёзд почти втрое больше,
+// поэтому большинство звёзд по отдельности едва видны, а вместе дают свечение полосы Млечного Пути.
+// Цвет - по показателю B-V, от голубых горячих звёзд до оранжевых холодных.
+// Небо растеризуется в массив ARGB один раз; окно и выгрузка кадров только копируют готовый фон.
+class Starfield {
+    private static final double BRIGHTEST_MAGNITUDE = -1.5;
+    private static final double FAINTEST_MAGNITUDE = 8;
+    private static final double COUNT_SLOPE = 0.45;
+    // Звезда этой величины даёт ровно пиксель полной яркости; слабее - тусклее, ярче - крупнее
+    private static final double PIXEL_MAGNITUDE = 4;
+    private static final double MAX_RADIUS = 2.5;
+    // Доля звёзд в полосе Млечного Пути, её наклон и полуширина в долях кадра
+    private static final double BAND_FRACTION = 0.4;
+    private static final double BAND_SLOPE = -0.35;
+    private static final double BAND_OFFSET = 0.62;
+    private static final double BAND_WIDTH = 0.07;
+    // Показатель цвета B-V и цвет звезды в узлах, между ними линейно
+    private static final double[] COLOR_INDEX = {-0.3, 0, 0.3, 0.6, 1.0, 1.5};
+    private static final int[] COLOR = {0x9BB0FF, 0xCAD7FF, 0xF8F7FF, 0xFFF4EA, 0xFFD2A1, 0xFFCC6F};
+    // Градиент фона по диагонали от чёрного к тёмно-синему, как прежняя заливка сцены
+    private static final int BACKGROUND_BLUE = 0x8B;
+
+    private final float[] x;
+    private final float[] y;
+    private final float[] intensity;
+    private final int[] color;
+
+    public Starfield(int count, long seed) {
+        this.x = new float[count];
+        this.y = new float[count];
+        this.intensity = new float[count];
+        this.color = new int[count];
+        SplittableRandom random = new SplittableRandom(seed);
+        double faintest = Math.pow(10, COUNT_SLOPE * (BRIGHTEST_MAGNITUDE - FAINTEST_MAGNITUDE));
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble();
+            double v;
+            if (random.nextDouble() < BAND_FRACTION) {
+                // Сумма трёх равномерных - дешёвое приближение нормального распределения поперёк полосы
+                double across = (random.nextDouble() + random.nextDouble() + random.nextDouble() - 1.5) * 2 * BAND_WIDTH;
+                v = BAND_OFFSET + BAND_SLOPE * (u - 0.5) + across;
+                v -= Math.floor(v);
+            } else {
+                v = random.nextDouble();
+            }
+            // Обратная функция распределения N(<m)
+            double magnitude = FAINTEST_MAGNITUDE
+                    + Math.log10(faintest + random.nextDouble() * (1 - faintest)) / COUNT_SLOPE;
+            x[i] = (float) u;
+            y[i] = (float) v;
+            intensity[i] = (float) Math.pow(10, -0.4 * (magnitude - PIXEL_MAGNITUDE));
+            // B-V от -0.25 до 1.55, чаще всего около 0.65, как у звёзд вроде Солнца
+            color[i] = colorOf(0.65 + (random.nextDouble() + random.nextDouble() - 1) * 0.9);
+        }
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    // Фон и звёзды в непрозрачный ARGB кадра; pixelScale увеличивает звёзды для кадров крупнее окна
+    public void render(int[] pixels, int width, int height, double pixelScale) {
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                double t = ((column + 0.5) / width + (row + 0.5) / height) / 2;
+                pixels[row * width + column] = 0xFF000000 | (int) Math.round(BACKGROUND_BLUE * t);
+            }
+        }
+        for (int i = 0; i < x.length; i++) {
+            double px = x[i] * width;
+            double py = y[i] * height;
+            // Площадь пятна пропорциональна потоку: пятно меньше пикселя делится между четырьмя соседями
+            double radius = 0.5 * Math.sqrt(intensity[i]) * pixelScale;
+            if (radius < 0.5) {
+                splat(pixels, width, height, px - 0.5, py - 0.5, color[i], 4 * radius * radius);
+            } else {
+                disk(pixels, width, height, px, py, Math.min(radius, MAX_RADIUS * pixelScale), color[i]);
+            }
+        }
+    }
+
+    private static void splat(int[] pixels, int width, int height, double x, double y, int color, double weight) {
+        int left = (int) Math.floor(x);
+        int top = (int) Math.floor(y);
+        double fx = x - left;
+        double fy = y - top;
+        add(pixels, width, height, left, top, color, weight * (1 - fx) * (1 - fy));
+        add(pixels, width, height, left + 1, top, color, weight * fx * (1 - fy));
+        add(pixels, width, height, left, top + 1, color, weight * (1 - fx) * fy);
+        add(pixels, width, height, left + 1, top + 1, color, weight * fx * fy);
+    }
+
+    // Край сглаживается по доле пикселя внутри круга, как в FrameRasterizer.fillCircle
+    private static void disk(int[] pixels, int width, int height, double x, double y, double radius, int color) {
+        int top = (int) Math.floor(y - radius);
+        int bottom = (int) Math.ceil(y + radius);
+        int left = (int) Math.floor(x - radius);
+        int right = (int) Math.ceil(x + radius);
+        for (int row = top; row <= bottom; row++) {
+            double dy = row + 0.5 - y;
+            for (int column = left; column <= right; column++) {
+                double dx = column + 0.5 - x;
+                double coverage = radius + 0.5 - Math.sqrt(dx * dx + dy * dy);
+                if (coverage > 0) {
+                    add(pixels, width, height, column, row, color, Math.min(coverage, 1));
+                }
+            }
+        }
+    }
+
+    // Свет складывается: близкие звёзды и плотная полоса светлее, канал упирается в 255
+    private static void add(int[] pixels, int width, int height, int column, int row, int color, double weight) {
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            return;
+        }
+        int index = row * width + column;
+        int pixel = pixels[index];
+        int red = Math.min(255, (pixel >>> 16 & 0xFF) + (int) ((color >>> 16 & 0xFF) * weight + 0.5));
+        int green = Math.min(255, (pixel >>> 8 & 0xFF) + (int) ((color >>> 8 & 0xFF) * weight + 0.5));
+        int blue = Math.min(255, (pixel & 0xFF) + (int) ((color & 0xFF) * weight + 0.5));
+        pixels[index] = 0xFF000000 | red << 16 | green << 8 | blue;
+    }
+
+    private static int colorOf(double colorIndex) {
+        if (colorIndex <= COLOR_INDEX[0]) {
+            return COLOR[0];
+        }
+        for (int k = 1; k < COLOR_INDEX.length; k++) {
+            if (colorIndex < COLOR_INDEX[k]) {
+                double t = (colorIndex - COLOR_INDEX[k - 1]) / (COLOR_INDEX[k] - COLOR_INDEX[k - 1]);
+                int from = COLOR[k - 1];
+                int to = COLOR[k];
+                int red = (int) Math.round((from >>> 16 & 0xFF) + ((to >>> 16 & 0xFF) - (from >>> 16 & 0xFF)) * t);
+                int green = (int) Math.round((from >>> 8 & 0xFF) + ((to >>> 8 & 0xFF) - (from >>> 8 & 0xFF)) * t);
+                int blue = (int) Math.round((from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * t);
+                return red << 16 | green << 8 | blue;
+            }
+        }
+        return COLOR[COLOR.length - 1];
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo1;
+
+// Готовый к отрисовке срез: положения после последнего шага физики и перед ним,
+// чтобы отрисовка могла интерполировать между двумя соседними состояниями.
+// Координаты хранятся в метрах относительно плавающего начала, своего для каждого состояния:
+// если начало следует за телом, интерполяция идёт в его системе отсчёта.
+class StateSnapshot {
+    final float[] x;
+    final float[] y;
+    final float[] previousX;
+    final float[] previousY;
+    long tick;
+    double simulationTime;
+    double stepSize;
+    double residual;
+    double timeScale;
+    long publishedNanos;
+    double originX;
+    double originY;
+    double previousOriginX;
+    double previousOriginY;
+    // Сетка для отсечения, если источнику срезов её заказали; строится вместе со срезом
+    SnapshotGrid grid;
+
+    StateSnapshot(int bodyCount) {
+        this.x = new float[bodyCount];
+        this.y = new float[bodyCount];
+        this.previousX = new float[bodyCount];
+        this.previousY = new float[bodyCount];
+    }
+
+    // Доля шага, прошедшая между предыдущим и текущим состоянием к моменту now
+    double alphaAt(long now) {
+        if (stepSize <= 0) {
+            return 1;
+        }
+        double alpha = (residual + (now - publishedNanos) * 1e-9 * timeScale) / stepSize;
+        return alpha < 0 ? 0 : Math.min(alpha, 1);
+    }
+
+    // Модельное время интерполированного состояния
+    double timeAt(double alpha) {
+        return simulationTime - (1 - alpha) * stepSize;
+    }
+
+    double originXAt(double alpha) {
+        return previousOriginX + (originX - previousOriginX) * alpha;
+    }
+
+    double originYAt(double alpha) {
+        return previousOriginY + (originY - previousOriginY) * alpha;
+    }
+
+    float interpolateX(int i, double alpha) {
+        return (float) (previousX[i] + (x[i] - previousX[i]) * alpha);
+    }
+
+    float interpolateY(int i, double alpha) {
+        return (float) (previousY[i] + (y[i] - previousY[i]) * alpha);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo1;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Протокол между SimulationServer и SimulationClient, little-endian, как у Checkpoint.
+// Сообщение: длина (int, без самого поля длины), тип (byte), данные.
+// HELLO: magic, version, квант в метрах, число тел в кадрах, затем до конца сообщения снимок модели
+// в формате Checkpoint - из него зритель строит те же тела, кольца и пояс со всеми свойствами.
+// FRAME: номер шага, модельное время, масштаб времени, флаг опорного кадра, число тел в кадре, затем по телу:
+// разность индекса с предыдущим телом кадра минус 1, x и y.
+// Положения квантуются в целые кванты относительно Солнца. В опорном кадре идут все тела с полными значениями,
+// в обычном - только тела, чьё квантованное положение изменилось с прошлого кадра, и только разности.
+// Все числа тел - varint с зигзагом: индекс идущих подряд тел и малая разность занимают по байту.
+// Частицы колец не передаются: они движутся по формуле от времени, и зритель считает их сам.
+final class StateStream {
+    static final int MAGIC = 0x534F4C56;
+    static final int VERSION = 1;
+    static final byte HELLO = 1;
+    static final byte FRAME = 2;
+    static final int HEADER_BYTES = Integer.BYTES + 1;
+    static final int FRAME_HEADER_BYTES = HEADER_BYTES + Long.BYTES + 2 * Double.BYTES + 1 + Integer.BYTES;
+    // Самое длинное тело кадра: индекс и две координаты по 10 байт varint, в обычном кадре разности по 5 байт
+    private static final int MAX_KEY_BODY_BYTES = 5 + 2 * 10;
+    private static final int MAX_DELTA_BODY_BYTES = 5 + 2 * 5;
+
+    private StateStream() {
+    }
+
+    // Место под кадр в худшем случае, когда изменились все тела
+    static int maxFrameBytes(int bodyCount, boolean key) {
+        return FRAME_HEADER_BYTES + bodyCount * (key ? MAX_KEY_BODY_BYTES : MAX_DELTA_BODY_BYTES);
+    }
+
+    static ByteBuffer hello(double quantum, int bodyCount, byte[] model) {
+        int length = 1 + 2 * Integer.BYTES + Double.BYTES + Integer.BYTES + model.length;
+        ByteBuffer out = allocate(Integer.BYTES + length);
+        out.putInt(length);
+        out.put(HELLO);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putDouble(quantum);
+        out.putInt(bodyCount);
+        out.put(model);
+        return out.flip();
+    }
+
+    static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Положения среза в квантах от Солнца; начало среза прибавляется в double до округления
+    static void quantize(StateSnapshot snapshot, int bodyCount, double quantum, long[] qx, long[] qy) {
+        double inverse = 1 / quantum;
+        double originX = snapshot.originX;
+        double originY = snapshot.originY;
+        for (int i = 0; i < bodyCount; i++) {
+            qx[i] = Math.round((originX + snapshot.x[i]) * inverse);
+            qy[i] = Math.round((originY + snapshot.y[i]) * inverse);
+        }
+    }
+
+    // Кадр относительно прошлого кадра (sentX, sentY) и обновление этих массивов.
+    // Хранятся младшие 32 бита квантов: разность по модулю 2^32 восстанавливается верно, пока
+    // за кадр тело сдвигается меньше чем на 2^31 квантов. out должен вмещать maxFrameBytes
+    static void encodeFrame(ByteBuffer out, StateSnapshot snapshot, long[] qx, long[] qy,
+                            int[] sentX, int[] sentY, int bodyCount, boolean key) {
+        int start = out.position();
+        out.putInt(0);
+        out.put(FRAME);
+        out.putLong(snapshot.tick);
+        out.putDouble(snapshot.simulationTime);
+        out.putDouble(snapshot.timeScale);
+        out.put((byte) (key ? 1 : 0));
+        int countAt = out.position();
+        out.putInt(0);
+        int count = 0;
+        int last = -1;
+        for (int i = 0; i < bodyCount; i++) {
+            int x = (int) qx[i];
+            int y = (int) qy[i];
+            if (!key && x == sentX[i] && y == sentY[i]) {
+                continue;
+            }
+            putVarLong(out, i - last - 1);
+            if (key) {
+                putVarLong(out, zigzag(qx[i]));
+                putVarLong(out, zigzag(qy[i]));
+            } else {
+                putVarLong(out, zigzag(x - sentX[i]));
+                putVarLong(out, zigzag(y - sentY[i]));
+            }
+            sentX[i] = x;
+            sentY[i] = y;
+            last = i;
+            count++;
+        }
+        out.putInt(countAt, count);
+        out.putInt(start, out.position() - start - Integer.BYTES);
+    }
+
+    // Тела кадра поверх прежних квантов зрителя; in стоит на числе тел после заголовка кадра
+    static void decodeBodies(ByteBuffer in, boolean key, long[] qx, long[] qy) {
+        int count = in.getInt();
+        int i = -1;
+        for (int k = 0; k < count; k++) {
+            i += (int) getVarLong(in) + 1;
+            long x = unzigzag(getVarLong(in));
+            long y = unzigzag(getVarLong(in));
+            qx[i] = key ? x : qx[i] + x;
+            qy[i] = key ? y : qy[i] + y;
+        }
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
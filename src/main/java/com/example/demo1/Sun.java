@@ -0,0 +1,19 @@
+package com.example.demo1;
+
+class Sun extends CelestialBody {
+    public Sun(String name, double mass, double radius) {
+        super(name, mass, radius, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getMass() {
+        return mass;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+}
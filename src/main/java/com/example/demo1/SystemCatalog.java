@@ -0,0 +1,111 @@
+package com.example.demo1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Загрузка планет и спутников из CSV с элементами орбит. Файл читается построчно,
+// строки сразу превращаются в тела, целиком в памяти он не держится.
+// Колонки: name,parent,mass_kg,radius_km,display_scale,a_au,e,period_days,mean_anomaly_deg,periapsis_deg
+final class SystemCatalog {
+    private static final int COLUMNS = 10;
+
+    private SystemCatalog() {
+    }
+
+    static SolarSystem loadDefault() {
+        try (InputStream in = SystemCatalog.class.getResourceAsStream("solar-system.csv")) {
+            if (in == null) {
+                throw new IllegalStateException("solar-system.csv is missing from resources");
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read built-in system catalog", e);
+        }
+    }
+
+    static SolarSystem load(InputStream in) throws IOException {
+        SolarSystem solarSystem = new SolarSystem();
+        // Имя нужно только на время загрузки, чтобы найти родителя спутника
+        Map<String, CelestialBody> bodies = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("name,")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length < COLUMNS) {
+                throw new IOException("Line " + lineNumber + ": expected " + COLUMNS + " columns, got " + fields.length);
+            }
+            try {
+                CelestialBody body = parseBody(fields, bodies);
+                bodies.put(body.getName(), body);
+                if (body instanceof Sun sun) {
+                    if (solarSystem.getSun() != null) {
+                        throw new IllegalArgumentException("second central body " + sun.getName()
+                                + ", " + solarSystem.getSun().getName() + " is already the central body");
+                    }
+                    solarSystem.setSun(sun);
+                } else if (body instanceof Planet planet) {
+                    solarSystem.addPlanet(planet);
+                } else {
+                    solarSystem.addMoon((Moon) body);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (solarSystem.getSun() == null) {
+            throw new IOException("Catalog has no central body");
+        }
+        return solarSystem;
+    }
+
+    private static CelestialBody parseBody(String[] fields, Map<String, CelestialBody> bodies) {
+        String name = fields[0].trim();
+        String parentName = fields[1].trim();
+        double mass = Double.parseDouble(fields[2].trim());
+        double radius = Double.parseDouble(fields[3].trim());
+        double displayScale = Double.parseDouble(fields[4].trim());
+
+        if (parentName.isEmpty()) {
+            Sun sun = new Sun(name, mass, radius);
+            sun.setDisplayScale(displayScale);
+            return sun;
+        }
+        CelestialBody parent = bodies.get(parentName);
+        if (parent == null) {
+            throw new IllegalArgumentException("parent " + parentName + " must be listed before " + name);
+        }
+
+        double semiMajorAxis = Double.parseDouble(fields[5].trim()) * Units.ASTRONOMICAL_UNIT;
+        double eccentricity = Double.parseDouble(fields[6].trim());
+        if (!(semiMajorAxis > 0)) {
+            throw new IllegalArgumentException("semi-major axis must be positive");
+        }
+        if (!(eccentricity >= 0 && eccentricity < 1)) {
+            throw new IllegalArgumentException("eccentricity " + eccentricity + " is not an elliptic orbit");
+        }
+        String periodField = fields[7].trim();
+        double period = periodField.isEmpty() || Double.parseDouble(periodField) == 0
+                ? 2 * Math.PI / AsteroidState.meanMotion(NBodySystem.GRAVITATIONAL_CONSTANT * (parent.getMass() + mass), semiMajorAxis)
+                : Double.parseDouble(periodField) * Units.DAY;
+        double meanAnomaly = Math.toRadians(Double.parseDouble(fields[8].trim()));
+        double periapsis = Math.toRadians(Double.parseDouble(fields[9].trim()));
+        Orbit orbit = new Orbit(semiMajorAxis, eccentricity, period, meanAnomaly, periapsis);
+
+        CelestialBody body = parent instanceof Sun
+                ? new Planet(name, mass, radius, orbit)
+                : new Moon(name, mass, orbit, radius);
+        body.setParent(parent);
+        body.setDisplayScale(displayScale);
+        return body;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo1;
+
+// История положений для следов: тела системы и первые asteroidCount астероидов.
+// Точка берётся раз в decimation шагов физики, в поток физики после публикации среза. Орбиты
+// кеплеровы, поэтому положение на момент любого пропущенного шага считается точно, без хранения шагов.
+// Кольцевой буфер выделяется один раз: на тело length точек плюс запас, который поток JavaFX не читает,
+// чтобы физика, ушедшая на несколько точек вперёд, не перезаписывала то, что рисуется.
+// Точки пишутся строками по моменту: строка - все тела, так и запись, и чтение новых точек идут подряд.
+class TrailHistory {
+    private final SolarSystem solarSystem;
+    private final AsteroidState asteroids;
+    private final int bodyCount;
+    private final int asteroidCount;
+    private final int tracked;
+    private final int length;
+    private final int capacity;
+    private final int decimation;
+    private final double[] x;
+    private final double[] y;
+    private final double[] slotX;
+    private final double[] slotY;
+    private final double[] asteroidX;
+    private final double[] asteroidY;
+    // Номер следующей точки с начала записи; точка записана целиком до того, как он её покрывает
+    private volatile long head;
+    private long lastSample = Long.MIN_VALUE;
+
+    public TrailHistory(SolarSystem solarSystem, AsteroidState asteroids, int asteroidCount, int length, int decimation) {
+        if (length < 2 || decimation < 1) {
+            throw new IllegalArgumentException("Trail needs at least 2 points and a decimation of at least 1 step");
+        }
+        this.solarSystem = solarSystem;
+        this.asteroids = asteroids;
+        this.bodyCount = solarSystem.size();
+        this.asteroidCount = Math.min(asteroidCount, asteroids.size());
+        this.tracked = bodyCount + this.asteroidCount;
+        this.length = length;
+        this.capacity = length + Math.max(length / 8, 2);
+        this.decimation = decimation;
+        this.x = new double[capacity * tracked];
+        this.y = new double[capacity * tracked];
+        this.slotX = new double[bodyCount + 1];
+        this.slotY = new double[bodyCount + 1];
+        this.asteroidX = new double[this.asteroidCount];
+        this.asteroidY = new double[this.asteroidCount];
+    }
+
+    // Вызывается потоком физики после шагов: time - модельное время текущего состояния, steps шагов по dt.
+    // Записываются точки на всех пройденных шагах с номером, кратным decimation
+    public void record(long stepCount, double time, double dt, int steps) {
+        long first = Math.max(Math.floorDiv(stepCount - steps, decimation) + 1, lastSample + 1);
+        long last = Math.floorDiv(stepCount, decimation);
+        // Если за раз пройдено больше, чем помещается в буфер, старые точки всё равно были бы затёрты
+        first = Math.max(first, last - length + 1);
+        long written = head;
+        for (long sample = first; sample <= last; sample++) {
+            double sampleTime = time - (stepCount - sample * decimation) * dt;
+            solarSystem.positionsAt(sampleTime, slotX, slotY);
+            asteroids.positionsAt(0, asteroidCount, sampleTime - time, asteroidX, asteroidY);
+            int row = (int) (written % capacity) * tracked;
+            System.arraycopy(slotX, 1, x, row, bodyCount);
+            System.arraycopy(slotY, 1, y, row, bodyCount);
+            System.arraycopy(asteroidX, 0, x, row + bodyCount, asteroidCount);
+            System.arraycopy(asteroidY, 0, y, row + bodyCount, asteroidCount);
+            written++;
+            head = written;
+        }
+        lastSample = Math.max(lastSample, last);
+    }
+
+    public long getHead() {
+        return head;
+    }
+
+    // Номер самой старой точки, которую ещё можно читать
+    public long getOldest() {
+        return Math.max(0, head - length);
+    }
+
+    // Индекс начала строки точки sample в массивах getX/getY
+    public int rowOf(long sample) {
+        return (int) (sample % capacity) * tracked;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    // Первые bodyCount тел - тела системы в порядке SolarSystem.getBody, дальше астероиды
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    public int getTracked() {
+        return tracked;
+    }
+
+    public int getLength() {
+        return length;
+    }
+}
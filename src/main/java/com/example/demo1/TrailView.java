@@ -0,0 +1,351 @@
+package com.example.demo1;
+
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+
+// Следы тел в постоянном пиксельном слое. За кадр дорисовываются только отрезки к точкам истории,
+// пришедшим с прошлого кадра, а нарисованное раньше гаснет: слой поделён на полосы строк, и за кадр
+// тускнеет одна полоса сразу на все точки, накопившиеся с её прошлого затухания.
+// Сдвиг камеры без смены масштаба переносит слой на целые пиксели, остаток меньше полпикселя.
+// Целиком след перерисовывается только при смене масштаба или вида и после скрытия.
+class TrailView {
+    private static final int FADE_BANDS = 8;
+    // Непрозрачность самой старой точки следа, из 255
+    private static final double TAIL_ALPHA = 6;
+    // Астероидов много, их следы тусклее следов планет
+    private static final int ASTEROID_ALPHA = 110;
+    private static final int ASTEROID_COLOR = 0xFFFAF0E6; // Color.LINEN
+
+    private final TrailHistory history;
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final WritableImage image;
+    private final ImageView view;
+    private final int tracked;
+    private final int[] colors;
+    private final int[] parentIndex;
+    private final double fadePerSample;
+    private final int[] bandPending = new int[FADE_BANDS];
+    private double[] fromX;
+    private double[] fromY;
+    private double[] toX;
+    private double[] toY;
+    private int nextBand;
+    // Номер первой ещё не нарисованной точки; -1 - слой надо перерисовать целиком
+    private long drawn = -1;
+    private ViewMode drawnMode;
+    private double drawnScale;
+    // Масштаб прошлого кадра: пока он меняется, слой не перерисовывается, а прячется
+    private double lastScale = Double.NaN;
+    // Где на экране было начало координат мира, когда слой рисовался, с учётом целых сдвигов
+    private double drawnOriginX;
+    private double drawnOriginY;
+    private int dirtyTop;
+    private int dirtyBottom;
+    private double clipFrom;
+    private double clipTo;
+
+    private ViewMode mode;
+    private Camera camera;
+    private SchematicProjection projection;
+    private Viewport viewport;
+
+    public TrailView(TrailHistory history, SolarSystem solarSystem, double screenWidth, double screenHeight) {
+        this.history = history;
+        this.width = (int) Math.ceil(screenWidth);
+        this.height = (int) Math.ceil(screenHeight);
+        this.pixels = new int[width * height];
+        this.image = new WritableImage(width, height);
+        this.view = new ImageView(image);
+        this.view.setMouseTransparent(true);
+        this.view.setVisible(false);
+        this.tracked = history.getTracked();
+        this.colors = new int[history.getBodyCount()];
+        this.parentIndex = new int[history.getBodyCount()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = BodyPaints.argb(BodyPaints.flatColor(BodyPaints.forBody(solarSystem.getBody(i).getName())));
+            parentIndex[i] = solarSystem.getParentIndex(i);
+        }
+        this.fadePerSample = Math.pow(TAIL_ALPHA / 255, 1.0 / history.getLength());
+        this.fromX = new double[tracked];
+        this.fromY = new double[tracked];
+        this.toX = new double[tracked];
+        this.toY = new double[tracked];
+        this.dirtyTop = height;
+        this.dirtyBottom = -1;
+    }
+
+    public Node getView() {
+        return view;
+    }
+
+    // Скрытый слой не обновляется вовсе и при следующем показе рисуется заново
+    public void hide() {
+        if (view.isVisible()) {
+            view.setVisible(false);
+            drawn = -1;
+        }
+    }
+
+    // Вызывается из потока JavaFX, когда камера или схема уже обновлены на этот кадр
+    public void render(ViewMode mode, Camera camera, SchematicProjection projection, Viewport viewport) {
+        this.mode = mode;
+        this.camera = camera;
+        this.projection = projection;
+        this.viewport = viewport;
+        double scale;
+        double originX;
+        double originY;
+        if (mode == ViewMode.REAL) {
+            scale = camera.getMetresPerPixel();
+            originX = camera.toScreenX(0);
+            originY = camera.toScreenY(0);
+        } else {
+            scale = viewport.getZoom();
+            originX = viewport.toViewX(0);
+            originY = viewport.toViewY(0);
+        }
+
+        long head = history.getHead();
+        long oldest = history.getOldest();
+        boolean settled = scale == lastScale;
+        lastScale = scale;
+        if (mode != drawnMode || scale != drawnScale) {
+            // Перерисовка всего следа стоит десятков миллисекунд: при плавном масштабе она ждёт,
+            // пока масштаб перестанет меняться, а до тех пор слой скрыт
+            if (!settled) {
+                view.setVisible(false);
+                drawn = -1;
+                return;
+            }
+            drawn = -1;
+        }
+        view.setVisible(true);
+        if (drawn < 0 || drawn < oldest) {
+            redraw(oldest, head);
+            drawnMode = mode;
+            drawnScale = scale;
+            drawnOriginX = originX;
+            drawnOriginY = originY;
+        } else {
+            int dx = (int) Math.round(originX - drawnOriginX);
+            int dy = (int) Math.round(originY - drawnOriginY);
+            if (dx != 0 || dy != 0) {
+                shift(dx, dy);
+                drawnOriginX += dx;
+                drawnOriginY += dy;
+            }
+            append(Math.max(drawn, oldest + 1), head);
+        }
+        drawn = head;
+        fadeBand();
+        flush();
+    }
+
+    private void redraw(long oldest, long head) {
+        Arrays.fill(pixels, 0);
+        Arrays.fill(bandPending, 0);
+        markDirty(0, height - 1);
+        if (head - oldest < 2) {
+            return;
+        }
+        project(oldest, toX, toY);
+        for (long sample = oldest + 1; sample < head; sample++) {
+            segments(sample, head);
+        }
+    }
+
+    private void append(long from, long head) {
+        if (from >= head) {
+            return;
+        }
+        project(from - 1, toX, toY);
+        for (long sample = from; sample < head; sample++) {
+            segments(sample, head);
+        }
+        for (int band = 0; band < FADE_BANDS; band++) {
+            bandPending[band] += (int) (head - from);
+        }
+    }
+
+    // Отрезки всех тел от точки sample - 1, уже лежащей в toX/toY, к точке sample
+    private void segments(long sample, long head) {
+        double[] swap = fromX;
+        fromX = toX;
+        toX = swap;
+        swap = fromY;
+        fromY = toY;
+        toY = swap;
+        project(sample, toX, toY);
+        double age = Math.pow(fadePerSample, head - 1 - sample);
+        int alpha = (int) (255 * age);
+        for (int i = 0; i < colors.length; i++) {
+            segment(fromX[i], fromY[i], toX[i], toY[i], premultiply(colors[i], alpha));
+        }
+        int asteroidColor = premultiply(ASTEROID_COLOR, (int) (ASTEROID_ALPHA * age));
+        for (int i = colors.length; i < tracked; i++) {
+            segment(fromX[i], fromY[i], toX[i], toY[i], asteroidColor);
+        }
+    }
+
+    private static int premultiply(int color, int alpha) {
+        return alpha << 24
+                | ((color >>> 16 & 0xFF) * alpha / 255) << 16
+                | ((color >>> 8 & 0xFF) * alpha / 255) << 8
+                | (color & 0xFF) * alpha / 255;
+    }
+
+    // Экранные положения всех тел в точке sample, так же как в кадре: спутники на схеме от своей планеты
+    private void project(long sample, double[] outX, double[] outY) {
+        double[] x = history.getX();
+        double[] y = history.getY();
+        int row = history.rowOf(sample);
+        int count = tracked;
+        if (mode == ViewMode.REAL) {
+            for (int i = 0; i < count; i++) {
+                outX[i] = camera.toScreenX(x[row + i]);
+                outY[i] = camera.toScreenY(y[row + i]);
+            }
+            return;
+        }
+        projection.project(x, y, row, count, outX, outY);
+        for (int i = 0; i < colors.length; i++) {
+            int parent = parentIndex[i];
+            if (parent >= 0) {
+                outX[i] = projection.satelliteX(outX[parent], x[row + i] - x[row + parent]);
+                outY[i] = projection.satelliteY(outY[parent], y[row + i] - y[row + parent]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            outX[i] = viewport.toViewX(outX[i]);
+            outY[i] = viewport.toViewY(outY[i]);
+        }
+    }
+
+    // Отрезок сначала отсекается окном, поэтому вблизи огромные отрезки не перебираются попиксельно
+    private void segment(double x0, double y0, double x1, double y1, int color) {
+        if (color == 0) {
+            return;
+        }
+        double ax = x0;
+        double ay = y0;
+        double bx = x1;
+        double by = y1;
+        double right = width - 1e-3;
+        double bottom = height - 1e-3;
+        if (!(x0 >= 0 && x0 <= right && y0 >= 0 && y0 <= bottom && x1 >= 0 && x1 <= right && y1 >= 0 && y1 <= bottom)) {
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            clipFrom = 0;
+            clipTo = 1;
+            if (!(clip(-dx, x0) && clip(dx, right - x0) && clip(-dy, y0) && clip(dy, bottom - y0))) {
+                return;
+            }
+            ax = x0 + dx * clipFrom;
+            ay = y0 + dy * clipFrom;
+            bx = x0 + dx * clipTo;
+            by = y0 + dy * clipTo;
+        }
+        int steps = (int) Math.max(Math.abs(bx - ax), Math.abs(by - ay)) + 1;
+        double stepX = (bx - ax) / steps;
+        double stepY = (by - ay) / steps;
+        for (int k = 0; k <= steps; k++) {
+            pixels[(int) (ay + stepY * k) * width + (int) (ax + stepX * k)] = color;
+        }
+        markDirty((int) Math.min(ay, by), (int) Math.max(ay, by));
+    }
+
+    // Отсечение Лианга - Барски по одной границе; false - отрезок целиком снаружи или не число
+    private boolean clip(double p, double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if (p < 0) {
+            if (r > clipTo) {
+                return false;
+            }
+            clipFrom = Math.max(clipFrom, r);
+        } else {
+            if (!(r >= clipFrom)) {
+                return false;
+            }
+            clipTo = Math.min(clipTo, r);
+        }
+        return clipFrom <= clipTo;
+    }
+
+    private void shift(int dx, int dy) {
+        markDirty(0, height - 1);
+        if (Math.abs(dx) >= width || Math.abs(dy) >= height) {
+            Arrays.fill(pixels, 0);
+            return;
+        }
+        int columns = width - Math.abs(dx);
+        int source = Math.max(0, -dx);
+        int target = Math.max(0, dx);
+        // Строки копируются в порядке, при котором источник ещё не затёрт
+        for (int k = 0; k < height; k++) {
+            int row = dy > 0 ? height - 1 - k : k;
+            int from = row - dy;
+            int start = row * width;
+            if (from < 0 || from >= height) {
+                Arrays.fill(pixels, start, start + width, 0);
+                continue;
+            }
+            System.arraycopy(pixels, from * width + source, pixels, start + target, columns);
+            if (dx > 0) {
+                Arrays.fill(pixels, start, start + dx, 0);
+            } else if (dx < 0) {
+                Arrays.fill(pixels, start + columns, start + width, 0);
+            }
+        }
+    }
+
+    // Полоса тускнеет на все накопившиеся точки: все четыре канала premultiplied умножаются на scale / 256
+    private void fadeBand() {
+        int band = nextBand;
+        nextBand = (nextBand + 1) % FADE_BANDS;
+        int pending = bandPending[band];
+        if (pending == 0) {
+            return;
+        }
+        int scale = (int) Math.round(256 * Math.pow(fadePerSample, pending));
+        if (scale >= 256) {
+            // Слишком мало для одного шага в восемь бит - копится дальше
+            return;
+        }
+        bandPending[band] = 0;
+        int top = band * height / FADE_BANDS;
+        int end = (band + 1) * height / FADE_BANDS;
+        for (int i = top * width, last = end * width; i < last; i++) {
+            int pixel = pixels[i];
+            if (pixel != 0) {
+                pixels[i] = ((pixel & 0x00FF00FF) * scale >>> 8 & 0x00FF00FF)
+                        | ((pixel >>> 8 & 0x00FF00FF) * scale & 0xFF00FF00);
+            }
+        }
+        markDirty(top, end - 1);
+    }
+
+    private void markDirty(int top, int bottom) {
+        dirtyTop = Math.min(dirtyTop, top);
+        dirtyBottom = Math.max(dirtyBottom, bottom);
+    }
+
+    // В текстуру передаются только изменившиеся строки
+    private void flush() {
+        if (dirtyTop > dirtyBottom) {
+            return;
+        }
+        image.getPixelWriter().setPixels(0, dirtyTop, width, dirtyBottom - dirtyTop + 1,
+                PixelFormat.getIntArgbPreInstance(), pixels, dirtyTop * width, width);
+        dirtyTop = height;
+        dirtyBottom = -1;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo1;
+
+// Единицы модели: метры, секунды, килограммы
+final class Units {
+    static final double ASTRONOMICAL_UNIT = 1.495978707e11;
+    static final double DAY = 86400;
+    static final double JULIAN_YEAR = 365.25 * DAY;
+
+    private Units() {
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demo1;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+// Ядро на jdk.incubator.vector: столько тел за инструкцию, сколько double помещается в самый широкий
+// регистр машины (4 для AVX2, 8 для AVX-512). Таблица FastTrig тут не годится - чтение по индексу
+// не векторизуется, - поэтому sin и cos считаются многочленами. Все операции поэлементные, хвост диапазона
+// считается той же формулой, так что результат для тела не зависит ни от ширины вектора, ни от того,
+// как диапазон разбит на куски. Шаг совпадает со скалярным побитно, положения - с точностью float.
+final class VectorOrbitKernel implements OrbitKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.length() * Float.SIZE));
+    // Тел в куске положений: кратно любой ширине вектора, рабочие массивы куска помещаются в L2
+    private static final int TILE = 1024;
+    private static final double[] NEWTON_THRESHOLDS = {0.3, 0.7, 0.85};
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final double TWO_OVER_PI = 2 / Math.PI;
+    // π/2 в двух частях (Коди - Уэйт): k * PI_OVER_2_HIGH точно для малых k
+    private static final double PI_OVER_2_HIGH = 1.57079632673412561417e+00;
+    private static final double PI_OVER_2_LOW = 6.07710050650619224932e-11;
+    private static final double ROUND = 0x1.8p52;
+    private static final double S1 = -1.0 / 6;
+    private static final double S2 = 1.0 / 120;
+    private static final double S3 = -1.0 / 5040;
+    private static final double S4 = 1.0 / 362880;
+    private static final double S5 = -1.0 / 39916800;
+    private static final double C1 = -1.0 / 2;
+    private static final double C2 = 1.0 / 24;
+    private static final double C3 = -1.0 / 720;
+    private static final double C4 = 1.0 / 40320;
+    private static final double C5 = -1.0 / 3628800;
+    private static final double C6 = 1.0 / 479001600;
+
+    // Рабочий кусок на поток: куски пояса считаются параллельно, а положения пишутся каждый кадр и срез
+    private final ThreadLocal<Tile> tiles = ThreadLocal.withInitial(Tile::new);
+
+    // На SSE (2 x double) вектор из двух float C2 не собирает в инструкции, и ядро в разы медленнее скалярного
+    @Override
+    public boolean isUseful() {
+        return DOUBLES.length() >= 4;
+    }
+
+    @Override
+    public String describe() {
+        return "vector, " + DOUBLES.length() + " x double";
+    }
+
+    @Override
+    public void step(double[] angle, float[] angularVelocity, int from, int to, double dt) {
+        int i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            DoubleVector a = DoubleVector.fromArray(DOUBLES, angle, i)
+                    .add(widen(FloatVector.fromArray(FLOATS, angularVelocity, i)).mul(dt));
+            wrap(a).intoArray(angle, i);
+        }
+        if (i < to) {
+            VectorMask<Double> mask = DOUBLES.indexInRange(i, to);
+            DoubleVector a = DoubleVector.fromArray(DOUBLES, angle, i, mask)
+                    .add(widen(FloatVector.fromArray(FLOATS, angularVelocity, i, FLOATS.indexInRange(i, to))).mul(dt));
+            wrap(a).intoArray(angle, i, mask);
+        }
+    }
+
+    // Те же сравнения, что в скалярном шаге: угол остаётся в [0, 2π)
+    private static DoubleVector wrap(DoubleVector a) {
+        return a.sub(TWO_PI, a.compare(VectorOperators.GE, TWO_PI)).add(TWO_PI, a.compare(VectorOperators.LT, 0));
+    }
+
+    // Уравнение Кеплера решается как в KeplerSolver.eccentricAnomalyFast: то же начальное приближение
+    // и столько же шагов Ньютона для каждого тела. Решение идёт короткими проходами по куску тел:
+    // длинная функция на векторах не укладывается в пределы встраивания C2, и векторы превращаются в объекты
+    @Override
+    public void positions(double[] radius, double[] angle, float[] eccentricity, float[] minorAxisFactor,
+                          float[] periapsisCos, float[] periapsisSin, int from, int to,
+                          double centerX, double centerY, float[] x, float[] y, int offset) {
+        Tile tile = tiles.get();
+        for (int start = from; start < to; start += TILE) {
+            int count = Math.min(TILE, to - start);
+            int padded = (count + DOUBLES.length() - 1) / DOUBLES.length() * DOUBLES.length();
+            tile.load(radius, angle, eccentricity, minorAxisFactor, periapsisCos, periapsisSin, start, count, padded);
+            trigonometry(tile, tile.meanAnomaly, padded, 0);
+            start(tile, padded);
+            trigonometry(tile, tile.eccentricAnomaly, padded, 0);
+            refine(tile, padded);
+            refine(tile, padded);
+            // Ещё по два шага с полным sin и cos для e >= 0.3, 0.7 и 0.85, как в скалярном решении
+            for (double threshold : NEWTON_THRESHOLDS) {
+                for (int k = 0; k < 2 && tile.maxEccentricity >= threshold; k++) {
+                    trigonometry(tile, tile.eccentricAnomaly, padded, threshold);
+                    newton(tile, padded, threshold);
+                }
+            }
+            if (tile.maxEccentricity >= NEWTON_THRESHOLDS[0]) {
+                trigonometry(tile, tile.eccentricAnomaly, padded, NEWTON_THRESHOLDS[0]);
+            }
+            finish(tile, padded, centerX, centerY);
+            System.arraycopy(tile.x, 0, x, offset + start - from, count);
+            System.arraycopy(tile.y, 0, y, offset + start - from, count);
+        }
+    }
+
+    // Начальное приближение E по sin M, уже посчитанному в sinE
+    private static void start(Tile tile, int padded) {
+        for (int i = 0; i < padded; i += DOUBLES.length()) {
+            DoubleVector e = DoubleVector.fromArray(DOUBLES, tile.eccentricity, i);
+            DoubleVector.fromArray(DOUBLES, tile.meanAnomaly, i)
+                    .add(e.mul(DoubleVector.fromArray(DOUBLES, tile.sinE, i)))
+                    .blend(Math.PI, e.compare(VectorOperators.GE, 0.8))
+                    .intoArray(tile.eccentricAnomaly, i);
+        }
+    }
+
+    // Полные sin и cos угла из angle в sinE и cosE для тел с e >= threshold; векторы без таких тел пропускаются.
+    // angle = k·π/2 + t, |t| <= π/4: прибавка ROUND округляет angle·2/π до целого k, и k остаётся в младших битах.
+    // В нечётных четвертях sin и cos t меняются местами, знак - по четверти
+    private static void trigonometry(Tile tile, double[] angle, int padded, double threshold) {
+        for (int i = 0; i < padded; i += DOUBLES.length()) {
+            VectorMask<Double> mask = DoubleVector.fromArray(DOUBLES, tile.eccentricity, i)
+                    .compare(VectorOperators.GE, threshold);
+            if (!mask.anyTrue()) {
+                continue;
+            }
+            DoubleVector x = DoubleVector.fromArray(DOUBLES, angle, i);
+            DoubleVector shifted = x.mul(TWO_OVER_PI).add(ROUND);
+            DoubleVector k = shifted.sub(ROUND);
+            DoubleVector t = x.sub(k.mul(PI_OVER_2_HIGH)).sub(k.mul(PI_OVER_2_LOW));
+            DoubleVector sinT = sinPolynomial(t);
+            DoubleVector cosT = cosPolynomial(t);
+            LongVector quarter = shifted.reinterpretAsLongs();
+            VectorMask<Double> odd = quarter.and(1L).compare(VectorOperators.NE, 0L).cast(DOUBLES);
+            VectorMask<Double> sinNegative = quarter.and(2L).compare(VectorOperators.NE, 0L).cast(DOUBLES);
+            VectorMask<Double> cosNegative = quarter.add(1L).and(2L).compare(VectorOperators.NE, 0L).cast(DOUBLES);
+            DoubleVector sin = sinT.blend(cosT, odd).lanewise(VectorOperators.NEG, sinNegative);
+            DoubleVector cos = cosT.blend(sinT, odd).lanewise(VectorOperators.NEG, cosNegative);
+            DoubleVector.fromArray(DOUBLES, tile.sinE, i).blend(sin, mask).intoArray(tile.sinE, i);
+            DoubleVector.fromArray(DOUBLES, tile.cosE, i).blend(cos, mask).intoArray(tile.cosE, i);
+        }
+    }
+
+    // Шаг Ньютона для всех тел. sin и cos E после шага на d не считаются заново,
+    // а поворачиваются на d по формулам сложения, где хватает многочленов без приведения
+    private static void refine(Tile tile, int padded) {
+        for (int i = 0; i < padded; i += DOUBLES.length()) {
+            DoubleVector eccentricAnomaly = DoubleVector.fromArray(DOUBLES, tile.eccentricAnomaly, i);
+            DoubleVector sinE = DoubleVector.fromArray(DOUBLES, tile.sinE, i);
+            DoubleVector cosE = DoubleVector.fromArray(DOUBLES, tile.cosE, i);
+            DoubleVector d = correction(eccentricAnomaly, DoubleVector.fromArray(DOUBLES, tile.meanAnomaly, i),
+                    DoubleVector.fromArray(DOUBLES, tile.eccentricity, i), sinE, cosE);
+            DoubleVector sinD = sinPolynomial(d);
+            DoubleVector cosD = cosPolynomial(d);
+            eccentricAnomaly.add(d).intoArray(tile.eccentricAnomaly, i);
+            sinE.mul(cosD).add(cosE.mul(sinD)).intoArray(tile.sinE, i);
+            cosE.mul(cosD).sub(sinE.mul(sinD)).intoArray(tile.cosE, i);
+        }
+    }
+
+    // Шаг Ньютона для тел с e >= threshold по уже посчитанным sin и cos
+    private static void newton(Tile tile, int padded, double threshold) {
+        for (int i = 0; i < padded; i += DOUBLES.length()) {
+            DoubleVector e = DoubleVector.fromArray(DOUBLES, tile.eccentricity, i);
+            VectorMask<Double> mask = e.compare(VectorOperators.GE, threshold);
+            if (!mask.anyTrue()) {
+                continue;
+            }
+            DoubleVector eccentricAnomaly = DoubleVector.fromArray(DOUBLES, tile.eccentricAnomaly, i);
+            DoubleVector d = correction(eccentricAnomaly, DoubleVector.fromArray(DOUBLES, tile.meanAnomaly, i), e,
+                    DoubleVector.fromArray(DOUBLES, tile.sinE, i), DoubleVector.fromArray(DOUBLES, tile.cosE, i));
+            eccentricAnomaly.add(d, mask).intoArray(tile.eccentricAnomaly, i);
+        }
+    }
+
+    private static void finish(Tile tile, int padded, double centerX, double centerY) {
+        for (int i = 0; i < padded; i += DOUBLES.length()) {
+            DoubleVector r = DoubleVector.fromArray(DOUBLES, tile.radius, i);
+            DoubleVector e = DoubleVector.fromArray(DOUBLES, tile.eccentricity, i);
+            // Круговая орбита, как и в скалярном цикле, отсчитывается от оси x без поворота на перицентр
+            VectorMask<Double> circular = e.compare(VectorOperators.EQ, 0);
+            DoubleVector cosW = DoubleVector.fromArray(DOUBLES, tile.periapsisCos, i).blend(1, circular);
+            DoubleVector sinW = DoubleVector.fromArray(DOUBLES, tile.periapsisSin, i).blend(0, circular);
+            DoubleVector px = r.mul(DoubleVector.fromArray(DOUBLES, tile.cosE, i).sub(e));
+            DoubleVector py = r.mul(DoubleVector.fromArray(DOUBLES, tile.minorAxisFactor, i))
+                    .mul(DoubleVector.fromArray(DOUBLES, tile.sinE, i));
+            narrow(px.mul(cosW).sub(py.mul(sinW)).add(centerX)).intoArray(tile.x, i);
+            narrow(px.mul(sinW).add(py.mul(cosW)).add(centerY)).intoArray(tile.y, i);
+        }
+    }
+
+    // Шаг Ньютона для E - e·sin E = M
+    private static DoubleVector correction(DoubleVector eccentricAnomaly, DoubleVector meanAnomaly, DoubleVector e,
+                                           DoubleVector sinE, DoubleVector cosE) {
+        return eccentricAnomaly.sub(e.mul(sinE)).sub(meanAnomaly).div(e.mul(cosE).sub(1));
+    }
+
+    // Ряды Тейлора: на |t| <= π/4 погрешность sin меньше 7e-12, cos - меньше 4e-13,
+    // на |t| <= 1 (поправки Ньютона) - меньше 2e-10
+    private static DoubleVector sinPolynomial(DoubleVector t) {
+        DoubleVector z = t.mul(t);
+        DoubleVector p = z.mul(S5).add(S4).mul(z).add(S3).mul(z).add(S2).mul(z).add(S1);
+        return t.add(t.mul(z).mul(p));
+    }
+
+    private static DoubleVector cosPolynomial(DoubleVector t) {
+        DoubleVector z = t.mul(t);
+        DoubleVector p = z.mul(C6).add(C5).mul(z).add(C4).mul(z).add(C3).mul(z).add(C2).mul(z).add(C1);
+        return z.mul(p).add(1);
+    }
+
+    private static DoubleVector widen(FloatVector v) {
+        return (DoubleVector) v.convertShape(VectorOperators.F2D, DOUBLES, 0);
+    }
+
+    private static FloatVector narrow(DoubleVector v) {
+        return (FloatVector) v.convertShape(VectorOperators.D2F, FLOATS, 0);
+    }
+
+    // Кусок тел, переписанный в double: все проходы читают подряд одни и те же массивы,
+    // а хвост короче вектора дополнен нулями
+    private static final class Tile {
+        final double[] radius = new double[TILE];
+        final double[] meanAnomaly = new double[TILE];
+        final double[] eccentricity = new double[TILE];
+        final double[] minorAxisFactor = new double[TILE];
+        final double[] periapsisCos = new double[TILE];
+        final double[] periapsisSin = new double[TILE];
+        final double[] eccentricAnomaly = new double[TILE];
+        final double[] sinE = new double[TILE];
+        final double[] cosE = new double[TILE];
+        final float[] x = new float[TILE];
+        final float[] y = new float[TILE];
+        final double[][] inputs = {radius, meanAnomaly, eccentricity, minorAxisFactor, periapsisCos, periapsisSin};
+        double maxEccentricity;
+
+        void load(double[] radius, double[] angle, float[] eccentricity, float[] minorAxisFactor,
+                  float[] periapsisCos, float[] periapsisSin, int start, int count, int padded) {
+            DoubleVector max = DoubleVector.zero(DOUBLES);
+            int i = 0;
+            for (int bound = DOUBLES.loopBound(count); i < bound; i += DOUBLES.length()) {
+                int j = start + i;
+                DoubleVector.fromArray(DOUBLES, radius, j).intoArray(this.radius, i);
+                DoubleVector.fromArray(DOUBLES, angle, j).intoArray(this.meanAnomaly, i);
+                DoubleVector e = widen(FloatVector.fromArray(FLOATS, eccentricity, j));
+                e.intoArray(this.eccentricity, i);
+                max = max.max(e);
+                widen(FloatVector.fromArray(FLOATS, minorAxisFactor, j)).intoArray(this.minorAxisFactor, i);
+                widen(FloatVector.fromArray(FLOATS, periapsisCos, j)).intoArray(this.periapsisCos, i);
+                widen(FloatVector.fromArray(FLOATS, periapsisSin, j)).intoArray(this.periapsisSin, i);
+            }
+            maxEccentricity = max.reduceLanes(VectorOperators.MAX);
+            for (; i < count; i++) {
+                this.radius[i] = radius[start + i];
+                this.meanAnomaly[i] = angle[start + i];
+                this.eccentricity[i] = eccentricity[start + i];
+                maxEccentricity = Math.max(maxEccentricity, this.eccentricity[i]);
+                this.minorAxisFactor[i] = minorAxisFactor[start + i];
+                this.periapsisCos[i] = periapsisCos[start + i];
+                this.periapsisSin[i] = periapsisSin[start + i];
+            }
+            for (double[] column : inputs) {
+                Arrays.fill(column, count, padded, 0);
+            }
+        }
+    }
+}
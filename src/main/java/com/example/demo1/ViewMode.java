@@ -0,0 +1,16 @@
+package com.example.demo1;
+
+// Как мир в метрах переводится на экран
+enum ViewMode {
+    // Настоящий масштаб: камера в метрах с плавающим началом
+    REAL,
+    // Логарифмическая схема, в которой вся система помещается на экран
+    SCHEMATIC;
+
+    static ViewMode parse(String value) {
+        if (value == null) {
+            return REAL;
+        }
+        return ViewMode.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+}
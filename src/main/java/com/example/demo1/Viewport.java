@@ -0,0 +1,75 @@
+package com.example.demo1;
+
+// Масштаб и сдвиг поверх схемы: точка схемы (x, y) попадает на экран в
+// (x - cx) * zoom + cx + panX. Отсечение по прямоугольнику окна тоже здесь.
+class Viewport {
+    private static final double MIN_ZOOM = 0.25;
+    private static final double MAX_ZOOM = 2000;
+
+    private final double width;
+    private final double height;
+    private final double centerX;
+    private final double centerY;
+    private double zoom = 1;
+    private double panX;
+    private double panY;
+
+    public Viewport(double width, double height) {
+        this.width = width;
+        this.height = height;
+        this.centerX = width / 2;
+        this.centerY = height / 2;
+    }
+
+    public double toViewX(double x) {
+        return (x - centerX) * zoom + centerX + panX;
+    }
+
+    public double toViewY(double y) {
+        return (y - centerY) * zoom + centerY + panY;
+    }
+
+    public void apply(float[] x, float[] y, int count) {
+        double scale = zoom;
+        double shiftX = centerX + panX - centerX * scale;
+        double shiftY = centerY + panY - centerY * scale;
+        for (int i = 0; i < count; i++) {
+            x[i] = (float) (x[i] * scale + shiftX);
+            y[i] = (float) (y[i] * scale + shiftY);
+        }
+    }
+
+    // Попадает ли в окно круг радиуса margin вокруг точки
+    public boolean contains(double x, double y, double margin) {
+        return x >= -margin && y >= -margin && x <= width + margin && y <= height + margin;
+    }
+
+    // Пересекает ли окно с полем margin прямоугольник экрана
+    public boolean intersects(double minX, double minY, double maxX, double maxY, double margin) {
+        return maxX >= -margin && maxY >= -margin && minX <= width + margin && minY <= height + margin;
+    }
+
+    // Масштаб вокруг точки экрана: точка под курсором остаётся на месте
+    public void zoomAt(double factor, double screenX, double screenY) {
+        double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        double applied = newZoom / zoom;
+        panX = (panX + centerX - screenX) * applied + screenX - centerX;
+        panY = (panY + centerY - screenY) * applied + screenY - centerY;
+        zoom = newZoom;
+    }
+
+    public void pan(double dx, double dy) {
+        panX += dx;
+        panY += dy;
+    }
+
+    public void reset() {
+        zoom = 1;
+        panX = 0;
+        panY = 0;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+}
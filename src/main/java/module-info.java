@@ -10,6 +10,9 @@ module com.example.demo1 {
     requires org.kordamp.bootstrapfx.core;
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
+    requires java.management;
+    requires jdk.management;
+    requires static jdk.incubator.vector;
 
     opens com.example.demo1 to javafx.fxml;
     exports com.example.demo1;
@@ -0,0 +1,166 @@
+package com.example.demo1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointTest {
+    private static final double STEP = 21600;
+    private static final long SEED = 42;
+
+    @Test
+    void roundTripRestoresClockBodiesBeltAndRings() throws IOException {
+        SolarSystem solarSystem = SolarSystemFactory.create(null);
+        AsteroidBelt asteroidBelt = SolarSystemFactory.createAsteroidBelt(solarSystem, null, 1000, 1, SEED);
+        List<RingSystem> rings = SolarSystemFactory.createRings(solarSystem, 500, SEED);
+        SimulationClock clock = new SimulationClock(STEP, 256);
+        clock.setTimeScale(Units.JULIAN_YEAR);
+        for (int k = 0; k < 37; k++) {
+            solarSystem.step(0, solarSystem.size(), STEP);
+            asteroidBelt.step(0, asteroidBelt.size(), STEP);
+        }
+        clock.restore(37, 1234.5);
+
+        byte[] bytes = write(clock, solarSystem, asteroidBelt, rings);
+        Checkpoint checkpoint = Checkpoint.read(ByteBuffer.wrap(bytes), "test");
+
+        assertEquals(SEED, checkpoint.getSeed());
+        SimulationClock restored = checkpoint.createClock(256);
+        assertEquals(STEP, restored.getFixedStep());
+        assertEquals(37, restored.getStepCount());
+        assertEquals(1234.5, restored.getAccumulator());
+        assertEquals(Units.JULIAN_YEAR, restored.getTimeScale());
+
+        SolarSystem loaded = checkpoint.getSolarSystem();
+        assertEquals(solarSystem.size(), loaded.size());
+        assertEquals(solarSystem.getTime(), loaded.getTime());
+        for (int i = 0; i < solarSystem.size(); i++) {
+            assertEquals(solarSystem.getBody(i).getName(), loaded.getBody(i).getName());
+            assertEquals(solarSystem.getParentIndex(i), loaded.getParentIndex(i));
+        }
+        assertArrayEquals(positions(solarSystem), positions(loaded));
+        assertArrayEquals(positions(asteroidBelt), positions(checkpoint.getAsteroidBelt()));
+
+        assertFalse(rings.isEmpty());
+        assertEquals(rings.size(), checkpoint.getRings().size());
+        double time = solarSystem.getTime() + 3600;
+        for (int k = 0; k < rings.size(); k++) {
+            RingSystem ring = checkpoint.getRings().get(k);
+            assertEquals(rings.get(k).getPlanet().getName(), ring.getPlanet().getName());
+            assertArrayEquals(positions(rings.get(k), time), positions(ring, time));
+        }
+
+        // Снимок прочитанного состояния совпадает с исходным байт в байт
+        assertArrayEquals(bytes, write(restored, loaded, checkpoint.getAsteroidBelt(), checkpoint.getRings()));
+    }
+
+    // Продолжение со снимка под взаимным притяжением идёт бит в бит как без остановки
+    @Test
+    void nBodyStateContinuesWhereItStopped() throws IOException {
+        SolarSystem solarSystem = SolarSystemFactory.create(null);
+        GravitySystem gravity = new GravitySystem(solarSystem, GravityMode.BRUTE_FORCE);
+        AsteroidBelt asteroidBelt = smallBelt();
+        SimulationClock clock = new SimulationClock(STEP, 256);
+        for (int k = 0; k < 40; k++) {
+            gravity.step(0, gravity.size(), STEP);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Checkpoint.write(new CheckpointWriter(), Channels.newChannel(out), clock, SEED, solarSystem, gravity,
+                asteroidBelt, List.of());
+        Checkpoint checkpoint = Checkpoint.read(ByteBuffer.wrap(out.toByteArray()), "test");
+        GravitySystem resumed = checkpoint.getGravity();
+        assertEquals(GravityMode.BRUTE_FORCE, resumed.getMode());
+        assertEquals(gravity.totalEnergy(), resumed.totalEnergy());
+
+        for (int k = 0; k < 40; k++) {
+            gravity.step(0, gravity.size(), STEP);
+            resumed.step(0, resumed.size(), STEP);
+        }
+        assertArrayEquals(positions(gravity), positions(resumed));
+        assertEquals(solarSystem.getTime(), checkpoint.getSolarSystem().getTime());
+    }
+
+    @Test
+    void keplerCheckpointHasNoNBodyState() throws IOException {
+        byte[] bytes = write(new SimulationClock(STEP, 256), SolarSystemFactory.create(null), smallBelt(), List.of());
+        assertNull(Checkpoint.read(ByteBuffer.wrap(bytes), "test").getGravity());
+    }
+
+    @Test
+    void truncatedCheckpointIsRejected() throws IOException {
+        byte[] bytes = write(new SimulationClock(STEP, 256), SolarSystemFactory.create(null), smallBelt(),
+                List.of());
+        for (int length : new int[]{0, 4, 8, 20, 48, bytes.length / 2, bytes.length - 1}) {
+            ByteBuffer in = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> Checkpoint.read(in, "truncated"), "length " + length);
+        }
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        byte[] bytes = write(new SimulationClock(STEP, 256), SolarSystemFactory.create(null), smallBelt(),
+                List.of());
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(Integer.BYTES, Checkpoint.VERSION + 1);
+        IOException e = assertThrows(IOException.class, () -> Checkpoint.read(ByteBuffer.wrap(bytes), "future"));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+    }
+
+    @Test
+    void foreignFileIsRejected() {
+        byte[] bytes = "designation,a_au,e\n".getBytes();
+        assertThrows(IOException.class, () -> Checkpoint.read(ByteBuffer.wrap(bytes), "catalog"));
+    }
+
+    private static AsteroidBelt smallBelt() throws IOException {
+        return SolarSystemFactory.createAsteroidBelt(SolarSystemFactory.create(null), null, 10, 1, SEED);
+    }
+
+    private static byte[] write(SimulationClock clock, SolarSystem solarSystem, AsteroidBelt asteroidBelt,
+                                List<RingSystem> rings) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Checkpoint.write(new CheckpointWriter(), Channels.newChannel(out), clock, SEED, solarSystem, null, asteroidBelt, rings);
+        return out.toByteArray();
+    }
+
+    private static double[] positions(SolarSystem solarSystem) {
+        double[] x = new double[solarSystem.size() + 1];
+        double[] y = new double[solarSystem.size() + 1];
+        solarSystem.positionsAt(solarSystem.getTime(), x, y);
+        double[] xy = Arrays.copyOf(x, 2 * x.length);
+        System.arraycopy(y, 0, xy, x.length, y.length);
+        return xy;
+    }
+
+    private static float[] positions(BodyStore store) {
+        float[] x = new float[store.size()];
+        float[] y = new float[store.size()];
+        store.writePositions(0, store.size(), 0, 0, x, y, 0);
+        return concat(x, y);
+    }
+
+    private static float[] positions(RingSystem ring, double time) {
+        float[] x = new float[ring.size()];
+        float[] y = new float[ring.size()];
+        ring.positions(0, ring.size(), time, 0, 0, 1, x, y, 0);
+        return concat(x, y);
+    }
+
+    private static float[] concat(float[] x, float[] y) {
+        float[] xy = Arrays.copyOf(x, 2 * x.length);
+        System.arraycopy(y, 0, xy, x.length, y.length);
+        return xy;
+    }
+}
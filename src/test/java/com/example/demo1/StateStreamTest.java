@@ -0,0 +1,138 @@
+package com.example.demo1;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateStreamTest {
+    private static final double QUANTUM = 1000;
+
+    @Test
+    void varLongRoundTripsAtByteBoundaries() {
+        long[] values = {0, 1, 127, 128, 16383, 16384, (1L << 35) - 1, 1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        int[] bytes = {1, 1, 1, 2, 2, 3, 5, 6, 9, 10, 10};
+        for (int k = 0; k < values.length; k++) {
+            ByteBuffer buffer = StateStream.allocate(16);
+            StateStream.putVarLong(buffer, values[k]);
+            assertEquals(bytes[k], buffer.position(), "bytes for " + values[k]);
+            assertEquals(values[k], StateStream.getVarLong(buffer.flip()));
+        }
+    }
+
+    @Test
+    void zigzagKeepsSmallValuesSmall() {
+        assertEquals(0, StateStream.zigzag(0));
+        assertEquals(1, StateStream.zigzag(-1));
+        assertEquals(2, StateStream.zigzag(1));
+        assertEquals(3, StateStream.zigzag(-2));
+        assertEquals(0xFFFFFFFFL, StateStream.zigzag(Integer.MIN_VALUE));
+        assertEquals(-2, StateStream.zigzag(Long.MAX_VALUE));
+        assertEquals(-1, StateStream.zigzag(Long.MIN_VALUE));
+        for (long value : new long[]{0, 1, -1, 63, -64, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(value, StateStream.unzigzag(StateStream.zigzag(value)));
+        }
+    }
+
+    @Test
+    void deltaFrameCarriesOnlyChangedBodies() {
+        int bodies = 5;
+        long[] qx = {0, -7, 1_000_000_000_000L, 42, -3};
+        long[] qy = {5, 8, -1_000_000_000_000L, 42, 300};
+        int[] sentX = new int[bodies];
+        int[] sentY = new int[bodies];
+        long[] viewerX = new long[bodies];
+        long[] viewerY = new long[bodies];
+        StateSnapshot snapshot = new StateSnapshot(bodies);
+        snapshot.tick = 17;
+        snapshot.simulationTime = 367200;
+        snapshot.timeScale = Units.DAY;
+
+        assertEquals(bodies, send(snapshot, qx, qy, sentX, sentY, true, viewerX, viewerY));
+        assertArrayEquals(qx, viewerX);
+        assertArrayEquals(qy, viewerY);
+
+        assertEquals(0, send(snapshot, qx, qy, sentX, sentY, false, viewerX, viewerY));
+
+        qx[1] -= 1;
+        qy[3] += 200;
+        qx[4] += 1 << 20;
+        assertEquals(3, send(snapshot, qx, qy, sentX, sentY, false, viewerX, viewerY));
+        assertArrayEquals(qx, viewerX);
+        assertArrayEquals(qy, viewerY);
+    }
+
+    // Нептун в 4,5 млрд км от Солнца: в километровых квантах его координаты не помещаются в int,
+    // и младшие 32 бита, по которым строятся разности, переходят через 2^31 и 2^32
+    @Test
+    void neptuneSurvivesThirtyTwoBitWraparound() {
+        CelestialBody neptune = null;
+        SolarSystem solarSystem = SystemCatalog.loadDefault();
+        for (int i = 0; i < solarSystem.size(); i++) {
+            if (solarSystem.getBody(i).getName().equals("Neptune")) {
+                neptune = solarSystem.getBody(i);
+            }
+        }
+        long[] qx = new long[1];
+        long[] qy = new long[1];
+        int[] sentX = new int[1];
+        int[] sentY = new int[1];
+        long[] viewerX = new long[1];
+        long[] viewerY = new long[1];
+        StateSnapshot snapshot = new StateSnapshot(1);
+        double[] position = new double[2];
+        // Полный оборот за 2000 кадров, опорный кадр только первый
+        double period = 60189 * Units.DAY;
+        long wraps = 0;
+        for (int frame = 0; frame <= 2000; frame++) {
+            neptune.positionAt(frame * period / 2000, position);
+            long previousX = qx[0];
+            qx[0] = Math.round(position[0] / QUANTUM);
+            qy[0] = Math.round(position[1] / QUANTUM);
+            // Знак младших 32 бит сменился, а знак самого числа нет
+            if (frame > 0 && ((int) previousX < 0) != ((int) qx[0] < 0) && (previousX < 0) == (qx[0] < 0)) {
+                wraps++;
+            }
+            send(snapshot, qx, qy, sentX, sentY, frame == 0, viewerX, viewerY);
+            assertEquals(qx[0], viewerX[0], "frame " + frame);
+            assertEquals(qy[0], viewerY[0], "frame " + frame);
+        }
+        assertTrue(wraps > 0, "orbit never crossed 2^31 or 2^32 quanta");
+    }
+
+    @Test
+    void quantizeAddsOriginInDouble() {
+        StateSnapshot snapshot = new StateSnapshot(1);
+        snapshot.originX = 4.5e12;
+        snapshot.originY = -4.5e12;
+        snapshot.x[0] = 1500;
+        snapshot.y[0] = -2499;
+        long[] qx = new long[1];
+        long[] qy = new long[1];
+        StateStream.quantize(snapshot, 1, QUANTUM, qx, qy);
+        assertEquals(4_500_000_002L, qx[0]);
+        assertEquals(-4_500_000_002L, qy[0]);
+    }
+
+    // Кадр с сервера и разбор его на стороне зрителя; возвращает число тел в кадре
+    private static int send(StateSnapshot snapshot, long[] qx, long[] qy, int[] sentX, int[] sentY, boolean key,
+                            long[] viewerX, long[] viewerY) {
+        int bodies = qx.length;
+        ByteBuffer buffer = StateStream.allocate(StateStream.maxFrameBytes(bodies, key));
+        StateStream.encodeFrame(buffer, snapshot, qx, qy, sentX, sentY, bodies, key);
+        buffer.flip();
+        assertEquals(buffer.remaining() - Integer.BYTES, buffer.getInt());
+        assertEquals(StateStream.FRAME, buffer.get());
+        assertEquals(snapshot.tick, buffer.getLong());
+        assertEquals(snapshot.simulationTime, buffer.getDouble());
+        assertEquals(snapshot.timeScale, buffer.getDouble());
+        assertEquals(key ? 1 : 0, buffer.get());
+        int count = buffer.getInt(buffer.position());
+        StateStream.decodeBodies(buffer, key, viewerX, viewerY);
+        assertEquals(0, buffer.remaining());
+        return count;
+    }
+}
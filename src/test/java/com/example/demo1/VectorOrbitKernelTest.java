@@ -0,0 +1,85 @@
+package com.example.demo1;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Векторное ядро против точного решения KeplerSolver и против скалярных циклов AsteroidState.
+// Без модуля jdk.incubator.vector или на узких векторах ядро не грузится, и тесты пропускаются
+class VectorOrbitKernelTest {
+    private static final double SEMI_MAJOR_AXIS = 2.7 * Units.ASTRONOMICAL_UNIT;
+    private static final int ECCENTRICITIES = 20;
+    private static final int ANGLES = 1000;
+    // Положения в float: относительная точность около 6e-8 от расстояния до Солнца
+    private static final double TOLERANCE = 2e-7;
+
+    @Test
+    void positionsMatchKeplerSolverUpToHighEccentricity() {
+        assumeTrue(AsteroidState.describeKernel().startsWith("vector"), "vector kernel is not available");
+        AsteroidState state = createState();
+        int n = state.size();
+        float[] x = new float[n];
+        float[] y = new float[n];
+        state.positions(0, n, 0, 0, x, y, 0);
+        double[] exact = new double[2];
+        for (int i = 0; i < n; i++) {
+            state.positionAt(i, 0, exact);
+            double error = Math.hypot(x[i] - exact[0], y[i] - exact[1]) / SEMI_MAJOR_AXIS;
+            assertEquals(0, error, TOLERANCE, "e = " + state.getEccentricity(i) + ", M = " + state.getAngle(i));
+        }
+    }
+
+    @Test
+    void resultDoesNotDependOnChunking() {
+        assumeTrue(AsteroidState.describeKernel().startsWith("vector"), "vector kernel is not available");
+        AsteroidState state = createState();
+        int n = state.size();
+        float[] x = new float[n];
+        float[] y = new float[n];
+        float[] chunkX = new float[n + 3];
+        float[] chunkY = new float[n + 3];
+        state.positions(0, n, 1e3, -2e3, x, y, 0);
+        // Неровные куски со сдвигом в выходных массивах
+        for (int from = 0; from < n; from += 777) {
+            state.positions(from, Math.min(n, from + 777), 1e3, -2e3, chunkX, chunkY, from + 3);
+        }
+        assertArrayEquals(x, Arrays.copyOfRange(chunkX, 3, n + 3));
+        assertArrayEquals(y, Arrays.copyOfRange(chunkY, 3, n + 3));
+    }
+
+    @Test
+    void stepMatchesScalarBitForBit() {
+        assumeTrue(AsteroidState.describeKernel().startsWith("vector"), "vector kernel is not available");
+        AsteroidState vector = createState();
+        AsteroidState scalar = createState();
+        scalar.setVectorized(false);
+        for (int k = 0; k < 50; k++) {
+            vector.step(0, vector.size(), 21600 * 37.3);
+            scalar.step(0, scalar.size(), 21600 * 37.3);
+        }
+        for (int i = 0; i < vector.size(); i++) {
+            assertEquals(scalar.getAngle(i), vector.getAngle(i));
+        }
+    }
+
+    // e от 0 до 0.95 с шагом 0.05, средняя аномалия по всему кругу; круговые орбиты без поворота
+    private static AsteroidState createState() {
+        SplittableRandom random = new SplittableRandom(5);
+        AsteroidState state = new AsteroidState(ECCENTRICITIES * ANGLES);
+        double meanMotion = AsteroidState.meanMotion(1.327e20, SEMI_MAJOR_AXIS);
+        for (int k = 0; k < ECCENTRICITIES; k++) {
+            double e = k * 0.05;
+            for (int j = 0; j < ANGLES; j++) {
+                double periapsis = e == 0 ? 0 : random.nextDouble() * 2 * Math.PI;
+                state.set(k * ANGLES + j, SEMI_MAJOR_AXIS, e, 2 * Math.PI * j / ANGLES, meanMotion, periapsis);
+            }
+        }
+        state.setSize(ECCENTRICITIES * ANGLES);
+        return state;
+    }
+}